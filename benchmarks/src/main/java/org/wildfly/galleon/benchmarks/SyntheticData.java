@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic but realistic inputs shared by the benchmarks: a tree of JBoss Modules templates similar to the one of a full
+ * WildFly feature-pack, the version properties of their artifacts and jars.
+ */
+public final class SyntheticData {
+
+    public static final String GROUP_ID = "org.wildfly.bench";
+
+    private SyntheticData() {
+    }
+
+    public static String artifactKey(int i) {
+        return GROUP_ID + ':' + "artifact-" + i;
+    }
+
+    /**
+     * The artifact versions as they are stored in the feature-pack, keyed by {@code groupId:artifactId}.
+     */
+    public static Map<String, String> versionProps(int modules) {
+        final Map<String, String> props = new HashMap<>(modules * 2);
+        for (int i = 0; i < modules; ++i) {
+            props.put(artifactKey(i), artifactKey(i) + ":1." + (i % 10) + '.' + i + ".Final::jar");
+        }
+        return props;
+    }
+
+    public static String moduleXml(int i, int modules) {
+        final StringBuilder buf = new StringBuilder(2048);
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        buf.append("<!--\n  ~ JBoss, Home of Professional Open Source.\n  ~ Synthetic module ").append(i).append("\n  -->\n");
+        buf.append("<module name=\"").append(moduleName(i)).append("\" xmlns=\"urn:jboss:module:1.9\">\n");
+        buf.append("    <properties>\n        <property name=\"jboss.api\" value=\"private\"/>\n    </properties>\n\n");
+        buf.append("    <resources>\n");
+        buf.append("        <artifact name=\"${").append(artifactKey(i)).append("}\"/>\n");
+        buf.append("    </resources>\n\n");
+        buf.append("    <dependencies>\n");
+        buf.append("        <module name=\"java.logging\"/>\n");
+        buf.append("        <module name=\"java.xml\"/>\n");
+        for (int d = 1; d <= 12; ++d) {
+            buf.append("        <module name=\"").append(moduleName((i + d * 37) % modules)).append('"');
+            if (d % 4 == 0) {
+                buf.append(" optional=\"true\"");
+            }
+            if (d % 5 == 0) {
+                buf.append(" services=\"import\"");
+            }
+            buf.append("/>\n");
+        }
+        buf.append("    </dependencies>\n");
+        buf.append("</module>\n");
+        return buf.toString();
+    }
+
+    public static String moduleName(int i) {
+        return "org.wildfly.bench.module" + i;
+    }
+
+    /**
+     * Writes a tree of module templates using the {@code modules/system/layers/base} layout.
+     *
+     * @return the module.xml files
+     */
+    public static List<Path> writeModuleTree(Path root, int modules) throws IOException {
+        final List<Path> templates = new ArrayList<>(modules);
+        for (int i = 0; i < modules; ++i) {
+            final Path dir = root.resolve("modules/system/layers/base").resolve(moduleName(i).replace('.', '/')).resolve("main");
+            Files.createDirectories(dir);
+            final Path moduleXml = dir.resolve("module.xml");
+            Files.writeString(moduleXml, moduleXml(i, modules));
+            templates.add(moduleXml);
+        }
+        return templates;
+    }
+
+    /**
+     * Writes a jar containing classes of random content, a manifest and a service loader file.
+     */
+    public static void writeJar(Path jar, String pkg, int classes, int classSize) throws IOException {
+        final Random random = new Random(jar.getFileName().toString().hashCode());
+        final byte[] content = new byte[classSize];
+        Files.createDirectories(jar.getParent());
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            zip.write("Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("META-INF/services/" + pkg + ".Service"));
+            zip.write((pkg + ".ServiceImpl\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            final String dir = pkg.replace('.', '/') + '/';
+            for (int i = 0; i < classes; ++i) {
+                random.nextBytes(content);
+                zip.putNextEntry(new ZipEntry(dir + "Class" + i + ".class"));
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Writes a text file of the given number of lines with mixed line endings.
+     */
+    public static void writeText(Path file, int lines) throws IOException {
+        final StringBuilder buf = new StringBuilder(lines * 64);
+        for (int i = 0; i < lines; ++i) {
+            buf.append("export JAVA_OPTS=\"$JAVA_OPTS -Dproperty").append(i).append("=value").append(i).append('"');
+            buf.append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, buf);
+    }
+}
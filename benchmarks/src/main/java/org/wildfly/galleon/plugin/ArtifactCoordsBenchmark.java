@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.ProvisioningException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wildfly.galleon.benchmarks.SyntheticData;
+
+/**
+ * Resolution of the coordinates of the module artifacts from the feature-pack version properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtifactCoordsBenchmark {
+
+    @Param("2000")
+    int artifacts;
+
+    private Map<String, String> versionProps;
+    private String[] coords;
+    private ArtifactCoordsTable table;
+
+    @Setup
+    public void setup() {
+        versionProps = SyntheticData.versionProps(artifacts);
+        coords = new String[artifacts];
+        for (int i = 0; i < artifacts; ++i) {
+            coords[i] = SyntheticData.artifactKey(i);
+        }
+        table = new ArtifactCoordsTable();
+    }
+
+    @Benchmark
+    public void toArtifactCoords(Blackhole bh) throws ProvisioningException {
+        for (String str : coords) {
+            bh.consume(Utils.toArtifactCoords(versionProps, str, false, false, false));
+        }
+    }
+
+    /**
+     * Lookups of coordinates already parsed during the provisioning, as done when the module templates are processed.
+     */
+    @Benchmark
+    public void coordsTable(Blackhole bh) throws ProvisioningException {
+        for (String str : coords) {
+            bh.consume(table.toArtifactCoords(versionProps, str, false, false, false));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.util.IoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.galleon.benchmarks.SyntheticData;
+
+/**
+ * Copy with property replacement of a tree of module templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyReplacerBenchmark {
+
+    @Param("500")
+    int modules;
+
+    private Path workDir;
+    private List<Path> templates;
+    private Path targetDir;
+    private PropertyResolver resolver;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("property-replacer-bench");
+        templates = SyntheticData.writeModuleTree(workDir.resolve("src"), modules);
+        targetDir = workDir.resolve("target");
+        resolver = new MapPropertyResolver(SyntheticData.versionProps(modules));
+    }
+
+    @TearDown
+    public void tearDown() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Benchmark
+    public void copy() throws IOException {
+        for (int i = 0; i < templates.size(); ++i) {
+            PropertyReplacer.copy(templates.get(i), targetDir.resolve(Integer.toString(i)).resolve("module.xml"), resolver, null);
+        }
+    }
+}
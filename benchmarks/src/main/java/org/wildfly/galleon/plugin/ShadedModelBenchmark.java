@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.MessageWriter;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.util.IoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.galleon.benchmarks.SyntheticData;
+
+/**
+ * Assembly of a shaded jar from its dependencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ShadedModelBenchmark {
+
+    private static final MessageWriter NO_OP_WRITER = new MessageWriter() {
+        @Override
+        public void verbose(Throwable cause, CharSequence message) {
+        }
+
+        @Override
+        public void print(Throwable cause, CharSequence message) {
+        }
+
+        @Override
+        public void error(Throwable cause, CharSequence message) {
+        }
+
+        @Override
+        public boolean isVerboseEnabled() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Param("20")
+    int dependencies;
+
+    @Param("500")
+    int classesPerDependency;
+
+    private Path workDir;
+    private Path shadedModel;
+    private Map<String, String> versionProps;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("shaded-model-bench");
+        versionProps = SyntheticData.versionProps(dependencies);
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<shaded-model>\n<name>bench</name>\n<shaded-dependencies>\n");
+        for (int i = 0; i < dependencies; ++i) {
+            SyntheticData.writeJar(jarPath(i), "org.wildfly.bench.dep" + i, classesPerDependency, 2048);
+            xml.append("<dependency>").append(SyntheticData.artifactKey(i)).append("</dependency>\n");
+        }
+        xml.append("</shaded-dependencies>\n<main-class>org.wildfly.bench.Main</main-class>\n");
+        xml.append("<manifestEntries>\n<Multi-Release>true</Multi-Release>\n</manifestEntries>\n</shaded-model>\n");
+        shadedModel = workDir.resolve(ShadedModel.FILE_NAME);
+        Files.writeString(shadedModel, xml);
+    }
+
+    @TearDown
+    public void tearDown() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    private Path jarPath(int i) {
+        return workDir.resolve("repo").resolve("artifact-" + i + ".jar");
+    }
+
+    @Benchmark
+    public void buildJar() throws IOException, ProvisioningException {
+        final ShadedModel model = new ShadedModel(false, shadedModel,
+                artifact -> artifact.setPath(workDir.resolve("repo").resolve(artifact.getArtifactId() + ".jar")),
+                NO_OP_WRITER, versionProps, artifact -> artifact.getPath(), false, Optional.empty());
+        final Path jar = workDir.resolve("shaded.jar");
+        model.buildJar(jar);
+        Files.delete(jar);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.util.IoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.galleon.benchmarks.SyntheticData;
+
+/**
+ * Conversion of the line endings of the scripts of an installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineEndingsBenchmark {
+
+    @Param("100")
+    int files;
+
+    @Param("2000")
+    int lines;
+
+    private Path workDir;
+    private List<Path> scripts;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("line-endings-bench");
+        scripts = new ArrayList<>(files);
+        for (int i = 0; i < files; ++i) {
+            final Path script = workDir.resolve("bin").resolve("script" + i + ".sh");
+            SyntheticData.writeText(script, lines);
+            scripts.add(script);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Benchmark
+    public void toUnix() throws IOException {
+        for (Path script : scripts) {
+            LineEndingsTask.changeLineEndings(script, false);
+        }
+    }
+
+    @Benchmark
+    public void toWindows() throws IOException {
+        for (Path script : scripts) {
+            LineEndingsTask.changeLineEndings(script, true);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Creation of the management operations of a large config and their encoding when they are handed to the embedded server,
+ * in the JSON form used by the forked process scripts and in the binary DMR form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigOpsBenchmark {
+
+    @Param("50000")
+    int features;
+
+    private ModelNode[] ops;
+    private String[] jsonOps;
+    private byte[][] binaryOps;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(bytes);
+
+    @Setup
+    public void setup() throws IOException {
+        ops = createOps();
+        jsonOps = new String[features];
+        binaryOps = new byte[features][];
+        for (int i = 0; i < features; ++i) {
+            jsonOps[i] = ops[i].toJSONString(true);
+            binaryOps[i] = toBytes(ops[i]);
+        }
+    }
+
+    private ModelNode[] createOps() {
+        final ModelNode[] result = new ModelNode[features];
+        for (int i = 0; i < features; ++i) {
+            final ModelNode address = Operations.createAddress("subsystem", "logging", "logger", "org.wildfly.bench.category" + i);
+            final ModelNode op = Operations.createAddOperation(address);
+            op.get("category").set("org.wildfly.bench.category" + i);
+            op.get("level").set(i % 2 == 0 ? "INFO" : "DEBUG");
+            op.get("use-parent-handlers").set(true);
+            final ModelNode handlers = op.get("handlers");
+            handlers.add("CONSOLE");
+            handlers.add("FILE");
+            result[i] = op;
+        }
+        return result;
+    }
+
+    private byte[] toBytes(ModelNode op) throws IOException {
+        bytes.reset();
+        op.writeExternal(output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public ModelNode[] create() {
+        return createOps();
+    }
+
+    @Benchmark
+    public void toJson(Blackhole bh) {
+        for (ModelNode op : ops) {
+            bh.consume(op.toJSONString(true));
+        }
+    }
+
+    @Benchmark
+    public void toBinary(Blackhole bh) throws IOException {
+        for (ModelNode op : ops) {
+            bh.consume(toBytes(op));
+        }
+    }
+
+    @Benchmark
+    public void fromJson(Blackhole bh) {
+        for (String json : jsonOps) {
+            bh.consume(ModelNode.fromJSONString(json));
+        }
+    }
+
+    @Benchmark
+    public void fromBinary(Blackhole bh) throws IOException {
+        for (byte[] op : binaryOps) {
+            final ModelNode node = new ModelNode();
+            node.readExternal(new DataInputStream(new ByteArrayInputStream(op)));
+            bh.consume(node);
+        }
+    }
+}
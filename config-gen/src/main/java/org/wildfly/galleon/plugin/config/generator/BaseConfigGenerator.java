@@ -17,10 +17,19 @@
 
 package org.wildfly.galleon.plugin.config.generator;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.galleon.ProvisioningException;
 import org.wildfly.galleon.plugin.WfConstants;
 import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
 
@@ -54,15 +63,34 @@ public abstract class BaseConfigGenerator {
    protected Path script;
    protected PrintWriter scriptWriter;
    protected StringBuilder scriptBuf;
+   // commands streamed to the forked process, null when the commands are written to a script
+   ForkedConfigStream forkedStream;
+
+   // how long a reloaded server is given to expose an empty configuration
+   private static final long RELOAD_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+   // resources that an empty standalone configuration doesn't contain
+   private static final String[] EMPTY_CONFIG_CHILD_TYPES = {"extension", "interface", "socket-binding-group"};
 
    private static ServerBridge serverBridge;
 
+   private boolean reloadSupported = true;
+   // boot and operations timings of the configuration being generated by the embedded process
+   private boolean timed;
+   private long bootTime;
+   private long opsTime;
+   private int opsCount;
+
+   private final ByteArrayOutputStream opBytes = new ByteArrayOutputStream();
+   private final DataOutputStream opOutput = new DataOutputStream(opBytes);
+
    public static void initializeEmbedded(ClassLoader loader) throws ConfigGeneratorException {
         serverBridge = ServerBridge.get(loader);
     }
 
    protected void handle(String json) throws ConfigGeneratorException {
-      if (forkEmbedded) {
+      if (forkedStream != null) {
+          handle(ModelNode.fromJSONString(json));
+      } else if (forkEmbedded) {
           scriptWriter.write(json);
          scriptWriter.println();
       } else if (composite != null) {
@@ -72,13 +100,61 @@ public abstract class BaseConfigGenerator {
       }
    }
 
+   /**
+    * Handles an operation. When the operation is executed in this process, it is handed to the embedded server
+    * using its binary DMR encoding that is much cheaper to produce and to read than its JSON representation.
+    *
+    * @param op the operation
+    * @throws ConfigGeneratorException if the operation failed
+    */
+   protected void handle(ModelNode op) throws ConfigGeneratorException {
+      if (forkedStream != null) {
+         try {
+            forkedStream.op(toBytes(op));
+         } catch (ProvisioningException e) {
+            throw new ConfigGeneratorException(e);
+         }
+      } else if (forkEmbedded) {
+         handle(op.toJSONString(true));
+      } else if (composite != null) {
+         serverBridge.dmr_steps_add(composite, toBytes(op));
+      } else {
+         doHandle(serverBridge.dmr_fromBytes(toBytes(op)));
+      }
+   }
+
+   private byte[] toBytes(ModelNode op) throws ConfigGeneratorException {
+      opBytes.reset();
+      try {
+         op.writeExternal(opOutput);
+         opOutput.flush();
+      } catch (IOException e) {
+         throw new ConfigGeneratorException("Failed to write operation " + op, e);
+      }
+      return opBytes.toByteArray();
+   }
+
+   /**
+    * Handles an operation received from the parent process in the binary DMR encoding.
+    */
+   void handle(byte[] op) throws ConfigGeneratorException {
+      if (composite != null) {
+         serverBridge.dmr_steps_add(composite, op);
+      } else {
+         doHandle(serverBridge.dmr_fromBytes(op));
+      }
+   }
+
    protected void doHandle(String json) throws ConfigGeneratorException {
        Object op = serverBridge.dmr_fromJSON(json);
        doHandle(op);
    }
 
     private void doHandle(Object op) throws ConfigGeneratorException {
+        final long start = System.nanoTime();
         Object response = serverBridge.mcc_execute(mcc, op);
+        opsTime += System.nanoTime() - start;
+        ++opsCount;
         if (serverBridge.dmr_isSuccessful(response)) {
             return;
         }
@@ -148,7 +224,13 @@ public abstract class BaseConfigGenerator {
     }
 
    void startBatch() {
-      if (forkEmbedded) {
+      if (forkedStream != null) {
+         try {
+            forkedStream.batch();
+         } catch (ProvisioningException e) {
+            throw new RuntimeException(e);
+         }
+      } else if (forkEmbedded) {
          writeScript(BATCH);
       } else {
           try {
@@ -160,7 +242,13 @@ public abstract class BaseConfigGenerator {
    }
 
    void endBatch() throws ConfigGeneratorException {
-      if (forkEmbedded) {
+      if (forkedStream != null) {
+         try {
+            forkedStream.runBatch();
+         } catch (ProvisioningException e) {
+            throw new ConfigGeneratorException(e);
+         }
+      } else if (forkEmbedded) {
          writeScript(RUN_BATCH);
       } else {
          doHandle(composite);
@@ -170,12 +258,15 @@ public abstract class BaseConfigGenerator {
 
    protected void doStartHc(String... args) throws ConfigGeneratorException {
       //System.out.println("embed hc " + jbossHome + " " + Arrays.asList(args));
+      reportTimings();
+      final long start = System.nanoTime();
       this.args = args;
       this.hc = true;
       embeddedProcess = serverBridge.embed_createHostController(jbossHome, args);
       serverBridge.embed_start(embeddedProcess);
       mcc = serverBridge.embed_getModelControllerClient(embeddedProcess);
       waitForHc(embeddedProcess);
+      startTimings(start);
    }
 
    protected void waitForHc(Object embeddedProcess) throws ConfigGeneratorException {
@@ -209,6 +300,8 @@ public abstract class BaseConfigGenerator {
 
    protected void doStartServer(String... args) throws ConfigGeneratorException {
       //System.out.println("embed server " + jbossHome + " " + Arrays.asList(args));
+      reportTimings();
+      final long start = System.nanoTime();
       this.args = args;
       this.hc = false;
       try {
@@ -219,10 +312,158 @@ public abstract class BaseConfigGenerator {
           throw new ConfigGeneratorException("Failed to start embedded server", e);
       }
       waitForServer();
+      startTimings(start);
+   }
+
+   /**
+    * Generates the next standalone configuration with the running embedded server. The server is reloaded with
+    * the new configuration which is expected to be empty, in the running mode requested by the arguments.
+    * If the server can't be reloaded, it is stopped and a new embedded server is started.
+    *
+    * @param args the embedded server arguments of the next configuration
+    * @throws ConfigGeneratorException if the embedded server failed to start
+    */
+   protected void doReloadServer(String... args) throws ConfigGeneratorException {
+      final String serverConfig = getArgValue(args, WfConstants.EMBEDDED_ARG_SERVER_CONFIG);
+      if (reloadSupported && embeddedProcess != null && !hc && serverConfig != null) {
+         reportTimings();
+         final long start = System.nanoTime();
+         if (reload(serverConfig, isAdminOnly(args))) {
+            this.args = args;
+            startTimings(start);
+            return;
+         }
+         reloadSupported = false;
+         log("Failed to reload the embedded server with " + serverConfig + ", a new embedded server is started");
+      }
+      doStopEmbedded();
+      doStartServer(args);
+   }
+
+   private boolean reload(String serverConfig, boolean adminOnly) throws ConfigGeneratorException {
+      final ModelNode op = Operations.createOperation("reload");
+      op.get("server-config").set(serverConfig);
+      // a reloaded standalone server is not admin-only unless requested, whatever its current running mode
+      op.get("admin-only").set(adminOnly);
+      if (!Operations.isSuccessfulOutcome(execute(op))) {
+         return false;
+      }
+      // the reload completes asynchronously, the server is ready once the previous configuration is gone
+      final long expired = System.nanoTime() + (bootTimeout == null || bootTimeout <= 0 ? RELOAD_TIMEOUT : bootTimeout);
+      do {
+         if (isEmptyConfig()) {
+            return true;
+         }
+         try {
+            Thread.sleep(50);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigGeneratorException("Interrupted while waiting for embedded server to reload");
+         }
+      } while (System.nanoTime() < expired);
+      return false;
+   }
+
+   private boolean isEmptyConfig() {
+      try {
+         final ModelNode state = execute(Operations.createReadAttributeOperation(new ModelNode().setEmptyList(), "server-state"));
+         if (!Operations.isSuccessfulOutcome(state)) {
+            return false;
+         }
+         final String status = Operations.readResult(state).asString();
+         if ("starting".equals(status) || "stopping".equals(status)) {
+            return false;
+         }
+         for (String childType : EMPTY_CONFIG_CHILD_TYPES) {
+            final ModelNode op = Operations.createOperation(ClientConstants.READ_CHILDREN_NAMES_OPERATION);
+            op.get(ClientConstants.CHILD_TYPE).set(childType);
+            final ModelNode response = execute(op);
+            if (!Operations.isSuccessfulOutcome(response) || !Operations.readResult(response).asList().isEmpty()) {
+               return false;
+            }
+         }
+         return true;
+      } catch (Exception e) {
+         // the server is still reloading
+         return false;
+      }
+   }
+
+   ModelNode execute(ModelNode op) throws ConfigGeneratorException {
+      final Object response = serverBridge.mcc_execute(mcc, serverBridge.dmr_fromBytes(toBytes(op)));
+      final ModelNode result = new ModelNode();
+      try {
+         result.readExternal(new DataInputStream(new ByteArrayInputStream(serverBridge.dmr_toBytes(response))));
+      } catch (IOException e) {
+         throw new ConfigGeneratorException("Failed to read the response to " + op, e);
+      }
+      return result;
+   }
+
+   /**
+    * Whether the embedded server arguments start the server in the admin-only running mode, either with
+    * {@code --admin-only} or with {@code --start-mode=admin-only}.
+    */
+   static boolean isAdminOnly(String[] args) {
+      for (String arg : args) {
+         if (arg.equals(WfConstants.EMBEDDED_ARG_ADMIN_ONLY)) {
+            return true;
+         }
+      }
+      final String adminOnly = getArgValue(args, WfConstants.EMBEDDED_ARG_ADMIN_ONLY);
+      if (adminOnly != null) {
+         return Boolean.parseBoolean(adminOnly);
+      }
+      return "admin-only".equals(getArgValue(args, WfConstants.EMBEDDED_ARG_START_MODE));
+   }
+
+   private static String getArgValue(String[] args, String name) {
+      for (int i = 0; i < args.length; i++) {
+         final String arg = args[i];
+         if (arg.equals(name)) {
+            return i + 1 < args.length ? args[i + 1] : null;
+         }
+         if (arg.startsWith(name) && arg.charAt(name.length()) == '=') {
+            return arg.substring(name.length() + 1);
+         }
+      }
+      return null;
+   }
+
+   private void startTimings(long start) {
+      bootTime = System.nanoTime() - start;
+      opsTime = 0;
+      opsCount = 0;
+      timed = true;
+   }
+
+   /**
+    * Reports how long the embedded process took to boot compared to the time spent executing the operations
+    * of the configuration.
+    */
+   private void reportTimings() {
+      if (!timed) {
+         return;
+      }
+      timed = false;
+      final String config;
+      if (hc) {
+         final String domainConfig = getArgValue(args, WfConstants.EMBEDDED_ARG_DOMAIN_CONFIG);
+         config = domainConfig == null ? getArgValue(args, WfConstants.EMBEDDED_ARG_HOST_CONFIG) : domainConfig;
+      } else {
+         config = getArgValue(args, WfConstants.EMBEDDED_ARG_SERVER_CONFIG);
+      }
+      log(String.format("Generated %s: embedded %s boot %d ms, %d operations %d ms", config, hc ? "host controller" : "server",
+              TimeUnit.NANOSECONDS.toMillis(bootTime), opsCount, TimeUnit.NANOSECONDS.toMillis(opsTime)));
+   }
+
+   protected void log(String msg) {
+      System.out.println(msg);
    }
 
    protected void doStopEmbedded() throws ConfigGeneratorException {
       //System.out.println("stop embedded");
+      reportTimings();
       if(mcc != null) {
          try {
             serverBridge.mcc_close(mcc);
@@ -291,7 +532,13 @@ public abstract class BaseConfigGenerator {
    }
 
    void stopEmbedded() throws ConfigGeneratorException {
-      if (forkEmbedded) {
+      if (forkedStream != null) {
+         try {
+            forkedStream.stop();
+         } catch (ProvisioningException e) {
+            throw new ConfigGeneratorException(e);
+         }
+      } else if (forkEmbedded) {
          writeScript(STOP);
       } else {
          doStopEmbedded();
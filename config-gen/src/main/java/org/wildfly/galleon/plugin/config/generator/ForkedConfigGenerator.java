@@ -17,7 +17,9 @@
 
 package org.wildfly.galleon.plugin.config.generator;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,12 +32,27 @@ import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
 
 public class ForkedConfigGenerator extends BaseConfigGenerator implements ForkCallback {
 
+   /**
+    * Script argument indicating that the commands are streamed through the standard input.
+    */
+   static final String STDIN = "-";
+
    @Override
    public void forkedForEmbedded(String... args) throws ConfigGeneratorException {
       if(args.length != 2) {
          throw new IllegalArgumentException("Expected one argument but received " + Arrays.asList(args));
       }
       this.jbossHome = args[0];
+      if (STDIN.equals(args[1])) {
+         // In a Forked context, the contextClassLoader contains it all
+         initializeEmbedded(Thread.currentThread().getContextClassLoader());
+         try {
+            readCommands(new DataInputStream(new BufferedInputStream(System.in, 64 * 1024)));
+         } catch(IOException e) {
+            throw new ConfigGeneratorException("Failed to read configuration commands", e);
+         }
+         return;
+      }
       final Path script = Paths.get(args[1]);
       if(!Files.exists(script)) {
          throw new ConfigGeneratorException("Failed to locate " + script.toAbsolutePath());
@@ -49,6 +66,45 @@ public class ForkedConfigGenerator extends BaseConfigGenerator implements ForkCa
       }
    }
 
+   private void readCommands(DataInputStream in) throws IOException, ConfigGeneratorException {
+      ForkedConfigStream.read(in, new ForkedConfigStream.Handler() {
+         @Override
+         public void startServer(String... args) throws ConfigGeneratorException {
+            doStartServer(args);
+         }
+
+         @Override
+         public void startHc(String... args) throws ConfigGeneratorException {
+            doStartHc(args);
+         }
+
+         @Override
+         public void reloadServer(String... args) throws ConfigGeneratorException {
+            doReloadServer(args);
+         }
+
+         @Override
+         public void handle(byte[] op) throws ConfigGeneratorException {
+            ForkedConfigGenerator.this.handle(op);
+         }
+
+         @Override
+         public void startBatch() {
+            ForkedConfigGenerator.this.startBatch();
+         }
+
+         @Override
+         public void endBatch() throws ConfigGeneratorException {
+            ForkedConfigGenerator.this.endBatch();
+         }
+
+         @Override
+         public void stop() throws ConfigGeneratorException {
+            doStopEmbedded();
+         }
+      });
+   }
+
    private void executeScript(Path script) throws IOException, ConfigGeneratorException {
       byte state = INITIAL;
       try (BufferedReader reader = Files.newBufferedReader(script)) {
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import org.jboss.galleon.ProvisioningException;
+import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
+import org.wildfly.galleon.plugin.server.ForkedEmbeddedUtil;
+
+/**
+ * Stream of commands sent to a forked embedded process through its standard input.
+ * The forked process executes the commands as soon as they are received.
+ *
+ * Each command is a frame made of a type byte followed by its payload:
+ * <ul>
+ * <li>{@link #START_STANDALONE}, {@link #START_HC} and {@link #RELOAD_STANDALONE}: the number of arguments followed by the UTF encoded arguments</li>
+ * <li>{@link #OP}: the length of the operation followed by the operation in the binary DMR encoding</li>
+ * <li>{@link #BATCH}, {@link #RUN_BATCH}, {@link #STOP} and {@link #END}: no payload</li>
+ * </ul>
+ */
+class ForkedConfigStream {
+
+    static final byte END = 0;
+    static final byte START_STANDALONE = 1;
+    static final byte START_HC = 2;
+    static final byte OP = 3;
+    static final byte BATCH = 4;
+    static final byte RUN_BATCH = 5;
+    static final byte STOP = 6;
+    static final byte RELOAD_STANDALONE = 7;
+
+    /**
+     * Handler of the commands read by the forked process.
+     */
+    interface Handler {
+        void startServer(String... args) throws ConfigGeneratorException;
+        void startHc(String... args) throws ConfigGeneratorException;
+        void reloadServer(String... args) throws ConfigGeneratorException;
+        void handle(byte[] op) throws ConfigGeneratorException;
+        void startBatch() throws ConfigGeneratorException;
+        void endBatch() throws ConfigGeneratorException;
+        void stop() throws ConfigGeneratorException;
+    }
+
+    private final ForkedEmbeddedUtil.ForkedProcess process;
+    private final DataOutputStream out;
+
+    ForkedConfigStream(ForkedEmbeddedUtil.ForkedProcess process) {
+        this.process = process;
+        this.out = new DataOutputStream(new BufferedOutputStream(process.getInput(), 64 * 1024));
+    }
+
+    void startServer(String... args) throws ProvisioningException {
+        writeStart(START_STANDALONE, args);
+    }
+
+    void startHc(String... args) throws ProvisioningException {
+        writeStart(START_HC, args);
+    }
+
+    void reloadServer(String... args) throws ProvisioningException {
+        writeStart(RELOAD_STANDALONE, args);
+    }
+
+    void op(byte[] op) throws ProvisioningException {
+        try {
+            out.writeByte(OP);
+            out.writeInt(op.length);
+            out.write(op);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    void batch() throws ProvisioningException {
+        write(BATCH);
+    }
+
+    void runBatch() throws ProvisioningException {
+        write(RUN_BATCH);
+    }
+
+    void stop() throws ProvisioningException {
+        write(STOP);
+        // let the forked process complete the current config while the next one is being resolved
+        flush();
+    }
+
+    /**
+     * Sends the end of the stream and waits for the forked process to complete.
+     *
+     * @throws ProvisioningException  if the forked process has failed
+     */
+    void close() throws ProvisioningException {
+        write(END);
+        flush();
+        process.waitFor();
+    }
+
+    /**
+     * Kills the forked process, used when the generation has failed in the parent process.
+     */
+    void abort() {
+        process.destroy();
+    }
+
+    private void writeStart(byte type, String... args) throws ProvisioningException {
+        try {
+            out.writeByte(type);
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            // let the forked process start booting
+            out.flush();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    private void write(byte type) throws ProvisioningException {
+        try {
+            out.writeByte(type);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    private void flush() throws ProvisioningException {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    /**
+     * The stream is broken when the forked process has exited, the failure of the forked process is reported instead.
+     */
+    private ProvisioningException failed(IOException e) throws ProvisioningException {
+        process.waitFor();
+        return new ProvisioningException("Failed to send commands to the forked embedded process", e);
+    }
+
+    /**
+     * Reads the commands from the stream and dispatches them to the handler until the end of the stream.
+     *
+     * @param in  the stream
+     * @param handler  the command handler
+     * @throws IOException  if the stream can't be read
+     * @throws ConfigGeneratorException  if a command has failed
+     */
+    static void read(DataInputStream in, Handler handler) throws IOException, ConfigGeneratorException {
+        while (true) {
+            final int type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                throw new ConfigGeneratorException("Unexpected end of the command stream");
+            }
+            switch (type) {
+                case END:
+                    return;
+                case START_STANDALONE:
+                    handler.startServer(readArgs(in));
+                    break;
+                case START_HC:
+                    handler.startHc(readArgs(in));
+                    break;
+                case RELOAD_STANDALONE:
+                    handler.reloadServer(readArgs(in));
+                    break;
+                case OP: {
+                    final byte[] op = new byte[in.readInt()];
+                    in.readFully(op);
+                    handler.handle(op);
+                    break;
+                }
+                case BATCH:
+                    handler.startBatch();
+                    break;
+                case RUN_BATCH:
+                    handler.endBatch();
+                    break;
+                case STOP:
+                    handler.stop();
+                    break;
+                default:
+                    throw new ConfigGeneratorException("Unexpected command " + type);
+            }
+        }
+    }
+
+    private static String[] readArgs(DataInputStream in) throws IOException {
+        final String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        return args;
+    }
+}
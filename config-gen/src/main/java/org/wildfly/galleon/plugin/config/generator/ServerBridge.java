@@ -16,7 +16,15 @@
  */
 package org.wildfly.galleon.plugin.config.generator;
 
-import java.lang.reflect.Constructor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import org.wildfly.galleon.plugin.WfConstants;
 import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
@@ -46,28 +54,32 @@ public class ServerBridge {
     private static final String close = "close";
     private static final String stop = "stop";
     private static final String asString = "asString";
+    private static final String readExternal = "readExternal";
+    private static final String writeExternal = "writeExternal";
     private static final String READ_ATTRIBUTE_OPERATION = "READ_ATTRIBUTE_OPERATION";
     private static final String NAME = "NAME";
     private static final String OP = "OP";
     private static final String RESULT = "RESULT";
 
-    private static Method createHostControllerMethod;
-    private static Method createStandaloneServerMethod;
-    private static Method startMethod;
-    private static Method getModelControllerClientMethod;
-    private static Method executeMethod;
-    private static Method fromJSONStringMethod;
-    private static Method getMethod;
-    private static Method setMethod;
-    private static Method addMethod;
-    private static Method isSuccessfulOutcomeMethod;
-    private static Method getFailureDescriptionMethod;
-    private static Method createCompositeOperationMethod;
-    private static Method getProcessStateMethod;
-    private static Method closeMethod;
-    private static Method stopMethod;
-    private static Method asStringMethod;
-    private static Constructor dmrNewInstance;
+    private static MethodHandle createHostControllerMethod;
+    private static MethodHandle createStandaloneServerMethod;
+    private static MethodHandle startMethod;
+    private static MethodHandle getModelControllerClientMethod;
+    private static MethodHandle executeMethod;
+    private static MethodHandle fromJSONStringMethod;
+    private static MethodHandle getMethod;
+    private static MethodHandle setMethod;
+    private static MethodHandle addMethod;
+    private static MethodHandle isSuccessfulOutcomeMethod;
+    private static MethodHandle getFailureDescriptionMethod;
+    private static MethodHandle createCompositeOperationMethod;
+    private static MethodHandle getProcessStateMethod;
+    private static MethodHandle closeMethod;
+    private static MethodHandle stopMethod;
+    private static MethodHandle asStringMethod;
+    private static MethodHandle dmrNewInstance;
+    private static MethodHandle readExternalMethod;
+    private static MethodHandle writeExternalMethod;
 
     static String READ_ATTRIBUTE_OPERATION_FIELD_VALUE;
     static String NAME_FIELD_VALUE;
@@ -95,31 +107,33 @@ public class ServerBridge {
             Class<?> ModelNodeClass = Class.forName(ModelNode, true, loader);
             Class<?> OperationsClass = Class.forName(Operations, true, loader);
             Class<?> ClientConstantsClass = Class.forName(ClientConstants, true, loader);
-            dmrNewInstance = ModelNodeClass.getConstructor();
-            createHostControllerMethod = EmbeddedProcessFactoryClass.getMethod(createHostController,
+            dmrNewInstance = toGeneric(MethodHandles.publicLookup().unreflectConstructor(ModelNodeClass.getConstructor()));
+            createHostControllerMethod = toGeneric(EmbeddedProcessFactoryClass.getMethod(createHostController,
                     String.class,
                     String.class,
                     String[].class,
-                    String[].class);
-            createStandaloneServerMethod = EmbeddedProcessFactoryClass.getMethod(createStandaloneServer,
+                    String[].class));
+            createStandaloneServerMethod = toGeneric(EmbeddedProcessFactoryClass.getMethod(createStandaloneServer,
                     String.class,
                     String.class,
                     String[].class,
-                    String[].class);
-            startMethod = EmbeddedManagedProcessClass.getMethod(start);
-            getModelControllerClientMethod = EmbeddedManagedProcessClass.getMethod(getModelControllerClient);
-            executeMethod = ModelControllerClientClass.getMethod(execute, ModelNodeClass);
-            fromJSONStringMethod = ModelNodeClass.getMethod(fromJSONString, String.class);
-            getMethod = ModelNodeClass.getMethod(get, String.class);
-            setMethod = ModelNodeClass.getMethod(set, String.class);
-            addMethod = ModelNodeClass.getMethod(add, ModelNodeClass);
-            isSuccessfulOutcomeMethod = OperationsClass.getMethod(isSuccessfulOutcome, ModelNodeClass);
-            getFailureDescriptionMethod = OperationsClass.getMethod(getFailureDescription, ModelNodeClass);
-            createCompositeOperationMethod = OperationsClass.getMethod(createCompositeOperation);
-            getProcessStateMethod = EmbeddedManagedProcessClass.getMethod(getProcessState);
-            closeMethod = ModelControllerClientClass.getMethod(close);
-            stopMethod = EmbeddedManagedProcessClass.getMethod(stop);
-            asStringMethod = ModelNodeClass.getMethod(asString);
+                    String[].class));
+            startMethod = toGenericVoid(EmbeddedManagedProcessClass.getMethod(start));
+            getModelControllerClientMethod = toGeneric(EmbeddedManagedProcessClass.getMethod(getModelControllerClient));
+            executeMethod = toGeneric(ModelControllerClientClass.getMethod(execute, ModelNodeClass));
+            fromJSONStringMethod = toGeneric(ModelNodeClass.getMethod(fromJSONString, String.class));
+            getMethod = toGeneric(ModelNodeClass.getMethod(get, String.class));
+            setMethod = toGeneric(ModelNodeClass.getMethod(set, String.class));
+            addMethod = toGenericVoid(ModelNodeClass.getMethod(add, ModelNodeClass));
+            readExternalMethod = toGenericVoid(ModelNodeClass.getMethod(readExternal, DataInput.class));
+            writeExternalMethod = toGenericVoid(ModelNodeClass.getMethod(writeExternal, DataOutput.class));
+            isSuccessfulOutcomeMethod = toGeneric(OperationsClass.getMethod(isSuccessfulOutcome, ModelNodeClass));
+            getFailureDescriptionMethod = toGeneric(OperationsClass.getMethod(getFailureDescription, ModelNodeClass));
+            createCompositeOperationMethod = toGeneric(OperationsClass.getMethod(createCompositeOperation));
+            getProcessStateMethod = toGeneric(EmbeddedManagedProcessClass.getMethod(getProcessState));
+            closeMethod = toGenericVoid(ModelControllerClientClass.getMethod(close));
+            stopMethod = toGenericVoid(EmbeddedManagedProcessClass.getMethod(stop));
+            asStringMethod = toGeneric(ModelNodeClass.getMethod(asString));
 
             READ_ATTRIBUTE_OPERATION_FIELD_VALUE = (String) ClientConstantsClass.getField(READ_ATTRIBUTE_OPERATION).get(null);
             NAME_FIELD_VALUE = (String) ClientConstantsClass.getField(NAME).get(null);
@@ -130,142 +144,214 @@ public class ServerBridge {
         }
     }
 
+    private static MethodHandle toGeneric(Method method) throws IllegalAccessException {
+        return toGeneric(MethodHandles.publicLookup().unreflect(method));
+    }
+
+    /**
+     * Same as {@link #toGeneric(Method)} for the methods whose result is ignored, the handles return void.
+     */
+    private static MethodHandle toGenericVoid(Method method) throws IllegalAccessException {
+        final MethodHandle handle = toGeneric(method);
+        return handle.asType(handle.type().changeReturnType(void.class));
+    }
+
+    /**
+     * The types of the embedded server are not visible at compile time, the handles are adapted to
+     * take and return Objects so they can be invoked with invokeExact.
+     */
+    private static MethodHandle toGeneric(MethodHandle handle) {
+        return handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+    }
+
+    private static ConfigGeneratorException toException(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new ConfigGeneratorException((Exception) t);
+    }
+
     void dmr_steps_add(Object composite, String json) throws ConfigGeneratorException {
         try {
-            Object steps = getMethod.invoke(composite, WfConstants.STEPS);
-            Object op = fromJSONStringMethod.invoke(null, json);
-            addMethod.invoke(steps, op);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            Object steps = (Object) getMethod.invokeExact(composite, (Object) WfConstants.STEPS);
+            Object op = (Object) fromJSONStringMethod.invokeExact((Object) json);
+            addMethod.invokeExact(steps, op);
+        } catch (Throwable ex) {
+            throw toException(ex);
+        }
+    }
+
+    void dmr_steps_add(Object composite, byte[] op) throws ConfigGeneratorException {
+        try {
+            Object steps = (Object) getMethod.invokeExact(composite, (Object) WfConstants.STEPS);
+            addMethod.invokeExact(steps, dmr_fromBytes(op));
+        } catch (ConfigGeneratorException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw toException(ex);
+        }
+    }
+
+    /**
+     * Creates a ModelNode of the embedded server from its binary DMR encoding.
+     *
+     * @param op the ModelNode written with {@code ModelNode.writeExternal}
+     * @return the embedded server ModelNode
+     */
+    Object dmr_fromBytes(byte[] op) throws ConfigGeneratorException {
+        try {
+            Object node = (Object) dmrNewInstance.invokeExact();
+            readExternalMethod.invokeExact(node, (Object) new DataInputStream(new ByteArrayInputStream(op)));
+            return node;
+        } catch (Throwable ex) {
+            throw toException(ex);
+        }
+    }
+
+    /**
+     * Writes a ModelNode of the embedded server in the binary DMR encoding.
+     *
+     * @param node the embedded server ModelNode
+     * @return the ModelNode that can be read with {@code ModelNode.readExternal}
+     */
+    byte[] dmr_toBytes(Object node) throws ConfigGeneratorException {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            writeExternalMethod.invokeExact(node, (Object) out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object dmr_fromJSON(String json) throws ConfigGeneratorException {
         try {
-            return fromJSONStringMethod.invoke(null, json);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) fromJSONStringMethod.invokeExact((Object) json);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object mcc_execute(Object mcc, Object op) throws ConfigGeneratorException {
         try {
-            return executeMethod.invoke(mcc, op);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) executeMethod.invokeExact(mcc, op);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     void mcc_close(Object mcc) throws ConfigGeneratorException {
         try {
-            closeMethod.invoke(mcc);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            closeMethod.invokeExact(mcc);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Boolean dmr_isSuccessful(Object response) throws ConfigGeneratorException {
         try {
-            return (Boolean) isSuccessfulOutcomeMethod.invoke(null, response);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Boolean) (Object) isSuccessfulOutcomeMethod.invokeExact(response);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     String dmr_getFailureDescription(Object response) throws ConfigGeneratorException {
         try {
-            Object obj = getFailureDescriptionMethod.invoke(null, response);
+            Object obj = (Object) getFailureDescriptionMethod.invokeExact(response);
             return dmr_asString(obj);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object dmr_createCompositeOperation() throws ConfigGeneratorException {
         try {
-            return createCompositeOperationMethod.invoke(null);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) createCompositeOperationMethod.invokeExact();
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     String dmr_asString(Object dmr) throws ConfigGeneratorException {
         try {
-            return (String) asStringMethod.invoke(dmr);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (String) (Object) asStringMethod.invokeExact(dmr);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object dmr_get(Object dmr, String field) throws ConfigGeneratorException {
         try {
-            return getMethod.invoke(dmr, field);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) getMethod.invokeExact(dmr, (Object) field);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object dmr_set(Object dmr, String field) throws ConfigGeneratorException {
         try {
-            return setMethod.invoke(dmr, field);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) setMethod.invokeExact(dmr, (Object) field);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object dmr_newInstance() throws ConfigGeneratorException {
         try {
-            return dmrNewInstance.newInstance();
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) dmrNewInstance.invokeExact();
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object embed_createHostController(String jbossHome, String[] args) throws ConfigGeneratorException {
         try {
-            return createHostControllerMethod.invoke(null, jbossHome, null, null, args);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) createHostControllerMethod.invokeExact((Object) jbossHome, (Object) null, (Object) null, (Object) args);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object embed_createStandalone(String jbossHome, String[] args) throws ConfigGeneratorException {
         try {
-            return createStandaloneServerMethod.invoke(null, jbossHome, null, null, args);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) createStandaloneServerMethod.invokeExact((Object) jbossHome, (Object) null, (Object) null, (Object) args);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     void embed_start(Object embeddedProcess) throws ConfigGeneratorException {
         try {
-            startMethod.invoke(embeddedProcess);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            startMethod.invokeExact(embeddedProcess);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     void embed_stop(Object embeddedProcess) throws ConfigGeneratorException {
         try {
-            stopMethod.invoke(embeddedProcess);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            stopMethod.invokeExact(embeddedProcess);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     Object embed_getModelControllerClient(Object embeddedProcess) throws ConfigGeneratorException {
         try {
-            return getModelControllerClientMethod.invoke(embeddedProcess);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (Object) getModelControllerClientMethod.invokeExact(embeddedProcess);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 
     String embed_getProcessState(Object embeddedProcess) throws ConfigGeneratorException {
         try {
-            return (String) getProcessStateMethod.invoke(embeddedProcess);
-        } catch (Exception ex) {
-            throw new ConfigGeneratorException(ex);
+            return (String) (Object) getProcessStateMethod.invokeExact(embeddedProcess);
+        } catch (Throwable ex) {
+            throw toException(ex);
         }
     }
 }
@@ -17,15 +17,19 @@
 
 package org.wildfly.galleon.plugin.config.generator;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import org.jboss.galleon.Errors;
@@ -35,7 +39,10 @@ import org.jboss.galleon.layout.ProvisioningLayoutFactory;
 import org.jboss.galleon.progresstracking.ProgressTracker;
 import org.jboss.galleon.runtime.ProvisioningRuntime;
 import org.jboss.galleon.state.ProvisionedConfig;
+import org.jboss.galleon.util.IoUtils;
 import org.wildfly.galleon.plugin.WfConstants;
+import org.wildfly.galleon.plugin.WfInstallPlugin;
+import org.wildfly.galleon.plugin.server.ForkCallback;
 import org.wildfly.galleon.plugin.server.ForkedEmbeddedUtil;
 import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
 
@@ -45,7 +52,30 @@ import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
  */
 public class WfConfigGenerator extends BaseConfigGenerator {
 
+    /**
+     * A forked process generating a partition of the configs.
+     */
+    private static class Fork {
+        private final ForkedConfigStream stream;
+        private final Path props;
+        private String[] serverArgs;
+        private boolean serverRunning;
+
+        private Fork(ForkedConfigStream stream, Path props) {
+            this.stream = stream;
+            this.props = props;
+        }
+    }
+
     private MessageWriter messageWriter;
+    private int parallelism;
+    private List<Fork> forks = Collections.emptyList();
+    private Fork currentFork;
+    private boolean reuseEmbedded;
+    // arguments of the standalone server being generated, null when it is a host controller
+    private String[] serverArgs;
+    // whether the standalone server of the previous config is still running to be reloaded with the next config
+    private boolean serverRunning;
 
     private static Set<String> RESETTABLE_EMBEDDED_SYS_PROPERTIES = Set.of("jboss.home.dir",
             "jboss.modules.dir",
@@ -107,6 +137,21 @@ public class WfConfigGenerator extends BaseConfigGenerator {
         this.resetSysProps = resetSystemProperties;
         this.jbossHome = runtime.getStagedDir().toString();
         this.stabilityLevel = stabilityLevel;
+        this.parallelism = getConfigGenParallelism(runtime);
+        if (parallelism > 1 && isStreamingSupported()) {
+            // configs are generated in parallel by forked processes
+            this.forkEmbedded = true;
+        }
+        if (this.forkEmbedded && isStreamingSupported()) {
+            // the forked processes get their own copy of the system properties, those of this process are left untouched
+            // so that another provisioning can run in this process meanwhile
+            try {
+                doGenerate(runtime);
+            } finally {
+                cleanup(null);
+            }
+            return;
+        }
         final Map<Object, Object> originalProps = new HashMap<>(System.getProperties());
         final Map<Object, Object> resetProps = new HashMap<>();
         try {
@@ -134,17 +179,29 @@ public class WfConfigGenerator extends BaseConfigGenerator {
             messageWriter.verbose("Generating WildFly-based configs forkEmbedded=%s", forkEmbedded);
         }
 
+        final List<ProvisionedConfig> configs = runtime.getConfigs();
+        int[] partitions = null;
         if(forkEmbedded) {
-            initScriptWriter(runtime);
+            if (isStreamingSupported()) {
+                partitions = partitionConfigs(configs, parallelism);
+                startForks(runtime, partitions);
+            } else {
+                initScriptWriter(runtime);
+            }
         }
+        // the script executed by a forked process doesn't support reloading the server
+        reuseEmbedded = isReuseEmbedded(runtime) && (!forks.isEmpty() || !forkEmbedded);
 
         final ProgressTracker<ProvisionedConfig> progressTracker = runtime.getLayout().getFactory()
                 .getProgressTracker(ProvisioningLayoutFactory.TRACK_CONFIGS);
 
         try(WfProvisionedConfigHandler configHandler = new WfProvisionedConfigHandler(runtime, this)) {
-            final List<ProvisionedConfig> configs = runtime.getConfigs();
             progressTracker.starting(configs.size());
-            for (ProvisionedConfig config : configs) {
+            for (int i = 0; i < configs.size(); ++i) {
+                final ProvisionedConfig config = configs.get(i);
+                if (partitions != null) {
+                    selectFork(forks.get(partitions[i]));
+                }
                 progressTracker.processing(config);
                 if (runtime.getMessageWriter().isVerboseEnabled()) {
                     final StringBuilder msg = new StringBuilder(64).append("Feature config");
@@ -167,7 +224,17 @@ public class WfConfigGenerator extends BaseConfigGenerator {
             }
         }
 
-        if(forkEmbedded) {
+        if (serverRunning && forks.isEmpty()) {
+            try {
+                stopRunningServer();
+            } catch (ConfigGeneratorException e) {
+                throw new ProvisioningException(e);
+            }
+        }
+        if(!forks.isEmpty()) {
+            progressTracker.processing(null);
+            closeForks();
+        } else if(forkEmbedded) {
             progressTracker.processing(null);
             scriptWriter.close();
             scriptWriter = null;
@@ -176,7 +243,199 @@ public class WfConfigGenerator extends BaseConfigGenerator {
         progressTracker.complete();
     }
 
+    private static boolean isReuseEmbedded(ProvisioningRuntime runtime) throws ProvisioningException {
+        if (!runtime.isOptionSet(WfInstallPlugin.OPTION_REUSE_EMBEDDED)) {
+            return false;
+        }
+        final String value = runtime.getOptionValue(WfInstallPlugin.OPTION_REUSE_EMBEDDED);
+        return value == null || Boolean.parseBoolean(value);
+    }
+
+    /**
+     * The streaming of the commands to the forked process requires a version of the Galleon plugins that can start
+     * a forked process without waiting for its completion.
+     */
+    private static boolean isStreamingSupported() {
+        try {
+            ForkedEmbeddedUtil.class.getMethod("start", ForkCallback.class, boolean.class, Path.class, String[].class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static int getConfigGenParallelism(ProvisioningRuntime runtime) throws ProvisioningException {
+        if (!runtime.isOptionSet(WfInstallPlugin.OPTION_CONFIG_GEN_PARALLELISM)) {
+            return 1;
+        }
+        final String value = runtime.getOptionValue(WfInstallPlugin.OPTION_CONFIG_GEN_PARALLELISM);
+        if (value == null || value.isEmpty()) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        final int parallelism;
+        try {
+            parallelism = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ProvisioningException("Option " + WfInstallPlugin.OPTION_CONFIG_GEN_PARALLELISM.getName()
+                    + " expects a positive number of processes but got " + value, e);
+        }
+        if (parallelism < 1) {
+            throw new ProvisioningException("Option " + WfInstallPlugin.OPTION_CONFIG_GEN_PARALLELISM.getName()
+                    + " expects a positive number of processes but got " + value);
+        }
+        return parallelism;
+    }
+
+    /**
+     * Assigns each config to a forked process. The domain and host configs are generated by the first process in their
+     * original order since a host config may depend on the domain config, the standalone configs are spread over the
+     * other processes.
+     */
+    private static int[] partitionConfigs(List<ProvisionedConfig> configs, int parallelism) {
+        final int[] partitions = new int[configs.size()];
+        int next = 0;
+        for (ProvisionedConfig config : configs) {
+            if (!WfConstants.STANDALONE.equals(config.getModel())) {
+                next = 1;
+                break;
+            }
+        }
+        for (int i = 0; i < partitions.length; ++i) {
+            if (WfConstants.STANDALONE.equals(configs.get(i).getModel())) {
+                partitions[i] = next++ % parallelism;
+            }
+        }
+        return partitions;
+    }
+
+    private void startForks(ProvisioningRuntime runtime, int[] partitions) throws ProvisioningException {
+        int count = 1;
+        for (int partition : partitions) {
+            count = Math.max(count, partition + 1);
+        }
+        if (count > 1 && messageWriter.isVerboseEnabled()) {
+            messageWriter.verbose("Generating %s configs with %s forked processes", partitions.length, count);
+        }
+        forks = new ArrayList<>(count);
+        final Set<String> resetProps = resetSysProps == null ? Collections.emptySet() : computeResettableSysProps(resetSysProps);
+        final Path props = ForkedEmbeddedUtil.storeSystemProps();
+        try {
+            for (int i = 0; i < count; ++i) {
+                final Path forkProps = i == 0 && resetProps.isEmpty() ? props : storeForkProps(runtime, props, resetProps, i);
+                // The forked process is started right away, it boots the embedded servers as soon as their arguments are received
+                // and executes the operations while the next ones are being resolved.
+                final ForkedEmbeddedUtil.ForkedProcess process;
+                try {
+                    process = ForkedEmbeddedUtil.start(new ForkedConfigGenerator(), messageWriter.isVerboseEnabled(), forkProps,
+                            jbossHome, ForkedConfigGenerator.STDIN);
+                } catch (ProvisioningException e) {
+                    // the properties of the forks that have been started are deleted by the cleanup
+                    IoUtils.recursiveDelete(forkProps);
+                    throw e;
+                }
+                forks.add(new Fork(new ForkedConfigStream(process), forkProps));
+            }
+        } finally {
+            if (!resetProps.isEmpty()) {
+                // each fork got a copy without the reset properties
+                IoUtils.recursiveDelete(props);
+            }
+        }
+        selectFork(forks.get(0));
+    }
+
+    /**
+     * The reset system properties are removed from the properties of the forked processes rather than from this process.
+     * The embedded servers of the additional forked processes use their own temp, data and log directories
+     * so that they don't conflict with each other.
+     */
+    private static Path storeForkProps(ProvisioningRuntime runtime, Path props, Set<String> resetProps, int i) throws ProvisioningException {
+        final Properties sysProps = new Properties();
+        try (BufferedReader reader = Files.newBufferedReader(props)) {
+            sysProps.load(reader);
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(props), e);
+        }
+        for (String prop : resetProps) {
+            sysProps.remove(prop);
+        }
+        if (i > 0) {
+            final Path serverDir = runtime.getTmpPath("config-gen", Integer.toString(i));
+            sysProps.setProperty("jboss.server.temp.dir", serverDir.resolve("tmp").toString());
+            sysProps.setProperty("jboss.server.data.dir", serverDir.resolve("data").toString());
+            sysProps.setProperty("jboss.server.log.dir", serverDir.resolve("log").toString());
+        }
+        final Path forkProps;
+        try {
+            forkProps = Files.createTempFile("wfgp", "sysprops");
+        } catch (IOException e) {
+            throw new ProvisioningException("Failed to create a tmp file", e);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(forkProps)) {
+            sysProps.store(writer, "");
+        } catch (IOException e) {
+            IoUtils.recursiveDelete(forkProps);
+            throw new ProvisioningException(Errors.writeFile(forkProps), e);
+        }
+        return forkProps;
+    }
+
+    private void selectFork(Fork fork) {
+        if (currentFork == fork) {
+            return;
+        }
+        if (currentFork != null) {
+            currentFork.serverArgs = serverArgs;
+            currentFork.serverRunning = serverRunning;
+        }
+        currentFork = fork;
+        forkedStream = fork.stream;
+        serverArgs = fork.serverArgs;
+        serverRunning = fork.serverRunning;
+    }
+
+    /**
+     * Waits for the completion of all the forked processes, the first failure is reported once they have all completed.
+     */
+    private void closeForks() throws ProvisioningException {
+        ProvisioningException failure = null;
+        for (Fork fork : forks) {
+            try {
+                selectFork(fork);
+                if (serverRunning) {
+                    stopRunningServer();
+                }
+                fork.stream.close();
+            } catch (ProvisioningException | ConfigGeneratorException e) {
+                fork.stream.abort();
+                if (failure == null) {
+                    failure = e instanceof ProvisioningException ? (ProvisioningException) e : new ProvisioningException(e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            } finally {
+                IoUtils.recursiveDelete(fork.props);
+            }
+        }
+        forks = Collections.emptyList();
+        currentFork = null;
+        forkedStream = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     private void cleanup(Map<?, ?> originalProps) {
+        reuseEmbedded = false;
+        serverRunning = false;
+        // the generation has failed in this process
+        for (Fork fork : forks) {
+            fork.stream.abort();
+            IoUtils.recursiveDelete(fork.props);
+        }
+        forks = Collections.emptyList();
+        currentFork = null;
+        forkedStream = null;
         if (embeddedProcess != null) {
             try {
                 stopEmbedded();
@@ -217,7 +476,23 @@ public class WfConfigGenerator extends BaseConfigGenerator {
 
     void startServer(String... args) throws ProvisioningException {
         try {
-            if (forkEmbedded) {
+            if (serverRunning) {
+                if (isSameServerOptions(serverArgs, args)) {
+                    serverRunning = false;
+                    serverArgs = args;
+                    if (forkedStream != null) {
+                        forkedStream.reloadServer(args);
+                    } else {
+                        doReloadServer(args);
+                    }
+                    return;
+                }
+                stopRunningServer();
+            }
+            serverArgs = args;
+            if (forkedStream != null) {
+                forkedStream.startServer(args);
+            } else if (forkEmbedded) {
                 writeScript(WfConstants.STANDALONE);
                 writeArgs(args);
             } else {
@@ -230,7 +505,13 @@ public class WfConfigGenerator extends BaseConfigGenerator {
 
     void startHc(String... args) throws ProvisioningException {
         try {
-            if (forkEmbedded) {
+            if (serverRunning) {
+                stopRunningServer();
+            }
+            serverArgs = null;
+            if (forkedStream != null) {
+                forkedStream.startHc(args);
+            } else if (forkEmbedded) {
                 writeScript(WfConstants.HOST);
                 writeArgs(args);
             } else {
@@ -241,6 +522,49 @@ public class WfConfigGenerator extends BaseConfigGenerator {
         }
     }
 
+    @Override
+    void stopEmbedded() throws ConfigGeneratorException {
+        if (reuseEmbedded && serverArgs != null) {
+            // kept running until the next config is known
+            serverRunning = true;
+            return;
+        }
+        super.stopEmbedded();
+    }
+
+    private void stopRunningServer() throws ConfigGeneratorException {
+        serverRunning = false;
+        super.stopEmbedded();
+    }
+
+    /**
+     * A running server can only be reloaded for the next config if it has been started with the same arguments,
+     * the name of the config aside.
+     */
+    private static boolean isSameServerOptions(String[] running, String[] next) {
+        return getServerOptions(running).equals(getServerOptions(next));
+    }
+
+    private static List<String> getServerOptions(String[] args) {
+        final List<String> options = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; ++i) {
+            final String arg = args[i];
+            if (arg.equals(WfConstants.EMBEDDED_ARG_SERVER_CONFIG)) {
+                ++i;
+            } else if (!arg.startsWith(WfConstants.EMBEDDED_ARG_SERVER_CONFIG + '=')) {
+                options.add(arg);
+            }
+        }
+        return options;
+    }
+
+    @Override
+    protected void log(String msg) {
+        if (messageWriter.isVerboseEnabled()) {
+            messageWriter.verbose(msg);
+        }
+    }
+
     private void writeArgs(String... args) throws ConfigGeneratorException {
         scriptBuf.setLength(0);
         scriptBuf.append(args[0]);
@@ -443,7 +443,7 @@ public class WfProvisionedConfigHandler implements ProvisionedConfigHandler, Aut
         } else if(WfConstants.DOMAIN.equals(config.getModel())) {
             configGen.startHc(getEmbeddedArgs(config));
             try {
-                configGen.handle(Operations.createAddOperation(Operations.createAddress("host", "tmp")).toJSONString(true));
+                configGen.handle(Operations.createAddOperation(Operations.createAddress("host", "tmp")));
             } catch (ConfigGeneratorException e) {
                 throw new ProvisioningException("Unsupported config model " + config.getModel());
             }
@@ -618,7 +618,7 @@ public class WfProvisionedConfigHandler implements ProvisionedConfigHandler, Aut
             ++opsCount;
         }
         try {
-            configGen.handle(op.toJSONString(true));
+            configGen.handle(op);
         } catch (Throwable t) {
             if (scriptWriter != null) {
                 closeScriptWriter();
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config.generator;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.galleon.plugin.server.ConfigGeneratorException;
+import org.wildfly.galleon.plugin.server.ForkCallback;
+import org.wildfly.galleon.plugin.server.ForkedEmbeddedUtil;
+
+public class ForkedConfigStreamTestCase {
+
+    private static final String PREFIX = "command: ";
+    private static final String FAILING_OP = "fail";
+
+    /**
+     * Forked process printing the commands it reads from its standard input.
+     */
+    public static class Child implements ForkCallback {
+
+        private final List<String> commands = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void forkedForEmbedded(String... args) throws ConfigGeneratorException {
+            try {
+                ForkedConfigStream.read(new DataInputStream(new BufferedInputStream(System.in)), new ForkedConfigStream.Handler() {
+                    @Override
+                    public void startServer(String... args) {
+                        print("start-standalone " + Arrays.toString(args));
+                    }
+
+                    @Override
+                    public void startHc(String... args) {
+                        print("start-hc " + Arrays.toString(args));
+                    }
+
+                    @Override
+                    public void reloadServer(String... args) {
+                        print("reload " + Arrays.toString(args));
+                    }
+
+                    @Override
+                    public void handle(byte[] op) throws ConfigGeneratorException {
+                        final String str = new String(op, StandardCharsets.UTF_8);
+                        if (FAILING_OP.equals(str)) {
+                            throw new ConfigGeneratorException("Failed to execute operation " + str);
+                        }
+                        print("op " + str);
+                    }
+
+                    @Override
+                    public void startBatch() {
+                        print("batch");
+                    }
+
+                    @Override
+                    public void endBatch() {
+                        print("run-batch");
+                    }
+
+                    @Override
+                    public void stop() {
+                        print("stop");
+                    }
+                });
+            } catch (IOException e) {
+                throw new ConfigGeneratorException("Failed to read the commands", e);
+            }
+            print("end");
+        }
+
+        private static void print(String command) {
+            System.out.println(PREFIX + command);
+        }
+
+        @Override
+        public void forkedEmbeddedMessage(String msg) {
+            if (msg.startsWith(PREFIX)) {
+                commands.add(msg.substring(PREFIX.length()));
+            }
+        }
+    }
+
+    private ClassLoader originalCl;
+    private Path props;
+
+    @Before
+    public void before() throws Exception {
+        // the forked process classpath is collected from the URL class loaders of the context class loader
+        originalCl = Thread.currentThread().getContextClassLoader();
+        final String[] cp = System.getProperty("java.class.path").split(File.pathSeparator);
+        final URL[] urls = new URL[cp.length];
+        for (int i = 0; i < cp.length; i++) {
+            urls[i] = new File(cp[i]).toURI().toURL();
+        }
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(urls, originalCl));
+        props = ForkedEmbeddedUtil.storeSystemProps();
+    }
+
+    @After
+    public void after() {
+        Thread.currentThread().setContextClassLoader(originalCl);
+        IoUtils.recursiveDelete(props);
+    }
+
+    @Test
+    public void testCommandsRoundTrip() throws Exception {
+        final Child child = new Child();
+        final ForkedConfigStream stream = new ForkedConfigStream(ForkedEmbeddedUtil.start(child, false, props, "-"));
+        stream.startServer("--admin-only", "--server-config=standalone.xml");
+        stream.op(bytes("first"));
+        stream.batch();
+        stream.op(bytes("second"));
+        stream.op(bytes("third"));
+        stream.runBatch();
+        stream.reloadServer("--server-config=standalone-ha.xml");
+        stream.op(bytes("fourth"));
+        stream.stop();
+        stream.startHc("--domain-config=domain.xml");
+        stream.stop();
+        stream.close();
+
+        Assert.assertEquals(Arrays.asList(
+                "start-standalone [--admin-only, --server-config=standalone.xml]",
+                "op first",
+                "batch",
+                "op second",
+                "op third",
+                "run-batch",
+                "reload [--server-config=standalone-ha.xml]",
+                "op fourth",
+                "stop",
+                "start-hc [--domain-config=domain.xml]",
+                "stop",
+                "end"), child.commands.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testChildFailureIsReported() throws Exception {
+        final Child child = new Child();
+        final ForkedConfigStream stream = new ForkedConfigStream(ForkedEmbeddedUtil.start(child, false, props, "-"));
+        // the operations sent once the child has failed fill the pipe until it is broken
+        final byte[] op = new byte[64 * 1024];
+        Arrays.fill(op, (byte) 'a');
+        try {
+            stream.startServer("--admin-only");
+            stream.op(bytes("first"));
+            stream.op(bytes(FAILING_OP));
+            stream.stop();
+            for (int i = 0; i < 1024; i++) {
+                stream.op(op);
+            }
+            stream.close();
+            Assert.fail("The child failure was not reported");
+        } catch (ProvisioningException e) {
+            Assert.assertNotNull(e.getCause());
+            Assert.assertEquals(ConfigGeneratorException.class, e.getCause().getClass());
+            Assert.assertEquals("Failed to execute operation " + FAILING_OP, e.getCause().getMessage());
+        }
+        Assert.assertEquals(Arrays.asList("start-standalone [--admin-only]", "op first"), child.commands.stream().collect(Collectors.toList()));
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+}
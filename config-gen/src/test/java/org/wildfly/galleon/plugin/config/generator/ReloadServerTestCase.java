@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReloadServerTestCase {
+
+    private static final String NORMAL = "NORMAL";
+    private static final String ADMIN_ONLY = "ADMIN_ONLY";
+
+    /**
+     * Generator whose embedded server is simulated, the management operations are answered
+     * the way a standalone server reloaded with an empty configuration answers them.
+     */
+    private static class SimulatedServer extends BaseConfigGenerator {
+
+        private final List<String> events = new ArrayList<>();
+        // number of server-state reads answered with "starting" after a reload, negative if the reload never completes
+        private int reloadPolls;
+        private boolean failReload;
+        private String runningMode;
+        private boolean emptyConfig;
+        private int pollsLeft;
+
+        @Override
+        protected void doStartServer(String... args) {
+            events.add("start " + Arrays.toString(args));
+            this.args = args;
+            this.hc = false;
+            embeddedProcess = new Object();
+            runningMode = isAdminOnly(args) ? ADMIN_ONLY : NORMAL;
+            emptyConfig = true;
+        }
+
+        @Override
+        protected void doStopEmbedded() {
+            events.add("stop");
+            embeddedProcess = null;
+        }
+
+        @Override
+        protected void log(String msg) {
+        }
+
+        @Override
+        ModelNode execute(ModelNode op) {
+            final String name = Operations.getOperationName(op);
+            final ModelNode response = new ModelNode();
+            response.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+            if ("reload".equals(name)) {
+                if (failReload) {
+                    response.get(ClientConstants.OUTCOME).set(ClientConstants.FAILED);
+                    response.get(ClientConstants.FAILURE_DESCRIPTION).set("reload is not supported");
+                    return response;
+                }
+                events.add("reload " + op.get("server-config").asString());
+                runningMode = op.hasDefined("admin-only") && op.get("admin-only").asBoolean() ? ADMIN_ONLY : NORMAL;
+                emptyConfig = false;
+                pollsLeft = reloadPolls;
+            } else if (ClientConstants.READ_ATTRIBUTE_OPERATION.equals(name)) {
+                final String attribute = op.get(ClientConstants.NAME).asString();
+                if ("server-state".equals(attribute)) {
+                    if (!emptyConfig && pollsLeft != 0) {
+                        --pollsLeft;
+                        response.get(ClientConstants.RESULT).set("starting");
+                    } else {
+                        emptyConfig = true;
+                        response.get(ClientConstants.RESULT).set("running");
+                    }
+                } else if ("running-mode".equals(attribute)) {
+                    response.get(ClientConstants.RESULT).set(runningMode);
+                }
+            } else if (ClientConstants.READ_CHILDREN_NAMES_OPERATION.equals(name)) {
+                response.get(ClientConstants.RESULT).setEmptyList();
+                if (!emptyConfig) {
+                    response.get(ClientConstants.RESULT).add("previous");
+                }
+            }
+            return response;
+        }
+
+        String readRunningMode() {
+            return Operations.readResult(execute(Operations.createReadAttributeOperation(new ModelNode().setEmptyList(), "running-mode"))).asString();
+        }
+    }
+
+    @Test
+    public void testReloadKeepsAdminOnlyMode() throws Exception {
+        for (String adminOnly : new String[] {"--admin-only", "--admin-only=true", "--start-mode=admin-only"}) {
+            final SimulatedServer server = new SimulatedServer();
+            server.reloadPolls = 3;
+            server.doStartServer(adminOnly, "--internal-empty-config", "--server-config=standalone.xml");
+            Assert.assertEquals(ADMIN_ONLY, server.readRunningMode());
+            server.doReloadServer(adminOnly, "--internal-empty-config", "--server-config", "standalone-ha.xml");
+            Assert.assertEquals(adminOnly, Arrays.asList(
+                    "start [" + adminOnly + ", --internal-empty-config, --server-config=standalone.xml]",
+                    "reload standalone-ha.xml"), server.events);
+            Assert.assertEquals(adminOnly, ADMIN_ONLY, server.readRunningMode());
+        }
+    }
+
+    @Test
+    public void testReloadKeepsNormalMode() throws Exception {
+        final SimulatedServer server = new SimulatedServer();
+        server.doStartServer("--internal-empty-config", "--server-config=standalone.xml");
+        server.doReloadServer("--internal-empty-config", "--server-config=standalone-ha.xml");
+        Assert.assertEquals(Arrays.asList(
+                "start [--internal-empty-config, --server-config=standalone.xml]",
+                "reload standalone-ha.xml"), server.events);
+        Assert.assertEquals(NORMAL, server.readRunningMode());
+    }
+
+    @Test
+    public void testServerIsRestartedWhenReloadTimesOut() throws Exception {
+        final SimulatedServer server = new SimulatedServer();
+        server.bootTimeout = TimeUnit.MILLISECONDS.toNanos(200);
+        server.reloadPolls = -1;
+        server.doStartServer("--admin-only", "--server-config=standalone.xml");
+        server.doReloadServer("--admin-only", "--server-config=standalone-ha.xml");
+        // the server is no longer reloaded once a reload has failed
+        server.doReloadServer("--admin-only", "--server-config=standalone-full.xml");
+        Assert.assertEquals(Arrays.asList(
+                "start [--admin-only, --server-config=standalone.xml]",
+                "reload standalone-ha.xml",
+                "stop",
+                "start [--admin-only, --server-config=standalone-ha.xml]",
+                "stop",
+                "start [--admin-only, --server-config=standalone-full.xml]"), server.events);
+        Assert.assertEquals(ADMIN_ONLY, server.readRunningMode());
+    }
+
+    @Test
+    public void testServerIsRestartedWhenReloadFails() throws Exception {
+        final SimulatedServer server = new SimulatedServer();
+        server.failReload = true;
+        server.doStartServer("--admin-only", "--server-config=standalone.xml");
+        server.doReloadServer("--admin-only", "--server-config=standalone-ha.xml");
+        Assert.assertEquals(Arrays.asList(
+                "start [--admin-only, --server-config=standalone.xml]",
+                "stop",
+                "start [--admin-only, --server-config=standalone-ha.xml]"), server.events);
+    }
+
+    @Test
+    public void testAdminOnlyArgs() {
+        Assert.assertTrue(BaseConfigGenerator.isAdminOnly(new String[] {"--server-config", "standalone.xml", "--admin-only"}));
+        Assert.assertTrue(BaseConfigGenerator.isAdminOnly(new String[] {"--start-mode", "admin-only"}));
+        Assert.assertFalse(BaseConfigGenerator.isAdminOnly(new String[] {"--admin-only=false"}));
+        Assert.assertFalse(BaseConfigGenerator.isAdminOnly(new String[] {"--start-mode=normal"}));
+        Assert.assertFalse(BaseConfigGenerator.isAdminOnly(new String[] {"--server-config=standalone.xml"}));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.galleon.plugin.WfConstants;
+
+public class ServerBridgeTestCase {
+
+    private ServerBridge bridge;
+
+    @Before
+    public void before() throws Exception {
+        bridge = ServerBridge.get(ServerBridgeTestCase.class.getClassLoader());
+    }
+
+    @Test
+    public void testOperationRoundTrip() throws Exception {
+        final ModelNode op = Operations.createWriteAttributeOperation(Operations.createAddress("subsystem", "logging"),
+                "add-logging-api-dependencies", false);
+        op.get("bytes").set(new byte[] {0, 1, 2});
+        op.get("big").set(Long.MAX_VALUE);
+        op.get("expression").set(new ValueExpression("${jboss.bind.address:127.0.0.1}"));
+
+        final Object node = bridge.dmr_fromBytes(toBytes(op));
+        Assert.assertEquals(op, node);
+        Assert.assertEquals(op, fromBytes(bridge.dmr_toBytes(node)));
+    }
+
+    @Test
+    public void testCompositeOperationRoundTrip() throws Exception {
+        final ModelNode first = Operations.createWriteAttributeOperation(Operations.createAddress("subsystem", "logging"),
+                "add-logging-api-dependencies", false);
+        final ModelNode second = Operations.createWriteAttributeOperation(Operations.createAddress("socket-binding-group", "standard-sockets"),
+                "default-interface", "public");
+        final ModelNode third = Operations.createAddOperation(Operations.createAddress("interface", "private"));
+        third.get("inet-address").set("\u00e9t\u00e9");
+
+        final Object composite = bridge.dmr_createCompositeOperation();
+        bridge.dmr_steps_add(composite, toBytes(first));
+        bridge.dmr_steps_add(composite, second.toJSONString(true));
+        bridge.dmr_steps_add(composite, toBytes(third));
+
+        final ModelNode expected = Operations.createCompositeOperation();
+        expected.get(WfConstants.STEPS).add(first);
+        expected.get(WfConstants.STEPS).add(second);
+        expected.get(WfConstants.STEPS).add(third);
+        Assert.assertEquals(expected, composite);
+        Assert.assertEquals(expected, fromBytes(bridge.dmr_toBytes(composite)));
+    }
+
+    private static byte[] toBytes(ModelNode node) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            node.writeExternal(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ModelNode fromBytes(byte[] bytes) throws IOException {
+        final ModelNode node = new ModelNode();
+        node.readExternal(new DataInputStream(new ByteArrayInputStream(bytes)));
+        return node;
+    }
+}
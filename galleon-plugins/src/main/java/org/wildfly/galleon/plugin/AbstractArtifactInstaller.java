@@ -89,13 +89,24 @@ abstract class AbstractArtifactInstaller implements ShadedModel.Installer {
         return versionPath;
     }
 
-    void installInGeneratedRepo(MavenArtifact artifact, String version, Path path) throws IOException, ProvisioningException {
+    synchronized void installInGeneratedRepo(MavenArtifact artifact, String version, Path path) throws IOException, ProvisioningException {
         if (getGeneratedMavenRepo() != null) {
             Path versionPath = getLocalRepoPath(artifact, version, getGeneratedMavenRepo());
             Path actualTarget = versionPath.resolve(path.getFileName().toString());
-            Files.copy(path, actualTarget, StandardCopyOption.REPLACE_EXISTING);
+            installFile(path, actualTarget);
             Path pomFile = getPomArtifactPath(artifact, getArtifactResolver());
-            Files.copy(pomFile, versionPath.resolve(pomFile.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+            installFile(pomFile, versionPath.resolve(pomFile.getFileName().toString()));
         }
     }
+
+    /**
+     * Installs a resolved artifact file at its target location, replacing any existing file.
+     *
+     * @param src  the resolved artifact file
+     * @param target  the installed file
+     * @throws IOException  if the file can't be installed
+     */
+    void installFile(Path src, Path target) throws IOException {
+        Files.copy(src, target, StandardCopyOption.REPLACE_EXISTING);
+    }
 }
@@ -19,9 +19,6 @@ package org.wildfly.galleon.plugin;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
-import nu.xom.Attribute;
-import nu.xom.Element;
-import nu.xom.Elements;
 import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.universe.maven.MavenArtifact;
@@ -37,33 +34,33 @@ abstract class AbstractModuleTemplateProcessor {
 
     static class ModuleArtifact {
 
-        private final Element element;
+        private final int index;
         private final Map<String, String> versionProps;
+        private final ArtifactCoordsTable coordsTable;
         private final MessageWriter log;
         private final AbstractArtifactInstaller installer;
         private final boolean channelArtifactResolution;
         String coordsStr;
         private MavenArtifact artifact;
-        private final Attribute attribute;
         private final ModuleTemplate template;
         private final boolean requireChannel;
         ModuleArtifact(ModuleTemplate template,
-                       Element element,
+                       int index,
                        Map<String, String> versionProps,
+                       ArtifactCoordsTable coordsTable,
                        MessageWriter log,
                        AbstractArtifactInstaller installer,
                        boolean channelArtifactResolution,
                        boolean requireChannel) {
             this.template = template;
+            this.index = index;
             this.versionProps = versionProps;
+            this.coordsTable = coordsTable;
             this.log = log;
             this.installer = installer;
-            this.element = element;
             this.channelArtifactResolution = channelArtifactResolution;
-            assert element.getLocalName().equals("artifact");
-            attribute = element.getAttribute("name");
-            coordsStr = attribute.getValue();
-            if (coordsStr.startsWith("${") && coordsStr.endsWith("}")) {
+            coordsStr = template.getArtifacts().get(index);
+            if (coordsStr != null && coordsStr.startsWith("${") && coordsStr.endsWith("}")) {
                 coordsStr = coordsStr.substring(2, coordsStr.length() - 1);
                 final int optionsIndex = coordsStr.indexOf('?');
                 if (optionsIndex >= 0) {
@@ -79,7 +76,7 @@ abstract class AbstractModuleTemplateProcessor {
                 return null;
             }
             try {
-                return Utils.toArtifactCoords(this.versionProps, coordsStr, false, channelArtifactResolution, requireChannel);
+                return coordsTable.toArtifactCoords(this.versionProps, coordsStr, false, channelArtifactResolution, requireChannel);
             } catch (ProvisioningException e) {
                 throw new IOException("Failed to resolve full coordinates for " + coordsStr, e);
             }
@@ -109,13 +106,11 @@ abstract class AbstractModuleTemplateProcessor {
         }
 
         void updateFatArtifact(String finalFileName) {
-            element.setLocalName("resource-root");
-            attribute.setLocalName("path");
-            attribute.setValue(finalFileName);
+            template.setResourceRoot(index, finalFileName);
         }
 
         void updateThinArtifact(String coords) {
-            attribute.setValue(coords);
+            template.setArtifactName(index, coords);
         }
 
     }
@@ -165,9 +160,8 @@ abstract class AbstractModuleTemplateProcessor {
 
     void processModuleVersion() throws ProvisioningException {
         // replace version, if any
-        final Attribute versionAttribute = template.getRootElement().getAttribute("version");
-        if (versionAttribute != null) {
-            final String versionExpr = versionAttribute.getValue();
+        final String versionExpr = template.getVersion();
+        if (versionExpr != null) {
             if (versionExpr.startsWith("${") && versionExpr.endsWith("}")) {
                 final String exprBody = versionExpr.substring(2, versionExpr.length() - 1);
                 final int optionsIndex = exprBody.indexOf('?');
@@ -177,22 +171,18 @@ abstract class AbstractModuleTemplateProcessor {
                 } else {
                     artifactName = exprBody;
                 }
-                final MavenArtifact artifact = Utils.toArtifactCoords(versionProps, artifactName, false, channelArtifactResolution, requireChannel);
+                final MavenArtifact artifact = plugin.getArtifactCoords().toArtifactCoords(versionProps, artifactName, false, channelArtifactResolution, requireChannel);
                 if (artifact != null) {
-                    versionAttribute.setValue(artifact.getVersion());
+                    template.setVersion(artifact.getVersion());
                 }
             }
         }
     }
 
     void processArtifacts() throws IOException, MavenUniverseException, ProvisioningException {
-        Elements artifacts = template.getArtifacts();
-        if (artifacts == null) {
-            return;
-        }
-        final int artifactCount = artifacts.size();
+        final int artifactCount = template.getArtifacts().size();
         for (int i = 0; i < artifactCount; i++) {
-            final ModuleArtifact moduleArtifact = new ModuleArtifact(template, artifacts.get(i), versionProps, getLog(), installer, channelArtifactResolution, requireChannel);
+            final ModuleArtifact moduleArtifact = new ModuleArtifact(template, i, versionProps, plugin.getArtifactCoords(), getLog(), installer, channelArtifactResolution, requireChannel);
             if (moduleArtifact.hasMavenArtifact()) {
                 Path artifactPath = moduleArtifact.getMavenArtifact().getPath();
                 processArtifact(moduleArtifact);
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+
+/**
+ * Table of the artifact coordinates parsed by {@link Utils#toArtifactCoords(Map, String, boolean, boolean, boolean)}
+ * during a provisioning. Each distinct coordinates expression is parsed and its version resolved once for a given
+ * map of version properties, the version properties are expected to not change once the table is used.
+ *
+ * A new artifact is returned by each lookup since the returned artifacts are then resolved and updated by the callers.
+ * Failures are not recorded, a failing expression is parsed again and fails again.
+ */
+class ArtifactCoordsTable {
+
+    private static final class Key {
+        private final Map<String, String> versionProps;
+        private final String coords;
+        private final boolean optional;
+        private final boolean channelArtifactResolution;
+        private final boolean requireChannel;
+        private final int hash;
+
+        private Key(Map<String, String> versionProps, String coords, boolean optional, boolean channelArtifactResolution, boolean requireChannel) {
+            this.versionProps = versionProps;
+            this.coords = coords;
+            this.optional = optional;
+            this.channelArtifactResolution = channelArtifactResolution;
+            this.requireChannel = requireChannel;
+            this.hash = Objects.hash(System.identityHashCode(versionProps), coords, optional, channelArtifactResolution, requireChannel);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            // the version properties are compared by identity, each feature-pack has its own map
+            return versionProps == other.versionProps && optional == other.optional
+                    && channelArtifactResolution == other.channelArtifactResolution
+                    && requireChannel == other.requireChannel && coords.equals(other.coords);
+        }
+    }
+
+    // an optional artifact whose version is not found
+    private static final MavenArtifact ABSENT = new MavenArtifact();
+
+    private final Map<Key, MavenArtifact> artifacts = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Same as {@link Utils#toArtifactCoords(Map, String, boolean, boolean, boolean)}.
+     */
+    MavenArtifact toArtifactCoords(Map<String, String> versionProps, String str, boolean optional,
+            boolean channelArtifactResolution, boolean requireChannel) throws ProvisioningException {
+        final Key key = new Key(versionProps, str, optional, channelArtifactResolution, requireChannel);
+        MavenArtifact artifact = artifacts.get(key);
+        if (artifact == null) {
+            misses.incrementAndGet();
+            artifact = Utils.toArtifactCoords(versionProps, str, optional, channelArtifactResolution, requireChannel);
+            if (artifact == null) {
+                artifact = ABSENT;
+            }
+            artifacts.putIfAbsent(key, artifact);
+        } else {
+            hits.incrementAndGet();
+        }
+        return artifact == ABSENT ? null : copy(artifact, requireChannel);
+    }
+
+    private static MavenArtifact copy(MavenArtifact artifact, boolean requireChannel) {
+        final MavenArtifact copy = new MavenArtifact();
+        copy.setGroupId(artifact.getGroupId());
+        copy.setArtifactId(artifact.getArtifactId());
+        copy.setVersion(artifact.getVersion());
+        copy.setClassifier(artifact.getClassifier());
+        copy.setExtension(artifact.getExtension());
+        if (requireChannel) {
+            copy.addMetadata(WfInstallPlugin.REQUIRES_CHANNEL_FOR_ARTIFACT_RESOLUTION_PROPERTY, "true");
+        }
+        return copy;
+    }
+
+    /**
+     * @return the number of lookups that were served from the table
+     */
+    int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that had to parse the coordinates
+     */
+    int getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import org.jboss.galleon.util.HashUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the SHA-1 hashes of artifact files keyed by absolute path, size and last modification time.
+ * The index is persisted between provisionings so that unchanged files are not hashed again.
+ *
+ * Each line of the index file has the following format: {@code sha1::size::lastModified::absolutePath}
+ */
+class ArtifactHashIndex {
+
+    private static final String SEPARATOR = "::";
+
+    private static class Entry {
+        private final String hash;
+        private final long size;
+        private final long lastModified;
+
+        private Entry(String hash, long size, long lastModified) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Path> used = ConcurrentHashMap.newKeySet();
+    private int misses;
+
+    /**
+     * Loads an index, an empty index is returned if the file doesn't exist or can't be parsed.
+     *
+     * @param file  the index file
+     * @return the index
+     * @throws IOException  if the index file can't be read
+     */
+    static ArtifactHashIndex load(Path file) throws IOException {
+        final ArtifactHashIndex index = new ArtifactHashIndex();
+        if (file == null || !Files.exists(file)) {
+            return index;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line = reader.readLine();
+            while (line != null) {
+                final String[] parts = line.split(SEPARATOR, 4);
+                if (parts.length == 4) {
+                    try {
+                        index.entries.put(Path.of(parts[3]), new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+                    } catch (RuntimeException e) {
+                        // Ignore corrupted entry, the file will be hashed again
+                    }
+                }
+                line = reader.readLine();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the SHA-1 hash of a file, the file is only read if it is not indexed or if it changed since it was indexed.
+     *
+     * @param file  the file to hash
+     * @return the hash of the file
+     * @throws IOException  if the file can't be read
+     */
+    String hash(Path file) throws IOException {
+        final Path key = file.toAbsolutePath().normalize();
+        final BasicFileAttributes attrs = Files.readAttributes(key, BasicFileAttributes.class);
+        final long size = attrs.size();
+        final long lastModified = attrs.lastModifiedTime().toMillis();
+        used.add(key);
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+            return entry.hash;
+        }
+        final String hash = HashUtils.hashFile(key);
+        entries.put(key, new Entry(hash, size, lastModified));
+        synchronized (this) {
+            ++misses;
+        }
+        return hash;
+    }
+
+    /**
+     * @return the number of files that had to be hashed
+     */
+    synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Stores the index. Entries of files that have not been hashed by this provisioning and that no longer exist are dropped.
+     * The index is written to a temporary file that atomically replaces the index file, so that provisionings sharing
+     * the index never read a partially written index.
+     *
+     * @param file  the index file
+     * @throws IOException  if the index can't be written
+     */
+    void store(Path file) throws IOException {
+        final Map<Path, Entry> sorted = new TreeMap<>(entries);
+        final Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        final Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            write(sorted, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void write(Map<Path, Entry> sorted, Path tmp) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+            for (Map.Entry<Path, Entry> e : sorted.entrySet()) {
+                if (!used.contains(e.getKey()) && !Files.exists(e.getKey())) {
+                    continue;
+                }
+                final Entry entry = e.getValue();
+                writer.write(entry.hash);
+                writer.write(SEPARATOR);
+                writer.write(Long.toString(entry.size));
+                writer.write(SEPARATOR);
+                writer.write(Long.toString(entry.lastModified));
+                writer.write(SEPARATOR);
+                writer.write(e.getKey().toString());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -18,26 +18,49 @@ package org.wildfly.galleon.plugin;
 
 import org.jboss.galleon.universe.maven.MavenArtifact;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
-import org.jboss.galleon.util.HashUtils;
 import org.jboss.galleon.util.IoUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class ArtifactRecorder {
     protected static final String ARTIFACT_LIST_FILE = "artifacts.txt";
+    protected static final String INSTALL_MODE_FILE = "install-mode.txt";
     private static final String SEPARATOR = "::";
     private final Path stagedDir;
     private final Path cacheDir;
     private final Path artifactList;
     private final HashMap<String, Path> cachedArtifacts = new HashMap<>();
+    // files having the same content as the recorded files, hashed instead of the recorded files
+    private final HashMap<String, Path> hashSources = new HashMap<>();
+    private final ArtifactHashIndex hashIndex;
+    private final Path hashIndexFile;
+    private String installMode;
+    private Comparator<Path> targetOrder;
 
     public ArtifactRecorder(Path stagedDir, Path cacheDir) throws IOException {
+        this(stagedDir, cacheDir, new ArtifactHashIndex(), null);
+    }
+
+    /**
+     * @param stagedDir  the staged installation directory
+     * @param cacheDir  the directory containing the recorded artifacts list, relative to {@code stagedDir} if not absolute
+     * @param hashIndex  the index of the already known artifact hashes
+     * @param hashIndexFile  the file in which the hash index is persisted, if null the index is not persisted
+     * @throws IOException
+     */
+    ArtifactRecorder(Path stagedDir, Path cacheDir, ArtifactHashIndex hashIndex, Path hashIndexFile) throws IOException {
         this.stagedDir = stagedDir;
+        this.hashIndex = hashIndex;
 
         if (cacheDir.isAbsolute()) {
             this.cacheDir = cacheDir;
@@ -46,6 +69,7 @@ public class ArtifactRecorder {
         }
 
         this.artifactList = this.cacheDir.resolve(ARTIFACT_LIST_FILE);
+        this.hashIndexFile = hashIndexFile;
 
         initCacheDir();
     }
@@ -57,12 +81,35 @@ public class ArtifactRecorder {
 
         Files.deleteIfExists(artifactList);
         Files.createFile(artifactList);
+        Files.deleteIfExists(cacheDir.resolve(INSTALL_MODE_FILE));
+    }
+
+    /**
+     * Sets the way the recorded artifacts have been installed. When the artifacts are linked to the resolved artifacts
+     * instead of being copied, the mode is persisted in cacheDir/{@value ArtifactRecorder#INSTALL_MODE_FILE} so that
+     * the installed files are known to be shared with the Maven repository.
+     *
+     * @param installMode the install mode (copy, hardlink or symlink)
+     */
+    public synchronized void setInstallMode(String installMode) {
+        this.installMode = installMode;
+    }
+
+    /**
+     * Sets the order of the targets of an artifact recorded several times, e.g. an artifact shared by JBoss modules
+     * processed concurrently. The greatest target according to the order is kept, the most recent one if they are equal.
+     * Without an order, the most recent target is kept.
+     *
+     * @param targetOrder the order of the targets that are not cached copies
+     */
+    public synchronized void setTargetOrder(Comparator<Path> targetOrder) {
+        this.targetOrder = targetOrder;
     }
 
     /**
      * adds the artifact's coordinates to the artifacts list.
      *
-     * If the artifact is recorded twice, the most recent {@code target} is used. If the artifact was recorded with a jar
+     * If the artifact is recorded twice, the most recent {@code target} is used, unless an order of the targets is set. If the artifact was recorded with a jar
      * cached in {@code cacheDir} and is recorded again pointing to the external jar, the external jar will be used and
      * cached copy will be removed.
      *
@@ -70,16 +117,42 @@ public class ArtifactRecorder {
      * @param target
      * @throws IOException
      */
-    public void record(MavenArtifact artifact, Path target) throws IOException {
+    public synchronized void record(MavenArtifact artifact, Path target) throws IOException {
+        record(artifact, target, null);
+    }
+
+    /**
+     * adds the artifact's coordinates to the artifacts list, {@code target} being a copy of {@code source}.
+     *
+     * The hash of the recorded artifact is computed from {@code source}. Unlike {@code target} that is re-created by each
+     * provisioning, {@code source} (usually the artifact in the Maven local cache) is not modified between provisionings
+     * and its hash can be retrieved from the hash index.
+     *
+     * @param artifact
+     * @param target
+     * @param source the file that is copied to {@code target}, or null if unknown
+     * @throws IOException
+     */
+    public synchronized void record(MavenArtifact artifact, Path target, Path source) throws IOException {
         final String coord = artifact.getCoordsAsString();
         if (cachedArtifacts.containsKey(coord)) {
-            // if the artifact file was cached and the new target points to a different file, remove the old cached file
             final Path cachedPath = cachedArtifacts.get(coord);
-            if (cachedPath.toAbsolutePath().startsWith(cacheDir) && !cachedPath.equals(target)) {
+            final boolean cachedCopy = cachedPath.toAbsolutePath().startsWith(cacheDir);
+            if (!cachedCopy && targetOrder != null && !target.toAbsolutePath().startsWith(cacheDir)
+                    && targetOrder.compare(target, cachedPath) < 0) {
+                return;
+            }
+            // if the artifact file was cached and the new target points to a different file, remove the old cached file
+            if (cachedCopy && !cachedPath.equals(target)) {
                 Files.delete(cachedPath);
             }
         }
         cachedArtifacts.put(coord, target);
+        if (source == null) {
+            hashSources.remove(coord);
+        } else {
+            hashSources.put(coord, source);
+        }
     }
 
     /**
@@ -90,26 +163,56 @@ public class ArtifactRecorder {
      * @throws MavenUniverseException
      * @throws IOException
      */
-    public void cache(MavenArtifact artifact, Path jarSrc) throws MavenUniverseException, IOException {
+    public synchronized void cache(MavenArtifact artifact, Path jarSrc) throws MavenUniverseException, IOException {
         if (!cachedArtifacts.containsKey(artifact.getCoordsAsString())) {
             IoUtils.copy(jarSrc, cacheDir.resolve(artifact.getArtifactFileName()));
 
-            record(artifact, cacheDir.resolve(artifact.getArtifactFileName()));
+            record(artifact, cacheDir.resolve(artifact.getArtifactFileName()), jarSrc);
         }
     }
 
     /**
      * persist list of recorded artifacts in cacheDir/{@value ArtifactRecorder#ARTIFACT_LIST_FILE}
+     * and the updated hash index.
      * @throws IOException
      */
-    public void writeCacheManifest() throws IOException {
+    public synchronized void writeCacheManifest() throws IOException {
+        final List<Map.Entry<String, Path>> entries = new ArrayList<>(cachedArtifacts.entrySet());
+        // files that are not indexed yet are hashed in parallel
+        final List<String> hashes;
+        try {
+            hashes = entries.parallelStream().map(entry -> {
+                final Path source = hashSources.get(entry.getKey());
+                try {
+                    return hashIndex.hash(source != null && Files.exists(source) ? source : entry.getValue());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
         final StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, Path> entry : cachedArtifacts.entrySet()) {
-            final String hash = HashUtils.hashFile(entry.getValue());
+        for (int i = 0; i < entries.size(); i++) {
+            final Map.Entry<String, Path> entry = entries.get(i);
+            final String hash = hashes.get(i);
             final Path relativePath = stagedDir.relativize(entry.getValue());
             final String universalPath = relativePath.toString().replace(File.separatorChar, '/');
             sb.append(entry.getKey()).append(SEPARATOR).append(hash).append(SEPARATOR).append(universalPath).append("\n");
         }
         Files.writeString(artifactList, sb.toString());
+        if (installMode != null) {
+            Files.writeString(cacheDir.resolve(INSTALL_MODE_FILE), installMode + "\n");
+        }
+        if (hashIndexFile != null) {
+            hashIndex.store(hashIndexFile);
+        }
+    }
+
+    /**
+     * @return the number of recorded artifacts that were not found in the hash index and had to be hashed
+     */
+    int getHashIndexMisses() {
+        return hashIndex.getMisses();
     }
 }
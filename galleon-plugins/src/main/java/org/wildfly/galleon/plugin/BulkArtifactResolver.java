@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.progresstracking.ProgressTracker;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.universe.maven.repo.MavenRepoManager;
+
+/**
+ * Resolves the artifacts referenced by the JBoss Modules templates while the templates are still being parsed.
+ * Artifacts are grouped in batches that are handed to {@link MavenRepoManager#resolveAll(java.util.Collection)}
+ * as soon as they are full, so that the resolution overlaps with the parsing of the remaining templates.
+ *
+ * Each artifact of a batch completes its own resolution once the repository manager has set its path,
+ * an artifact left without a path once the batch has been resolved fails.
+ *
+ * Artifacts and batches are added from a single thread, progress is reported from the thread that awaits the resolution.
+ */
+class BulkArtifactResolver implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 32;
+
+    private static class Batch {
+        private final List<ResolvingArtifact> artifacts = new ArrayList<>(BATCH_SIZE);
+    }
+
+    private final MavenRepoManager maven;
+    private final ExecutorService executor;
+    private final Map<MavenArtifact, CompletableFuture<Void>> resolutions = new HashMap<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private Batch current;
+
+    BulkArtifactResolver(MavenRepoManager maven, int threads) {
+        this.maven = maven;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Schedules the resolution of an artifact.
+     *
+     * @param key  the unresolved coordinates identifying the artifact
+     * @param artifact  the artifact to resolve, its version and path are set once resolved
+     * @return  the future completed once the artifact has been resolved
+     */
+    CompletableFuture<Void> add(MavenArtifact key, MavenArtifact artifact) {
+        CompletableFuture<Void> resolution = resolutions.get(key);
+        if (resolution != null) {
+            return resolution;
+        }
+        if (current == null) {
+            current = new Batch();
+        }
+        final ResolvingArtifact resolving = new ResolvingArtifact(artifact);
+        current.artifacts.add(resolving);
+        resolution = resolving.getResolution();
+        resolutions.put(key, resolution);
+        if (current.artifacts.size() == BATCH_SIZE) {
+            flush();
+        }
+        return resolution;
+    }
+
+    /**
+     * Schedules the resolution of the artifacts added since the last batch was submitted.
+     */
+    void flush() {
+        if (current == null) {
+            return;
+        }
+        final Batch batch = current;
+        current = null;
+        batches.add(batch);
+        executor.execute(() -> {
+            try {
+                maven.resolveAll(new ArrayList<>(batch.artifacts));
+                for (ResolvingArtifact artifact : batch.artifacts) {
+                    artifact.resolved();
+                }
+            } catch (Throwable t) {
+                // The artifacts whose path has already been set are resolved, the remaining ones are reported as failed
+                for (ResolvingArtifact artifact : batch.artifacts) {
+                    artifact.failed(t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for all the scheduled artifacts to be resolved reporting each of them to the tracker, in the order they were added,
+     * as soon as it is resolved.
+     *
+     * @param tracker  the artifacts resolution tracker
+     * @throws ProvisioningException  if an artifact failed to resolve
+     */
+    void awaitResolved(ProgressTracker<MavenArtifact> tracker) throws ProvisioningException {
+        flush();
+        for (Batch batch : batches) {
+            for (ResolvingArtifact artifact : batch.artifacts) {
+                tracker.processing(artifact);
+                await(artifact.getResolution());
+                tracker.processed(artifact);
+            }
+        }
+    }
+
+    static void await(CompletableFuture<Void> resolution) throws ProvisioningException {
+        try {
+            resolution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while resolving artifacts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProvisioningException) {
+                throw (ProvisioningException) e.getCause();
+            }
+            throw new ProvisioningException("Failed to resolve artifact", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
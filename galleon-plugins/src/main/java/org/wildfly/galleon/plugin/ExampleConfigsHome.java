@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.jboss.galleon.runtime.FeaturePackRuntime;
+import org.jboss.galleon.runtime.ProvisioningRuntime;
+
+/**
+ * The installation staged by the main provisioning, handed over to the nested provisioning of the example configs.
+ *
+ * When the staged installation contains all the packages required by the example configs, the nested provisioning
+ * generates the example configs against the JBoss Modules of the staged installation instead of building its own modules.
+ * The file lists the staged directory on its first line followed by the installed packages, one per line:
+ * {@code feature-pack-id::package}, the feature-pack id includes its version.
+ */
+class ExampleConfigsHome {
+
+    private static final String SEPARATOR = "::";
+
+    private final Path home;
+    private final Set<String> packages;
+
+    private ExampleConfigsHome(Path home, Set<String> packages) {
+        this.home = home;
+        this.packages = packages;
+    }
+
+    /**
+     * Writes the staged directory and the packages of the main provisioning.
+     *
+     * @param file  the file to write
+     * @param runtime  the runtime of the main provisioning
+     * @throws IOException  if the file can't be written
+     */
+    static void store(Path file, ProvisioningRuntime runtime) throws IOException {
+        store(file, runtime.getStagedDir(), runtime);
+    }
+
+    /**
+     * Writes a copy of the JBoss Modules of the staged directory and the packages of the main provisioning.
+     *
+     * @param file  the file to write
+     * @param home  the directory containing a copy of the JBoss Modules of the staged directory
+     * @param runtime  the runtime of the main provisioning
+     * @throws IOException  if the file can't be written
+     */
+    static void store(Path file, Path home, ProvisioningRuntime runtime) throws IOException {
+        store(file, home, getPackages(runtime));
+    }
+
+    static void store(Path file, Path home, Set<String> packages) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(home.toAbsolutePath().toString());
+            writer.newLine();
+            for (String pkg : packages) {
+                writer.write(pkg);
+                writer.newLine();
+            }
+        }
+    }
+
+    static ExampleConfigsHome load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            final Path home = Paths.get(reader.readLine());
+            final Set<String> packages = new HashSet<>();
+            String line = reader.readLine();
+            while (line != null) {
+                packages.add(line);
+                line = reader.readLine();
+            }
+            return new ExampleConfigsHome(home, packages);
+        }
+    }
+
+    Path getHome() {
+        return home;
+    }
+
+    /**
+     * Whether the staged installation provides the JBoss Modules required to generate the configs of a provisioning.
+     *
+     * @param runtime  the runtime of the nested provisioning
+     * @return true if all the packages of the provisioning are installed in the staged installation
+     */
+    boolean providesPackages(ProvisioningRuntime runtime) {
+        return providesPackages(getPackages(runtime));
+    }
+
+    boolean providesPackages(Set<String> packages) {
+        return Files.isDirectory(home.resolve(WfConstants.MODULES)) && this.packages.containsAll(packages);
+    }
+
+    private static Set<String> getPackages(ProvisioningRuntime runtime) {
+        final Set<String> packages = new LinkedHashSet<>();
+        for (FeaturePackRuntime fp : runtime.getFeaturePacks()) {
+            for (String pkg : fp.getPackageNames()) {
+                packages.add(toKey(fp.getFPID().toString(), pkg));
+            }
+        }
+        return packages;
+    }
+
+    static String toKey(String fpid, String pkg) {
+        return fpid + SEPARATOR + pkg;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.jboss.galleon.util.PropertyUtils;
+
+/**
+ * Converts the line endings of text files, working on the bytes of the files.
+ *
+ * A file is first scanned and left untouched when its line endings are already the expected ones or when it
+ * contains a NUL byte, in which case it is considered as binary. Otherwise the file is rewritten in place, keeping
+ * its permissions. A linked file is replaced with a copy before being rewritten, see {@link LinkedFiles}. Large files are scanned through a read-only mapping of the file.
+ */
+public final class LineEndingsConverter {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+    // a file that is still mapped can't be truncated on Windows
+    private static final boolean MAP = !PropertyUtils.isWindows();
+
+    private LineEndingsConverter() {
+    }
+
+    /**
+     * Terminates every line of a file, including the last one, with the Unix or the Windows line ending.
+     * {@code \n}, {@code \r\n} and {@code \r} are line terminators.
+     *
+     * @param file  the file
+     * @param windows  true for Windows line endings, false for Unix line endings
+     * @return true if the file has been rewritten
+     * @throws IOException  if the file can't be read or written
+     */
+    public static boolean convertLines(Path file, boolean windows) throws IOException {
+        return convert(file, windows, true);
+    }
+
+    /**
+     * Replaces the line endings of the other style with the Unix or the Windows line ending,
+     * {@code \r\n} with {@code \n} for Unix and {@code \n} with {@code \r\n} for Windows.
+     *
+     * @param file  the file
+     * @param windows  true for Windows line endings, false for Unix line endings
+     * @return true if the file has been rewritten
+     * @throws IOException  if the file can't be read or written
+     */
+    public static boolean replaceLineEndings(Path file, boolean windows) throws IOException {
+        return convert(file, windows, false);
+    }
+
+    private static boolean convert(Path file, boolean windows, boolean lines) throws IOException {
+        final ByteBuffer content;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0) {
+                return false;
+            }
+            if (MAP && size >= MAP_THRESHOLD
+                    && !needsConversion(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), windows, lines)) {
+                return false;
+            }
+            if (size > Integer.MAX_VALUE / 2 - 1) {
+                throw new IOException(file + " is too large to convert its line endings");
+            }
+            content = ByteBuffer.allocate((int) size);
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // read the whole file
+            }
+            content.flip();
+        }
+        if (!needsConversion(content, windows, lines)) {
+            return false;
+        }
+        final ByteBuffer converted = convert(content, windows, lines);
+        LinkedFiles.unlink(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (converted.hasRemaining()) {
+                channel.write(converted);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans the content, returning false if the content is binary or already has the expected line endings.
+     */
+    static boolean needsConversion(ByteBuffer content, boolean windows, boolean lines) {
+        final int limit = content.limit();
+        boolean needed = false;
+        byte previous = 0;
+        for (int i = content.position(); i < limit; ++i) {
+            final byte b = content.get(i);
+            if (b == 0) {
+                return false;
+            }
+            if (!needed) {
+                if (b == LF) {
+                    needed = windows ? previous != CR : previous == CR;
+                } else if (previous == CR && lines) {
+                    // a lone \r terminates a line
+                    needed = true;
+                }
+            }
+            previous = b;
+        }
+        if (lines && !needed) {
+            // the last line is terminated
+            needed = previous != LF;
+        }
+        return needed;
+    }
+
+    static ByteBuffer convert(ByteBuffer content, boolean windows, boolean lines) {
+        final int limit = content.limit();
+        final ByteBuffer out = ByteBuffer.allocate(windows ? 2 * limit + 2 : limit + 1);
+        int i = content.position();
+        while (i < limit) {
+            final byte b = content.get(i++);
+            if (b == CR && i < limit && content.get(i) == LF) {
+                // \r\n
+                ++i;
+                terminate(out, windows);
+            } else if (b == LF || (b == CR && lines)) {
+                terminate(out, windows);
+            } else {
+                out.put(b);
+            }
+        }
+        if (lines && out.position() > 0 && out.get(out.position() - 1) != LF) {
+            terminate(out, windows);
+        }
+        out.flip();
+        return out;
+    }
+
+    private static void terminate(ByteBuffer out, boolean windows) {
+        if (windows) {
+            out.put(CR);
+        }
+        out.put(LF);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Staged files may be links to files shared with other installations, e.g.: the artifacts installed by the
+ * {@link LinkingArtifactInstaller} are links to the Maven local cache or to the shaded jars cache.
+ * A task that modifies a staged file in place first replaces such a link with a copy of the linked content.
+ */
+public final class LinkedFiles {
+
+    private LinkedFiles() {
+    }
+
+    /**
+     * Replaces a symbolic link or a file having several hard links with a copy of its content, so that the file can be
+     * modified in place without modifying the file it is linked to. Other files and directories are left untouched.
+     *
+     * @param file  the file about to be modified
+     * @return true if the link has been replaced with a copy
+     * @throws IOException  if the link can't be replaced
+     */
+    public static boolean unlink(Path file) throws IOException {
+        if (Files.isDirectory(file) || !isLinked(file)) {
+            return false;
+        }
+        final Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return true;
+    }
+
+    static boolean isLinked(Path file) throws IOException {
+        if (Files.isSymbolicLink(file)) {
+            return true;
+        }
+        try {
+            return ((Number) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS)).intValue() > 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // the file system doesn't count the links
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.wildfly.galleon.plugin.WfInstallPlugin.ArtifactResolver;
+
+/**
+ * Installer that links the installed artifacts to the resolved artifacts instead of copying them.
+ * When a link can't be created (e.g.: the target is on another file system or links are not supported)
+ * the artifact is copied.
+ *
+ * The linked files are shared with the Maven local cache or with the shaded jars cache. The tasks modifying staged files
+ * in place (file permissions, line endings, file appenders and property replacement of xsl sources) replace a linked file
+ * with a copy before modifying it, see {@link LinkedFiles}.
+ */
+class LinkingArtifactInstaller extends SimpleArtifactInstaller {
+
+    enum Mode {
+        COPY,
+        HARDLINK,
+        SYMLINK;
+
+        static Mode fromOption(String value) {
+            return value == null ? COPY : valueOf(value.toUpperCase(Locale.ENGLISH));
+        }
+
+        String getOptionValue() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    private final Mode mode;
+    private final AtomicInteger copied = new AtomicInteger();
+
+    LinkingArtifactInstaller(ArtifactResolver resolver, Path generatedMavenRepo, Optional<ArtifactRecorder> artifactRecorder, Mode mode) {
+        super(resolver, generatedMavenRepo, artifactRecorder);
+        this.mode = mode;
+        if (artifactRecorder.isPresent()) {
+            artifactRecorder.get().setInstallMode(mode.getOptionValue());
+        }
+    }
+
+    /**
+     * @return the number of artifacts that have been copied because they could not be linked.
+     */
+    int getCopiedCount() {
+        return copied.get();
+    }
+
+    @Override
+    void installFile(Path src, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            if (mode == Mode.HARDLINK) {
+                Files.createLink(target, src);
+            } else {
+                Files.createSymbolicLink(target, src.toAbsolutePath());
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            copied.incrementAndGet();
+            super.installFile(src, target);
+        }
+    }
+}
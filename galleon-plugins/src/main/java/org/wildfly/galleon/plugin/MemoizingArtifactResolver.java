@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+
+/**
+ * Resolver that resolves each distinct artifact once during a provisioning. The version and the path of a resolved artifact
+ * are re-used by the next resolutions of the same coordinates, concurrent resolutions of the same coordinates wait for
+ * the first one to complete.
+ *
+ * Failures are not recorded, the next resolution of an artifact that failed to resolve is attempted again.
+ */
+class MemoizingArtifactResolver implements WfInstallPlugin.ArtifactResolver {
+
+    private final WfInstallPlugin.ArtifactResolver resolver;
+    private final Map<String, CompletableFuture<MavenArtifact>> resolutions = new ConcurrentHashMap<>();
+    private final AtomicInteger resolved = new AtomicInteger();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    MemoizingArtifactResolver(WfInstallPlugin.ArtifactResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void resolve(MavenArtifact artifact) throws ProvisioningException {
+        final String key = key(artifact);
+        CompletableFuture<MavenArtifact> resolution = resolutions.get(key);
+        if (resolution == null) {
+            final CompletableFuture<MavenArtifact> newResolution = new CompletableFuture<>();
+            resolution = resolutions.putIfAbsent(key, newResolution);
+            if (resolution == null) {
+                try {
+                    resolver.resolve(artifact);
+                } catch (ProvisioningException | RuntimeException e) {
+                    resolutions.remove(key, newResolution);
+                    newResolution.completeExceptionally(e);
+                    throw e;
+                }
+                resolved.incrementAndGet();
+                final MavenArtifact result = new MavenArtifact();
+                result.setVersion(artifact.getVersion());
+                result.setPath(artifact.getPath());
+                newResolution.complete(result);
+                return;
+            }
+        }
+        final MavenArtifact result;
+        try {
+            result = resolution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while resolving " + key, e);
+        } catch (ExecutionException e) {
+            throw new ProvisioningException("Failed to resolve " + key, e.getCause());
+        }
+        hits.incrementAndGet();
+        artifact.setVersion(result.getVersion());
+        artifact.setPath(result.getPath());
+    }
+
+    /**
+     * @return the number of artifacts that have been resolved
+     */
+    int getResolved() {
+        return resolved.get();
+    }
+
+    /**
+     * @return the number of resolutions that re-used a previous or concurrent resolution
+     */
+    int getHits() {
+        return hits.get();
+    }
+
+    private static String key(MavenArtifact artifact) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(artifact.getGroupId()).append(':').append(artifact.getArtifactId())
+                .append(':').append(artifact.getVersion())
+                .append(':').append(artifact.getVersionRange())
+                .append(':').append(artifact.getClassifier())
+                .append(':').append(artifact.getExtension());
+        if (!artifact.getMetadata().isEmpty()) {
+            buf.append(':').append(new TreeMap<>(artifact.getMetadata()));
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.util.HashUtils;
+
+/**
+ * Fingerprints of the JBoss Modules installed by a provisioning. A module whose fingerprint didn't change since the previous
+ * provisioning of the installation can be re-used as is.
+ *
+ * The fingerprint covers the content of the module template, the kind of server (thin or fat) and the coordinates of the
+ * module artifacts. The SHA-1 hashes of the installed module files are persisted with the fingerprint so that a module
+ * whose files have been modified since they were installed is re-built. The fingerprints are persisted in the Galleon
+ * state directory of the installation, one module per line: {@code modulePath::fingerprint[::fileName::hash]*}
+ */
+class ModuleFingerprints {
+
+    static final String FILE_NAME = "wildfly-modules.txt";
+    private static final String SEPARATOR = "::";
+
+    private final Path previousInstallDir;
+    private final Map<String, String> previous;
+    private final Map<String, Map<String, String>> previousHashes;
+    private final Map<String, Map<String, String>> verified = new ConcurrentHashMap<>();
+    private final Map<String, String> current = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> currentHashes = new ConcurrentHashMap<>();
+
+    private ModuleFingerprints(Path previousInstallDir, Map<String, String> previous, Map<String, Map<String, String>> previousHashes) {
+        this.previousInstallDir = previousInstallDir;
+        this.previous = previous;
+        this.previousHashes = previousHashes;
+    }
+
+    /**
+     * Loads the fingerprints of the modules of an existing installation.
+     *
+     * @param installDir  the installation directory
+     * @return the fingerprints, empty if the installation doesn't exist or has not been provisioned with fingerprints
+     * @throws IOException  if the fingerprints can't be read
+     */
+    static ModuleFingerprints load(Path installDir) throws IOException {
+        final Path file = installDir.resolve(Constants.PROVISIONED_STATE_DIR).resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return new ModuleFingerprints(installDir, Collections.emptyMap(), Collections.emptyMap());
+        }
+        final Map<String, String> previous = new HashMap<>();
+        final Map<String, Map<String, String>> previousHashes = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line = reader.readLine();
+            while (line != null) {
+                final String[] parts = line.split(SEPARATOR);
+                if (parts.length >= 2 && parts.length % 2 == 0) {
+                    previous.put(parts[0], parts[1]);
+                    final Map<String, String> hashes = new HashMap<>();
+                    for (int i = 2; i < parts.length; i += 2) {
+                        hashes.put(parts[i], parts[i + 1]);
+                    }
+                    previousHashes.put(parts[0], hashes);
+                }
+                line = reader.readLine();
+            }
+        }
+        return new ModuleFingerprints(installDir, previous, previousHashes);
+    }
+
+    /**
+     * Hashes the files of a module that has just been installed, the files that don't exist are ignored.
+     *
+     * @param moduleDir  the module directory
+     * @param fileNames  the names of the module files
+     * @return the hashes of the files keyed by file name
+     * @throws IOException  if a file can't be read
+     */
+    static Map<String, String> hash(Path moduleDir, List<String> fileNames) throws IOException {
+        final Map<String, String> hashes = new HashMap<>(fileNames.size());
+        for (String fileName : fileNames) {
+            final Path file = moduleDir.resolve(fileName);
+            if (Files.exists(file)) {
+                hashes.put(fileName, HashUtils.hashFile(file));
+            }
+        }
+        return hashes;
+    }
+
+    static String fingerprint(Path moduleTemplate, boolean thinServer, List<String> artifactCoords) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update(Files.readAllBytes(moduleTemplate));
+        digest.update((byte) (thinServer ? 1 : 0));
+        for (String coords : artifactCoords) {
+            digest.update((byte) '\n');
+            digest.update(coords.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    Path getPreviousInstallDir() {
+        return previousInstallDir;
+    }
+
+    boolean isUnchanged(Path moduleXmlRelativePath, String fingerprint) {
+        return fingerprint.equals(previous.get(toKey(moduleXmlRelativePath)));
+    }
+
+    /**
+     * Checks that the files of a previously installed module still have the hashes recorded when they were installed.
+     * The result is kept so that a module is only hashed once per provisioning.
+     *
+     * @param moduleXmlRelativePath  the path of the module.xml file relative to the installation
+     * @param fileNames  the names of the module files that are re-used
+     * @return the hashes of the files if they are all unchanged, null if a file is missing, changed or was not recorded
+     * @throws IOException  if a file can't be read
+     */
+    Map<String, String> verify(Path moduleXmlRelativePath, List<String> fileNames) throws IOException {
+        final String key = toKey(moduleXmlRelativePath);
+        final Map<String, String> recorded = previousHashes.get(key);
+        if (recorded == null) {
+            return null;
+        }
+        Map<String, String> hashes = verified.get(key);
+        if (hashes != null) {
+            return hashes;
+        }
+        final Path moduleDir = previousInstallDir.resolve(moduleXmlRelativePath.toString()).getParent();
+        hashes = new HashMap<>(fileNames.size());
+        for (String fileName : fileNames) {
+            final String hash = recorded.get(fileName);
+            final Path file = moduleDir.resolve(fileName);
+            if (hash == null || !Files.exists(file) || !hash.equals(HashUtils.hashFile(file))) {
+                return null;
+            }
+            hashes.put(fileName, hash);
+        }
+        verified.put(key, hashes);
+        return hashes;
+    }
+
+    void put(Path moduleXmlRelativePath, String fingerprint, Map<String, String> hashes) {
+        final String key = toKey(moduleXmlRelativePath);
+        current.put(key, fingerprint);
+        currentHashes.put(key, hashes);
+    }
+
+    void store(Path stagedDir) throws IOException {
+        final Path file = stagedDir.resolve(Constants.PROVISIONED_STATE_DIR).resolve(FILE_NAME);
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Map.Entry<String, String> entry : new TreeMap<>(current).entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(SEPARATOR);
+                writer.write(entry.getValue());
+                for (Map.Entry<String, String> hash : new TreeMap<>(currentHashes.get(entry.getKey())).entrySet()) {
+                    writer.write(SEPARATOR);
+                    writer.write(hash.getKey());
+                    writer.write(SEPARATOR);
+                    writer.write(hash.getValue());
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String toKey(Path moduleXmlRelativePath) {
+        return moduleXmlRelativePath.toString().replace(File.separatorChar, '/');
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2021 Red Hat, Inc. and/or its affiliates
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
  * and other contributors as indicated by the @author tags.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -17,68 +17,174 @@
 package org.wildfly.galleon.plugin;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import nu.xom.Builder;
-import nu.xom.Document;
-import nu.xom.Element;
-import nu.xom.Elements;
-import nu.xom.ParsingException;
-import nu.xom.Serializer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.DTD;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
 import org.jboss.galleon.ProvisioningDescriptionException;
 import org.jboss.galleon.runtime.PackageRuntime;
 
 /**
  * A module template, built from a module.xml template file.
  *
+ * The template is not kept in memory. Only the module name and version and the names of the module artifacts
+ * are read when the template is created, the changes are recorded and applied when the template is streamed
+ * to the target module.xml.
+ *
  * @author jdenise
  */
 class ModuleTemplate {
 
-    private final Element rootElement;
-    private final Document document;
+    private static final String ARTIFACT = "artifact";
+    private static final String NAME = "name";
+    private static final String PATH = "path";
+    private static final String RESOURCE_ROOT = "resource-root";
+    private static final String RESOURCES = "resources";
+    private static final String VERSION = "version";
+    // the XOM serializer default line separator
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    private final Path templatePath;
     private final Path targetPath;
+    private String rootName;
+    private String name;
+    private String version;
+    private final List<String> artifacts;
+
+    // the changes applied when the template is stored
+    private String newVersion;
+    private String[] newArtifactValues;
+    private boolean[] resourceRoots;
 
     ModuleTemplate(PackageRuntime pkg, Path moduleTemplate, Path targetPath) throws IOException, ProvisioningDescriptionException {
-        final Builder builder = new Builder(false);
+        this.templatePath = moduleTemplate;
+        this.targetPath = targetPath;
+        final List<String> artifacts = new ArrayList<>();
         try (BufferedReader reader = Files.newBufferedReader(moduleTemplate, StandardCharsets.UTF_8)) {
-            document = builder.build(reader);
-        } catch (ParsingException e) {
+            final XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+            try {
+                final ResourcesTracker tracker = new ResourcesTracker();
+                while (xml.hasNext()) {
+                    switch (xml.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            if (tracker.startElement(xml.getNamespaceURI(), xml.getLocalName())) {
+                                artifacts.add(xml.getAttributeValue(null, NAME));
+                            } else if (tracker.depth == 1) {
+                                rootName = xml.getLocalName();
+                                name = xml.getAttributeValue(null, NAME);
+                                version = xml.getAttributeValue(null, VERSION);
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            tracker.endElement();
+                            break;
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
             throw new IOException("Failed to parse document", e);
         }
-        rootElement = document.getRootElement();
-        this.targetPath = targetPath;
+        this.artifacts = artifacts.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(artifacts);
     }
 
     String getName() {
-        return rootElement.getAttributeValue("name");
+        return name;
     }
 
-    Element getRootElement() {
-        return rootElement;
+    /**
+     * @return the version attribute of the module, null if the module has no version attribute
+     */
+    String getVersion() {
+        return version;
     }
 
-    Elements getArtifacts() {
-        Elements artifacts = null;
-        final Element resourcesElement = rootElement.getFirstChildElement("resources", rootElement.getNamespaceURI());
-        if (resourcesElement != null) {
-            artifacts = resourcesElement.getChildElements("artifact", rootElement.getNamespaceURI());
+    /**
+     * Replaces the value of the version attribute of the module, if the module has a version attribute.
+     *
+     * @param version  the new version
+     */
+    void setVersion(String version) {
+        if (this.version != null) {
+            newVersion = version;
         }
+    }
+
+    /**
+     * @return the name attributes of the module artifacts in the order of the template
+     */
+    List<String> getArtifacts() {
         return artifacts;
     }
 
+    /**
+     * Replaces an artifact with a resource-root pointing to the installed artifact.
+     *
+     * @param index  the index of the artifact in {@link #getArtifacts()}
+     * @param path  the path of the resource-root
+     */
+    void setResourceRoot(int index, String path) {
+        setArtifactValue(index, path, true);
+    }
+
+    /**
+     * Replaces the name of an artifact.
+     *
+     * @param index  the index of the artifact in {@link #getArtifacts()}
+     * @param coords  the new name of the artifact
+     */
+    void setArtifactName(int index, String coords) {
+        setArtifactValue(index, coords, false);
+    }
+
+    private synchronized void setArtifactValue(int index, String value, boolean resourceRoot) {
+        if (newArtifactValues == null) {
+            newArtifactValues = new String[artifacts.size()];
+            resourceRoots = new boolean[artifacts.size()];
+        }
+        newArtifactValues[index] = value;
+        resourceRoots[index] = resourceRoot;
+    }
+
     boolean isModule() {
-        return rootElement.getLocalName().equals("module")
-                || rootElement.getLocalName().equals("module-alias");
+        return rootName.equals("module")
+                || rootName.equals("module-alias");
     }
 
     void store() throws IOException {
-        // now serialize the result
-        try (OutputStream outputStream = Files.newOutputStream(targetPath)) {
-            new Serializer(outputStream).write(document);
+        try {
+            try {
+                write();
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to write " + targetPath, e);
+            }
         } catch (Throwable t) {
             try {
                 Files.deleteIfExists(targetPath);
@@ -89,4 +195,297 @@ class ModuleTemplate {
             throw t;
         }
     }
+
+    /**
+     * Streams the template to the target applying the changes. The markup is written the way the XOM serializer
+     * wrote the template documents: the XML declaration and the top level nodes are followed by a CRLF, empty
+     * elements are collapsed, the attributes precede the namespace declarations and the redundant namespace
+     * declarations are dropped.
+     */
+    private void write() throws IOException, XMLStreamException {
+        try (BufferedReader reader = Files.newBufferedReader(templatePath, StandardCharsets.UTF_8);
+                BufferedWriter out = Files.newBufferedWriter(targetPath, StandardCharsets.UTF_8)) {
+            final XMLEventReader in = XML_INPUT_FACTORY.createXMLEventReader(reader);
+            final ResourcesTracker tracker = new ResourcesTracker();
+            final Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+            int artifactIndex = -1;
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.write(LINE_SEPARATOR);
+            while (in.hasNext()) {
+                final XMLEvent event = in.nextEvent();
+                switch (event.getEventType()) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        final StartElement element = event.asStartElement();
+                        final QName name = element.getName();
+                        String localName = name.getLocalPart();
+                        String attrName = null;
+                        String newAttrName = null;
+                        String newValue = null;
+                        if (tracker.startElement(name.getNamespaceURI(), localName)) {
+                            ++artifactIndex;
+                            if (newArtifactValues != null && newArtifactValues[artifactIndex] != null) {
+                                attrName = NAME;
+                                newValue = newArtifactValues[artifactIndex];
+                                if (resourceRoots[artifactIndex]) {
+                                    localName = RESOURCE_ROOT;
+                                    newAttrName = PATH;
+                                } else {
+                                    newAttrName = NAME;
+                                }
+                            }
+                        } else if (tracker.depth == 1 && newVersion != null) {
+                            attrName = VERSION;
+                            newAttrName = VERSION;
+                            newValue = newVersion;
+                        }
+                        out.write('<');
+                        writeQName(out, name.getPrefix(), localName);
+                        writeAttributes(out, element, attrName, newAttrName, newValue);
+                        writeNamespaces(out, element, namespaces);
+                        if (in.peek().isEndElement()) {
+                            in.nextEvent();
+                            tracker.endElement();
+                            namespaces.pop();
+                            out.write("/>");
+                            if (tracker.depth == 0) {
+                                out.write(LINE_SEPARATOR);
+                            }
+                        } else {
+                            out.write('>');
+                        }
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT: {
+                        final QName name = event.asEndElement().getName();
+                        final boolean resourceRoot = tracker.isArtifact() && newArtifactValues != null && resourceRoots[artifactIndex];
+                        tracker.endElement();
+                        namespaces.pop();
+                        out.write("</");
+                        writeQName(out, name.getPrefix(), resourceRoot ? RESOURCE_ROOT : name.getLocalPart());
+                        out.write('>');
+                        if (tracker.depth == 0) {
+                            out.write(LINE_SEPARATOR);
+                        }
+                        break;
+                    }
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        // the top level white space is not part of the document
+                        if (tracker.depth > 0) {
+                            writeText(out, event.asCharacters().getData());
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        out.write("<!--");
+                        out.write(((Comment) event).getText());
+                        out.write("-->");
+                        if (tracker.depth == 0) {
+                            out.write(LINE_SEPARATOR);
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION: {
+                        final ProcessingInstruction pi = (ProcessingInstruction) event;
+                        out.write("<?");
+                        out.write(pi.getTarget());
+                        if (pi.getData() != null && !pi.getData().isEmpty()) {
+                            out.write(' ');
+                            out.write(pi.getData());
+                        }
+                        out.write("?>");
+                        if (tracker.depth == 0) {
+                            out.write(LINE_SEPARATOR);
+                        }
+                        break;
+                    }
+                    case XMLStreamConstants.DTD:
+                        out.write(((DTD) event).getDocumentTypeDeclaration());
+                        out.write(LINE_SEPARATOR);
+                        break;
+                }
+            }
+            in.close();
+        }
+    }
+
+    private static void writeQName(Writer out, String prefix, String localName) throws IOException {
+        if (!prefix.isEmpty()) {
+            out.write(prefix);
+            out.write(':');
+        }
+        out.write(localName);
+    }
+
+    private static void writeAttributes(Writer out, StartElement element,
+            String attrName, String newAttrName, String newValue) throws IOException {
+        final Iterator<Attribute> attributes = element.getAttributes();
+        while (attributes.hasNext()) {
+            final Attribute attribute = attributes.next();
+            final QName name = attribute.getName();
+            out.write(' ');
+            if (name.getNamespaceURI().isEmpty() && name.getLocalPart().equals(attrName)) {
+                writeAttribute(out, newAttrName, newValue);
+            } else {
+                writeQName(out, name.getPrefix(), name.getLocalPart());
+                writeAttributeValue(out, attribute.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes the namespaces of the element which are not already in scope: the namespace of the element, the
+     * declared namespaces then the namespaces of the attributes, in the order of the XOM namespace declarations.
+     */
+    private static void writeNamespaces(Writer out, StartElement element, Deque<Map<String, String>> namespaces) throws IOException {
+        final Map<String, String> declared = new LinkedHashMap<>();
+        declared.put(element.getName().getPrefix(), element.getName().getNamespaceURI());
+        final Iterator<Namespace> declarations = element.getNamespaces();
+        while (declarations.hasNext()) {
+            final Namespace ns = declarations.next();
+            declared.putIfAbsent(ns.getPrefix(), ns.getNamespaceURI());
+        }
+        final Iterator<Attribute> attributes = element.getAttributes();
+        while (attributes.hasNext()) {
+            final QName name = attributes.next().getName();
+            if (!name.getPrefix().isEmpty()) {
+                declared.putIfAbsent(name.getPrefix(), name.getNamespaceURI());
+            }
+        }
+        declared.remove(XMLConstants.XML_NS_PREFIX);
+        final Iterator<Map.Entry<String, String>> i = declared.entrySet().iterator();
+        while (i.hasNext()) {
+            final Map.Entry<String, String> ns = i.next();
+            if (ns.getValue().equals(getNamespaceURI(namespaces, ns.getKey()))) {
+                i.remove();
+            } else {
+                out.write(' ');
+                writeAttribute(out, ns.getKey().isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE
+                        : XMLConstants.XMLNS_ATTRIBUTE + ':' + ns.getKey(), ns.getValue());
+            }
+        }
+        namespaces.push(declared);
+    }
+
+    private static String getNamespaceURI(Deque<Map<String, String>> namespaces, String prefix) {
+        for (Map<String, String> scope : namespaces) {
+            final String uri = scope.get(prefix);
+            if (uri != null) {
+                return uri;
+            }
+        }
+        return prefix.isEmpty() ? "" : null;
+    }
+
+    private static void writeAttribute(Writer out, String name, String value) throws IOException {
+        out.write(name);
+        writeAttributeValue(out, value);
+    }
+
+    private static void writeAttributeValue(Writer out, String value) throws IOException {
+        out.write("=\"");
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '"':
+                    out.write("&quot;");
+                    break;
+                case '\t':
+                    out.write("&#x09;");
+                    break;
+                case '\n':
+                    out.write("&#x0A;");
+                    break;
+                case '\r':
+                    out.write("&#x0D;");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    private static void writeText(Writer out, String text) throws IOException {
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '\r':
+                    out.write("&#x0D;");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    /**
+     * Tracks the position in the document, the module artifacts are the artifact elements of the first
+     * resources element of the module, in the namespace of the module.
+     */
+    private static class ResourcesTracker {
+
+        private static final int ARTIFACT_DEPTH = 3;
+
+        private int depth;
+        private String namespace;
+        private boolean resourcesSeen;
+        private boolean inResources;
+        private boolean inArtifact;
+
+        /**
+         * @return true if the element is a module artifact
+         */
+        private boolean startElement(String elementNs, String localName) {
+            ++depth;
+            if (elementNs == null) {
+                elementNs = "";
+            }
+            if (depth == 1) {
+                namespace = elementNs;
+            } else if (depth == 2) {
+                if (!resourcesSeen && RESOURCES.equals(localName) && namespace.equals(elementNs)) {
+                    resourcesSeen = true;
+                    inResources = true;
+                }
+            } else if (depth == ARTIFACT_DEPTH) {
+                inArtifact = inResources && ARTIFACT.equals(localName) && namespace.equals(elementNs);
+                return inArtifact;
+            }
+            return false;
+        }
+
+        /**
+         * @return true if the current element is a module artifact
+         */
+        private boolean isArtifact() {
+            return inArtifact && depth == ARTIFACT_DEPTH;
+        }
+
+        private void endElement() {
+            if (depth == 2) {
+                inResources = false;
+            } else if (depth == ARTIFACT_DEPTH) {
+                inArtifact = false;
+            }
+            --depth;
+        }
+    }
 }
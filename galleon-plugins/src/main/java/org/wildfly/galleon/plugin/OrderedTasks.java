@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import org.jboss.galleon.ProvisioningException;
+
+/**
+ * Tasks executed concurrently whose completion is awaited, and reported, in the order in which they have been submitted.
+ * A failure is reported for the first failed task in the submission order, whatever the order in which the tasks failed.
+ *
+ * Tasks are submitted and awaited from a single thread.
+ *
+ * @param <T> the type of the items processed by the tasks
+ */
+class OrderedTasks<T> {
+
+    private final ExecutorService executor;
+    private final List<T> items = new ArrayList<>();
+    private final List<Future<Void>> results = new ArrayList<>();
+
+    OrderedTasks(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    void submit(T item, Callable<Void> task) {
+        items.add(item);
+        results.add(executor.submit(task));
+    }
+
+    /**
+     * Awaits the completion of the tasks in the submission order.
+     *
+     * @param processing  notified before awaiting the task processing an item
+     * @param processed  notified once the task processing an item has completed
+     * @param failure  creates the exception reported when a task processing an item has failed with a checked exception
+     * @throws ProvisioningException  if a task has failed
+     */
+    void await(Consumer<T> processing, Consumer<T> processed, BiFunction<T, Throwable, ProvisioningException> failure)
+            throws ProvisioningException {
+        for (int i = 0; i < items.size(); ++i) {
+            final T item = items.get(i);
+            processing.accept(item);
+            try {
+                results.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure.apply(item, e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ProvisioningException) {
+                    throw (ProvisioningException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw failure.apply(item, cause);
+            }
+            processed.accept(item);
+        }
+    }
+}
@@ -21,13 +21,16 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Utility that copies content from reader to writer replacing the properties.
+ * The content between expressions is copied in bulk and files that don't contain any expression are copied as is.
  *
  * @author Alexey Loubyansky
  */
@@ -39,115 +42,150 @@ public class PropertyReplacer {
     private static final int RESOLVED = 3;
     private static final int DEFAULT = 4;
 
+    private static final int BUFFER_SIZE = 8192;
+
     public static void copy(final Path src, final Path target, PropertyResolver resolver, String failureReplacement) throws IOException {
         if(!Files.exists(target.getParent())) {
             Files.createDirectories(target.getParent());
         }
+        if (!containsDollar(src)) {
+            // nothing to replace
+            Files.copy(src, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
         try(BufferedReader reader = Files.newBufferedReader(src);
                 BufferedWriter writer = Files.newBufferedWriter(target)) {
             copy(reader, writer, resolver, failureReplacement);
         }
     }
 
+    /**
+     * The '$' byte can't be part of a multi-byte UTF-8 sequence, the file can be scanned without being decoded.
+     */
+    private static boolean containsDollar(Path src) throws IOException {
+        try (InputStream in = Files.newInputStream(src)) {
+            final byte[] bytes = new byte[BUFFER_SIZE];
+            int read = in.read(bytes);
+            while (read >= 0) {
+                for (int i = 0; i < read; ++i) {
+                    if (bytes[i] == '$') {
+                        return true;
+                    }
+                }
+                read = in.read(bytes);
+            }
+        }
+        return false;
+    }
+
     public static void copy(final Reader reader, Writer writer, PropertyResolver properties,
             String failureReplacement) throws IOException {
         int state = INITIAL;
         final StringBuilder buf = new StringBuilder();
-        int ch = reader.read();
-        while (ch >= 0) {
-            switch (state) {
-                case INITIAL: {
-                    switch (ch) {
-                        case '$': {
-                            state = GOT_DOLLAR;
-                            break;
-                        }
-                        default: {
-                            writer.write(ch);
-                        }
+        final char[] chars = new char[BUFFER_SIZE];
+        int read = reader.read(chars);
+        while (read >= 0) {
+            int i = 0;
+            while (i < read) {
+                if (state == INITIAL) {
+                    // copy the chars up to the next '$' at once
+                    final int start = i;
+                    while (i < read && chars[i] != '$') {
+                        ++i;
+                    }
+                    if (i > start) {
+                        writer.write(chars, start, i - start);
                     }
-                    break;
+                    if (i < read) {
+                        state = GOT_DOLLAR;
+                        ++i;
+                    }
+                    continue;
                 }
-                case GOT_DOLLAR: {
-                    switch (ch) {
-                        case '$': {
-                            // escaped $
-                            buf.setLength(0);
-                            writer.write(ch);
-                            state = INITIAL;
-                            break;
-                        }
-                        case '{': {
-                            state = GOT_OPEN_BRACE;
-                            break;
-                        }
-                        default: {
-                            // invalid; emit and resume
-                            writer.append('$');
-                            writer.write(ch);
-                            buf.setLength(0);
-                            state = INITIAL;
+                final char ch = chars[i++];
+                switch (state) {
+                    case GOT_DOLLAR: {
+                        switch (ch) {
+                            case '$': {
+                                // escaped $
+                                buf.setLength(0);
+                                writer.write(ch);
+                                state = INITIAL;
+                                break;
+                            }
+                            case '{': {
+                                state = GOT_OPEN_BRACE;
+                                break;
+                            }
+                            default: {
+                                // invalid; emit and resume
+                                writer.append('$');
+                                writer.write(ch);
+                                buf.setLength(0);
+                                state = INITIAL;
+                            }
                         }
+                        break;
                     }
-                    break;
-                }
-                case GOT_OPEN_BRACE: {
-                    switch (ch) {
-                        case '}':
-                        case ',': {
-                            final String name = buf.toString();
-                            if ("/".equals(name)) {
-                                writer.append(File.separatorChar);
-                                state = ch == '}' ? INITIAL : RESOLVED;
-                            } else {
-                                final String val = properties.resolveProperty(name);
-                                if (val != null) {
-                                    writer.write(val);
+                    case GOT_OPEN_BRACE: {
+                        switch (ch) {
+                            case '}':
+                            case ',': {
+                                final String name = buf.toString();
+                                if ("/".equals(name)) {
+                                    writer.append(File.separatorChar);
                                     state = ch == '}' ? INITIAL : RESOLVED;
-                                } else if (ch == ',') {
-                                    state = DEFAULT;
                                 } else {
-                                    if(failureReplacement != null) {
-                                        writer.write(failureReplacement);
+                                    final String val = properties.resolveProperty(name);
+                                    if (val != null) {
+                                        writer.write(val);
                                         state = ch == '}' ? INITIAL : RESOLVED;
+                                    } else if (ch == ',') {
+                                        state = DEFAULT;
                                     } else {
-                                        throw new IllegalStateException("Failed to resolve property: " + buf);
+                                        if(failureReplacement != null) {
+                                            writer.write(failureReplacement);
+                                            state = ch == '}' ? INITIAL : RESOLVED;
+                                        } else {
+                                            throw new IllegalStateException("Failed to resolve property: " + buf);
+                                        }
                                     }
                                 }
+                                buf.setLength(0);
+                                break;
+                            }
+                            default: {
+                                buf.append(ch);
                             }
-                            buf.setLength(0);
-                            break;
-                        }
-                        default: {
-                            buf.appendCodePoint(ch);
                         }
+                        break;
                     }
-                    break;
-                }
-                case RESOLVED: {
-                    if (ch == '}') {
-                        state = INITIAL;
+                    case RESOLVED: {
+                        if (ch == '}') {
+                            state = INITIAL;
+                        }
+                        break;
                     }
-                    break;
-                }
-                case DEFAULT: {
-                    if (ch == '}') {
-                        state = INITIAL;
-                        final String val = properties.resolveProperty(buf.toString());
-                        if (val != null) {
-                            writer.write(val);
+                    case DEFAULT: {
+                        if (ch == '}') {
+                            state = INITIAL;
+                            final String val = properties.resolveProperty(buf.toString());
+                            if (val != null) {
+                                writer.write(val);
+                            } else {
+                                writer.write(buf.toString());
+                            }
+                            buf.setLength(0);
                         } else {
-                            writer.write(buf.toString());
+                            buf.append(ch);
                         }
-                    } else {
-                        buf.appendCodePoint(ch);
+                        break;
                     }
-                    break;
+                    default:
+                        throw new IllegalStateException("Unexpected char seen: " + ch);
                 }
-                default:
-                    throw new IllegalStateException("Unexpected char seen: " + ch);
             }
-            ch = reader.read();
+            read = reader.read(chars);
         }
         switch (state) {
             case GOT_DOLLAR: {
@@ -163,4 +201,4 @@ public class PropertyReplacer {
             }
         }
     }
-}
\ No newline at end of file
+}
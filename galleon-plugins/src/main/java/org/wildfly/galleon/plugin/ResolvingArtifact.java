@@ -1,20 +1,57 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
 package org.wildfly.galleon.plugin;
 
-import org.jboss.galleon.progresstracking.ProgressTracker;
-import org.jboss.galleon.universe.maven.MavenArtifact;
-import org.jboss.galleon.universe.maven.MavenUniverseException;
-
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-class MonitorableArtifact extends MavenArtifact {
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.universe.maven.MavenUniverseException;
+
+/**
+ * Artifact handed to the repository manager by the {@link BulkArtifactResolver}. It completes its own resolution
+ * as soon as the repository manager sets its path, so that the progress is reported per artifact rather than per batch.
+ */
+class ResolvingArtifact extends MavenArtifact {
 
-    private final ProgressTracker<MavenArtifact> tracker;
     private final MavenArtifact delegate;
+    private final CompletableFuture<Void> resolved = new CompletableFuture<>();
 
-    MonitorableArtifact(MavenArtifact delegate, ProgressTracker<MavenArtifact> tracker) {
+    ResolvingArtifact(MavenArtifact delegate) {
         this.delegate = delegate;
-        this.tracker = tracker;
+    }
+
+    CompletableFuture<Void> getResolution() {
+        return resolved;
+    }
+
+    void resolved() {
+        if (delegate.getPath() == null) {
+            resolved.completeExceptionally(new ProvisioningException("Failed to resolve artifact " + delegate.getCoordsAsString()
+                    + ", the repository manager did not set its path"));
+        } else {
+            resolved.complete(null);
+        }
+    }
+
+    void failed(Throwable t) {
+        resolved.completeExceptionally(new ProvisioningException("Failed to resolve artifact " + delegate.getCoordsAsString(), t));
     }
 
     @Override
@@ -129,10 +166,8 @@ class MonitorableArtifact extends MavenArtifact {
 
     @Override
     public MavenArtifact setPath(Path localArtifact) {
-        tracker.processing(delegate);
         final MavenArtifact res = delegate.setPath(localArtifact);
-        tracker.processed(delegate);
-
+        resolved();
         return res;
     }
 }
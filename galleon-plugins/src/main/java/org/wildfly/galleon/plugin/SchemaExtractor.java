@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jboss.galleon.ProvisioningException;
+
+/**
+ * Copies the content of the schema directory of the module artifacts to the docs/schema directory of the installation.
+ *
+ * Each distinct artifact is processed once, in the background, while the modules are being processed.
+ * Only the central directory of an artifact is read to find its schema entries, most artifacts have none.
+ * The extractions run on a single thread, a schema present in several artifacts is written by the last submitted one.
+ */
+class SchemaExtractor implements AutoCloseable {
+
+    private static final String SCHEMA_PREFIX = WfConstants.SCHEMA + '/';
+
+    private final Path targetDir;
+    private final ExecutorService executor;
+    private final Set<Path> artifacts = ConcurrentHashMap.newKeySet();
+    // written by the extraction thread only
+    private IOException failure;
+    private boolean started;
+    private long startNanos;
+    private long extractionNanos;
+    private int artifactsWithSchemas;
+
+    SchemaExtractor(Path targetDir) {
+        this.targetDir = targetDir.toAbsolutePath().normalize();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, "wildfly-schema-extractor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the extraction of the schemas of an artifact, unless the artifact has already been scheduled.
+     *
+     * @param artifact  the artifact archive
+     */
+    void extract(Path artifact) {
+        final Path key = artifact.toAbsolutePath().normalize();
+        if (!artifacts.add(key)) {
+            return;
+        }
+        executor.execute(() -> {
+            if (failure != null) {
+                return;
+            }
+            final long start = System.nanoTime();
+            if (!started) {
+                started = true;
+                startNanos = start;
+            }
+            try {
+                if (extractSchemas(key)) {
+                    ++artifactsWithSchemas;
+                }
+            } catch (IOException e) {
+                failure = new IOException("Failed to extract schemas from " + key, e);
+            } finally {
+                extractionNanos += System.nanoTime() - start;
+            }
+        });
+    }
+
+    private boolean extractSchemas(Path artifact) throws IOException {
+        Files.createDirectories(targetDir);
+        boolean extracted = false;
+        try (ZipFile zip = new ZipFile(artifact.toFile())) {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (!name.startsWith(SCHEMA_PREFIX) || name.length() == SCHEMA_PREFIX.length()) {
+                    continue;
+                }
+                final Path target = targetDir.resolve(name.substring(SCHEMA_PREFIX.length())).normalize();
+                if (!target.startsWith(targetDir)) {
+                    throw new IOException("Entry " + name + " is outside of the schema directory");
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                extracted = true;
+            }
+        }
+        return extracted;
+    }
+
+    /**
+     * Waits for all the scheduled extractions to complete.
+     *
+     * @throws ProvisioningException  if an extraction failed
+     */
+    void await() throws ProvisioningException {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while extracting schemas", e);
+        }
+        if (failure != null) {
+            throw new ProvisioningException(failure.getMessage(), failure.getCause());
+        }
+    }
+
+    /**
+     * @return the number of distinct artifacts scheduled for extraction
+     */
+    int getArtifactCount() {
+        return artifacts.size();
+    }
+
+    /**
+     * @return the number of artifacts that contained schemas, valid once {@link #await()} has returned
+     */
+    int getArtifactsWithSchemas() {
+        return artifactsWithSchemas;
+    }
+
+    /**
+     * @return whether an extraction has started, valid once {@link #await()} has returned
+     */
+    boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the first extraction started, valid once {@link #await()} has returned
+     */
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return the time spent extracting schemas in nanoseconds, valid once {@link #await()} has returned
+     */
+    long getExtractionNanos() {
+        return extractionNanos;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
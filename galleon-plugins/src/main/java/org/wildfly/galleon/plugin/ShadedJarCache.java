@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.util.HashUtils;
+
+/**
+ * Cache of assembled shaded jars shared by the provisionings. A shaded jar is re-used when the content of its shaded model,
+ * the coordinates of its resolved dependencies and the content of the dependencies are unchanged.
+ *
+ * The cached jars are stored in the cache directory, one file per key: {@code key.jar}
+ */
+class ShadedJarCache {
+
+    /**
+     * Part of the key, to be incremented when the layout of the assembled jars changes.
+     */
+    private static final byte FORMAT = 1;
+    private static final String JAR = ".jar";
+
+    private final Path cacheDir;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    ShadedJarCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Computes the key of the jar assembled from a shaded model.
+     *
+     * @param model  the shaded model
+     * @return the key
+     * @throws IOException  if the shaded model or a dependency can't be read
+     * @throws ProvisioningException  if a dependency can't be resolved
+     */
+    static String key(ShadedModel model) throws IOException, ProvisioningException {
+        return key(model.getModelFile(), model.getArtifacts());
+    }
+
+    static String key(Path modelFile, List<MavenArtifact> dependencies) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update(FORMAT);
+        digest.update(Files.readAllBytes(modelFile));
+        for (MavenArtifact dependency : dependencies) {
+            digest.update((byte) '\n');
+            digest.update(dependency.getCoordsAsString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(HashUtils.hashFile(dependency.getPath()).getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the cached jar for a key.
+     *
+     * @param key  the key of the jar
+     * @return the cached jar or null if the jar has not been cached
+     */
+    Path get(String key) {
+        final Path jar = cacheDir.resolve(key + JAR);
+        if (Files.exists(jar)) {
+            hits.incrementAndGet();
+            return jar;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds an assembled jar to the cache. The jar is first copied to a temporary file that is then moved to its
+     * final location so that concurrent provisionings never see a partially written jar.
+     *
+     * @param key  the key of the jar
+     * @param jar  the assembled jar
+     * @throws IOException  if the jar can't be copied to the cache
+     */
+    void put(String key, Path jar) throws IOException {
+        Files.createDirectories(cacheDir);
+        final Path tmp = Files.createTempFile(cacheDir, key, ".tmp");
+        try {
+            Files.copy(jar, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, cacheDir.resolve(key + JAR), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    int getHits() {
+        return hits.get();
+    }
+
+    int getMisses() {
+        return misses.get();
+    }
+}
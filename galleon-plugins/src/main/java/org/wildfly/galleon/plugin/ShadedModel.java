@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2024 Red Hat, Inc. and/or its affiliates
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
  * and other contributors as indicated by the @author tags.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -16,15 +16,18 @@
  */
 package org.wildfly.galleon.plugin;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -32,6 +35,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 import nu.xom.Builder;
 import nu.xom.Document;
 import nu.xom.Element;
@@ -41,8 +49,6 @@ import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningDescriptionException;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.universe.maven.MavenArtifact;
-import org.jboss.galleon.util.IoUtils;
-import org.jboss.galleon.util.ZipUtils;
 import java.util.jar.Manifest;
 
 /**
@@ -50,27 +56,35 @@ import java.util.jar.Manifest;
  *
  * @author jdenise
  */
-public class ShadedModel implements Utils.ArtifactResourceConsumer {
+public class ShadedModel {
 
     public interface Installer {
         Path installCopiedArtifact(MavenArtifact a) throws IOException, ProvisioningException;
     }
     public static final String FILE_NAME = "shaded-model.xml";
 
-    private final Map<String, Set<String>> classes = new HashMap<>();
-    private final Map<String, List<String>> serviceLoaders = new HashMap<>();
+    private static final String MODULE_INFO = "module-info.class";
+    private static final String INDEX_LIST = "META-INF/INDEX.LIST";
+    private static final String SERVICES = "META-INF/services/";
 
+    private final Path shadedModel;
     private final Element rootElement;
     private final Document document;
-    private final Path tmpPath;
     private final WfInstallPlugin.ArtifactResolver artifactResolver;
     private final MessageWriter log;
     private final Map<String, String> mergedArtifactVersions;
+    private final ArtifactCoordsTable coordsTable;
     private final Optional<ArtifactRecorder> recorder;
-    private boolean seenManifest;
     private final Installer installer;
     private final boolean channelArtifactResolution;
     private final boolean requireChannel;
+    private List<MavenArtifact> artifacts;
+
+    /**
+     * @deprecated the shaded jar is assembled without extracting the dependencies to a tmp directory, use
+     * {@link #ShadedModel(boolean, Path, WfInstallPlugin.ArtifactResolver, MessageWriter, Map, Installer, boolean, Optional)}
+     */
+    @Deprecated
     public ShadedModel(boolean requireChannel,
             Path shadedModel,
             Path tmpPath,
@@ -79,11 +93,35 @@ public class ShadedModel implements Utils.ArtifactResourceConsumer {
             Installer installer,
             boolean channelArtifactResolution,
             Optional<ArtifactRecorder> recorder) throws IOException, ProvisioningDescriptionException {
+        this(requireChannel, shadedModel, artifactResolver, log, mergedArtifactVersions, installer,
+                channelArtifactResolution, recorder);
+    }
+
+    public ShadedModel(boolean requireChannel,
+            Path shadedModel,
+            WfInstallPlugin.ArtifactResolver artifactResolver,
+            MessageWriter log, Map<String, String> mergedArtifactVersions,
+            Installer installer,
+            boolean channelArtifactResolution,
+            Optional<ArtifactRecorder> recorder) throws IOException, ProvisioningDescriptionException {
+        this(requireChannel, shadedModel, artifactResolver, log, mergedArtifactVersions, new ArtifactCoordsTable(),
+                installer, channelArtifactResolution, recorder);
+    }
+
+    ShadedModel(boolean requireChannel,
+            Path shadedModel,
+            WfInstallPlugin.ArtifactResolver artifactResolver,
+            MessageWriter log, Map<String, String> mergedArtifactVersions,
+            ArtifactCoordsTable coordsTable,
+            Installer installer,
+            boolean channelArtifactResolution,
+            Optional<ArtifactRecorder> recorder) throws IOException, ProvisioningDescriptionException {
         this.requireChannel = requireChannel;
-        this.tmpPath = tmpPath;
+        this.shadedModel = shadedModel;
         this.artifactResolver = artifactResolver;
         this.log = log;
         this.mergedArtifactVersions = mergedArtifactVersions;
+        this.coordsTable = coordsTable;
         this.installer = installer;
         final Builder builder = new Builder(false);
         try (BufferedReader reader = Files.newBufferedReader(shadedModel, StandardCharsets.UTF_8)) {
@@ -96,14 +134,29 @@ public class ShadedModel implements Utils.ArtifactResourceConsumer {
         this.recorder = recorder;
     }
 
-    public List<MavenArtifact> getArtifacts() throws ProvisioningException, IOException {
+    Path getModelFile() {
+        return shadedModel;
+    }
+
+    /**
+     * Resolves and installs the dependencies of the shaded model. The dependencies are resolved once,
+     * the following calls return the same list.
+     */
+    public synchronized List<MavenArtifact> getArtifacts() throws ProvisioningException, IOException {
+        if (artifacts == null) {
+            artifacts = Collections.unmodifiableList(resolveArtifacts());
+        }
+        return artifacts;
+    }
+
+    private List<MavenArtifact> resolveArtifacts() throws ProvisioningException, IOException {
         List<MavenArtifact> artifacts = new ArrayList<>();
         Element shadedDependencies = rootElement.getFirstChildElement("shaded-dependencies",
                 rootElement.getNamespaceURI());
         Elements dependencies = shadedDependencies.getChildElements();
         for (int i = 0; i < dependencies.size(); i++) {
             Element e = dependencies.get(i);
-            MavenArtifact a = Utils.toArtifactCoords(mergedArtifactVersions, e.getValue(), false, channelArtifactResolution, requireChannel);
+            MavenArtifact a = coordsTable.toArtifactCoords(mergedArtifactVersions, e.getValue(), false, channelArtifactResolution, requireChannel);
             artifactResolver.resolve(a);
             if (log.isVerboseEnabled()) {
                 log.verbose("Shadel model dependency: " + e.getValue() + " resolved version " + a.getVersion());
@@ -145,32 +198,86 @@ public class ShadedModel implements Utils.ArtifactResourceConsumer {
                 rootElement.getNamespaceURI()).getValue();
     }
 
+    /**
+     * Assembles the shaded jar streaming the entries of the dependencies to the jar.
+     * The first dependency containing an entry provides it, the manifest is built from the first dependency manifest
+     * and the service loader files of all the dependencies are merged.
+     */
     public void buildJar(Path shadedJar) throws IOException, ProvisioningException {
         if (log.isVerboseEnabled()) {
             log.verbose("Assembling shaded jar " + shadedJar);
         }
-        Path tmpTarget = tmpPath.resolve("assemble_target").resolve(shadedJar.getFileName());
-        Files.createDirectories(tmpTarget);
-        for (MavenArtifact dependency : getArtifacts()) {
-            Utils.navigateArtifact(dependency.getPath(), tmpTarget, this);
+        final List<MavenArtifact> dependencies = getArtifacts();
+        final List<ZipFile> zips = new ArrayList<>(dependencies.size());
+        try {
+            for (MavenArtifact dependency : dependencies) {
+                zips.add(new ZipFile(dependency.getPath().toFile()));
+            }
+            final Map<String, List<String>> serviceLoaders = new HashMap<>();
+            final Map<String, Set<String>> classes = new HashMap<>();
+            final Set<String> written = new HashSet<>();
+            try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(shadedJar)))) {
+                writeManifest(out, zips, written);
+                for (ZipFile zip : zips) {
+                    final Enumeration<? extends ZipEntry> entries = zip.entries();
+                    while (entries.hasMoreElements()) {
+                        final ZipEntry entry = entries.nextElement();
+                        final String name = entry.getName();
+                        if (entry.isDirectory()) {
+                            writeDirectories(out, name, written);
+                        } else if (name.startsWith(SERVICES)) {
+                            final List<String> lines;
+                            try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(entry), UTF_8))) {
+                                lines = reader.lines().collect(Collectors.toList());
+                            }
+                            mergeServices(serviceLoaders, classes, name.substring(name.lastIndexOf('/') + 1), lines);
+                        } else if (!name.equals(JarFile.MANIFEST_NAME) && !name.equals(MODULE_INFO) && !name.equals(INDEX_LIST)
+                                && written.add(name)) {
+                            writeDirectories(out, name, written);
+                            copyEntry(zip, entry, out);
+                        }
+                    }
+                }
+                for (Map.Entry<String, List<String>> entry : serviceLoaders.entrySet()) {
+                    final String name = SERVICES + entry.getKey();
+                    writeDirectories(out, name, written);
+                    out.putNextEntry(new ZipEntry(name));
+                    final byte[] lineSeparator = System.lineSeparator().getBytes(UTF_8);
+                    for (String line : entry.getValue()) {
+                        out.write(line.getBytes(UTF_8));
+                        out.write(lineSeparator);
+                    }
+                    out.closeEntry();
+                }
+            }
+        } finally {
+            for (ZipFile zip : zips) {
+                try {
+                    zip.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
         }
-        generateMetaInf(tmpTarget);
-        ZipUtils.zip(tmpTarget, shadedJar);
-        IoUtils.recursiveDelete(tmpTarget);
     }
 
-    private void generateMetaInf(Path target) throws IOException {
-        Path targetMetaInf = target.resolve("META-INF");
-        Path targetManifestPath = targetMetaInf.resolve("MANIFEST.MF");
-        Manifest manifest;
-        if (!Files.exists(targetManifestPath)) {
-            manifest = new Manifest();
-        } else {
-            try (FileInputStream stream = new FileInputStream(targetManifestPath.toFile())) {
-                manifest = new Manifest(stream);
+    private void writeManifest(ZipOutputStream out, List<ZipFile> zips, Set<String> written) throws IOException {
+        Manifest manifest = null;
+        for (ZipFile zip : zips) {
+            final ZipEntry entry = zip.getEntry(JarFile.MANIFEST_NAME);
+            if (entry != null) {
+                try (InputStream stream = zip.getInputStream(entry)) {
+                    manifest = new Manifest(stream);
+                }
+                break;
             }
         }
+        if (manifest == null) {
+            manifest = new Manifest();
+        }
         Attributes attributes = manifest.getMainAttributes();
+        // the main attributes are not written without a manifest version
+        attributes.putIfAbsent(Attributes.Name.MANIFEST_VERSION, "1.0");
         String mainClass = getMainClass();
         if (mainClass != null) {
             attributes.put(Attributes.Name.MAIN_CLASS, mainClass);
@@ -188,81 +295,88 @@ public class ShadedModel implements Utils.ArtifactResourceConsumer {
         attributes.put(Attributes.Name.IMPLEMENTATION_TITLE, "Galleon shading of " + getName());
         attributes.put(Attributes.Name.SPECIFICATION_TITLE, "Galleon shading of " + getName());
         attributes.put(Attributes.Name.IMPLEMENTATION_VERSION, "Unknown");
-        Files.deleteIfExists(targetManifestPath);
-        if (!Files.exists(targetMetaInf)) {
-            Files.createDirectories(targetMetaInf);
+        writeDirectories(out, JarFile.MANIFEST_NAME, written);
+        written.add(JarFile.MANIFEST_NAME);
+        out.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+        manifest.write(out);
+        out.closeEntry();
+    }
+
+    /**
+     * Writes the entries of the directories of an entry that have not been written yet, including the entry itself
+     * if it is a directory.
+     */
+    private static void writeDirectories(ZipOutputStream out, String name, Set<String> written) throws IOException {
+        int i = name.indexOf('/');
+        while (i >= 0) {
+            final String dir = name.substring(0, i + 1);
+            if (written.add(dir)) {
+                out.putNextEntry(new ZipEntry(dir));
+                out.closeEntry();
+            }
+            i = name.indexOf('/', i + 1);
         }
-        try (FileOutputStream out = new FileOutputStream(targetManifestPath.toFile())) {
-            manifest.write(out);
+    }
+
+    private static void copyEntry(ZipFile zip, ZipEntry entry, ZipOutputStream out) throws IOException {
+        final ZipEntry target = new ZipEntry(entry.getName());
+        target.setTime(entry.getTime());
+        if (entry.getMethod() == ZipEntry.STORED) {
+            // stored entries are copied without being compressed
+            target.setMethod(ZipEntry.STORED);
+            target.setSize(entry.getSize());
+            target.setCompressedSize(entry.getSize());
+            target.setCrc(entry.getCrc());
         }
-        Path moduleInfoPath = target.resolve("module-info.class");
-        Files.deleteIfExists(moduleInfoPath);
-        Path indexListPath = target.resolve("META-INF/INDEX.LIST");
-        Files.deleteIfExists(indexListPath);
-        Path services = target.resolve("META-INF").resolve("services");
-        for (Map.Entry<String, List<String>> entry : serviceLoaders.entrySet()) {
-            Path file = services.resolve(entry.getKey());
-            Files.write(file, entry.getValue(), UTF_8);
+        out.putNextEntry(target);
+        try (InputStream in = zip.getInputStream(entry)) {
+            in.transferTo(out);
         }
+        out.closeEntry();
     }
 
-    @Override
-    public boolean consume(Path resourcePath) throws IOException {
-        String entry = resourcePath.toString().substring(1);
-        if (entry.startsWith("META-INF/MANIFEST.MF")) {
-            if (!seenManifest) {
-                seenManifest = true;
-                return true;
-            } else {
-                // Do not copy other Manifest files
-                return false;
-            }
-        } else if (entry.startsWith("META-INF/services/")) {
-            String fileName = resourcePath.getFileName().toString();
-            List<String> lines = Files.readAllLines(resourcePath);
-            List<String> allLines = serviceLoaders.get(fileName);
-            Set<String> allClasses = classes.get(fileName);
-            if (allLines == null) {
-                allLines = new ArrayList<>();
-                serviceLoaders.put(fileName, allLines);
+    private static void mergeServices(Map<String, List<String>> serviceLoaders, Map<String, Set<String>> classes,
+            String fileName, List<String> lines) {
+        List<String> allLines = serviceLoaders.get(fileName);
+        Set<String> allClasses = classes.get(fileName);
+        if (allLines == null) {
+            allLines = new ArrayList<>();
+            serviceLoaders.put(fileName, allLines);
+        }
+        if (allClasses == null) {
+            allClasses = new HashSet<>();
+            classes.put(fileName, allClasses);
+        }
+        boolean newClasses = false;
+        for (String l : lines) {
+            l = l.trim();
+            if (l.isEmpty()) {
+                continue;
             }
-            if (allClasses == null) {
-                allClasses = new HashSet<>();
-                classes.put(fileName, allClasses);
+            if (!l.startsWith("#")) {
+                if (!allClasses.contains(l)) {
+                    newClasses = true;
+                    break;
+                }
             }
-            boolean newClasses = false;
+        }
+        if (newClasses) {
             for (String l : lines) {
                 l = l.trim();
                 if (l.isEmpty()) {
                     continue;
                 }
-                if (!l.startsWith("#")) {
-                    if (!allClasses.contains(l)) {
-                        newClasses = true;
-                        break;
-                    }
-                }
-            }
-            if (newClasses) {
-                for (String l : lines) {
-                    l = l.trim();
-                    if (l.isEmpty()) {
+                if (l.startsWith("#")) {
+                    allLines.add(l);
+                } else {
+                    if (allClasses.contains(l)) {
+                        // Ignore the class.
                         continue;
                     }
-                    if (l.startsWith("#")) {
-                        allLines.add(l);
-                    } else {
-                        if (allClasses.contains(l)) {
-                            // Ignore the class.
-                            continue;
-                        }
-                        allClasses.add(l);
-                        allLines.add(l);
-                    }
+                    allClasses.add(l);
+                    allLines.add(l);
                 }
             }
-            return false;
         }
-        return true;//cp.includeFile(entry);
     }
 }
@@ -17,9 +17,7 @@
 package org.wildfly.galleon.plugin;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.Optional;
 
 import org.jboss.galleon.ProvisioningException;
@@ -46,9 +44,9 @@ class SimpleArtifactInstaller extends AbstractArtifactInstaller {
     String installArtifactFat(MavenArtifact artifact, Path targetDir) throws IOException,
             MavenUniverseException, ProvisioningException {
         if (artifactRecorder.isPresent()) {
-            artifactRecorder.get().record(artifact, targetDir.resolve(artifact.getArtifactFileName()));
+            artifactRecorder.get().record(artifact, targetDir.resolve(artifact.getArtifactFileName()), artifact.getPath());
         }
-        Files.copy(artifact.getPath(), targetDir.resolve(artifact.getArtifactFileName()), StandardCopyOption.REPLACE_EXISTING);
+        installFile(artifact.getPath(), targetDir.resolve(artifact.getArtifactFileName()));
         return artifact.getArtifactFileName();
     }
 
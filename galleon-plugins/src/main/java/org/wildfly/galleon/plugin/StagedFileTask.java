@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.runtime.PackageRuntime;
+
+/**
+ * A package task applied to the files and directories of the staged installation that match its filters.
+ *
+ * In the finalizing phase the consecutive file tasks share a single traversal of the staged installation in which every path
+ * is visited by each task in the order of the tasks.
+ * A file is visited by a single thread at a time but distinct files are visited concurrently.
+ */
+public interface StagedFileTask extends WildFlyPackageTask {
+
+    /**
+     * Whether the task has something to apply, a disabled task is not visiting the staged installation.
+     *
+     * @return true if the task is enabled
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Visits a directory, once all its content has been visited.
+     *
+     * @param dir  the directory
+     * @param relativePath  the path of the directory relative to the staged installation, empty for the installation itself
+     * @throws ProvisioningException  if the task failed
+     */
+    default void visitDirectory(Path dir, String relativePath) throws ProvisioningException {
+    }
+
+    /**
+     * Visits a file.
+     *
+     * @param file  the file
+     * @param relativePath  the path of the file relative to the staged installation
+     * @throws ProvisioningException  if the task failed
+     */
+    void visitFile(Path file, String relativePath) throws ProvisioningException;
+
+    @Override
+    default void execute(WfInstallPlugin plugin, PackageRuntime pkg) throws ProvisioningException {
+        StagedTreeWalker.walk(plugin.getRuntime().getStagedDir(), List.of(this));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+
+import org.jboss.galleon.ProvisioningException;
+
+/**
+ * Walks the staged installation once for a list of {@link StagedFileTask}s.
+ *
+ * Each directory is listed by a fork/join task, its sub-directories are walked in parallel. The files of a directory are
+ * visited before the directory itself so that a task restricting the permissions of a directory doesn't prevent the
+ * other tasks from updating its content. As with {@link java.nio.file.Files#walkFileTree}, symbolic links are not followed.
+ */
+class StagedTreeWalker {
+
+    private static class VisitFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        VisitFailure(ProvisioningException cause) {
+            super(cause);
+        }
+    }
+
+    private final Path root;
+    private final List<StagedFileTask> tasks;
+
+    private StagedTreeWalker(Path root, List<StagedFileTask> tasks) {
+        this.root = root;
+        this.tasks = tasks;
+    }
+
+    /**
+     * Visits the content of a directory with the enabled tasks.
+     *
+     * @param root  the staged installation
+     * @param tasks  the tasks in their execution order
+     * @throws ProvisioningException  if the directory can't be walked or a task failed
+     */
+    static void walk(Path root, List<? extends StagedFileTask> tasks) throws ProvisioningException {
+        final List<StagedFileTask> enabled = tasks.stream().filter(StagedFileTask::isEnabled).collect(Collectors.toList());
+        if (enabled.isEmpty() || !Files.isDirectory(root)) {
+            return;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            pool.invoke(new StagedTreeWalker(root, enabled).new DirectoryVisit(root));
+        } catch (VisitFailure e) {
+            throw (ProvisioningException) e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private class DirectoryVisit extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+
+        DirectoryVisit(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            final List<DirectoryVisit> subDirs = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        subDirs.add(new DirectoryVisit(child));
+                    } else {
+                        final String relative = root.relativize(child).toString();
+                        for (StagedFileTask task : tasks) {
+                            task.visitFile(child, relative);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new VisitFailure(new ProvisioningException("Failed to walk " + dir, e));
+            } catch (ProvisioningException e) {
+                throw new VisitFailure(e);
+            }
+            invokeAll(subDirs);
+            final String relative = root.relativize(dir).toString();
+            try {
+                for (StagedFileTask task : tasks) {
+                    task.visitDirectory(dir, relative);
+                }
+            } catch (ProvisioningException e) {
+                throw new VisitFailure(e);
+            }
+        }
+    }
+}
@@ -80,10 +80,12 @@ public interface WfConstants {
     String OP_PARAMS_MAPPING = "op-params-mapping";
     String WRITE_ATTRIBUTE = "write-attribute";
 
+    String EMBEDDED_ARG_ADMIN_ONLY = "--admin-only";
     String EMBEDDED_ARG_DOMAIN_CONFIG = "--domain-config";
     String EMBEDDED_ARG_EMPTY_DOMAIN_CONFIG = "--empty-domain-config";
     String EMBEDDED_ARG_EMPTY_HOST_CONFIG = "--empty-host-config";
     String EMBEDDED_ARG_HOST_CONFIG = "--host-config";
     String EMBEDDED_ARG_INTERNAL_EMPTY_CONFIG = "--internal-empty-config";
     String EMBEDDED_ARG_SERVER_CONFIG = "--server-config";
+    String EMBEDDED_ARG_START_MODE = "--start-mode";
 }
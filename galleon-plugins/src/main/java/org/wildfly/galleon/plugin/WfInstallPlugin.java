@@ -17,21 +17,25 @@
 package org.wildfly.galleon.plugin;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
@@ -39,8 +43,8 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -50,17 +54,23 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
-import nu.xom.Elements;
+import org.jboss.galleon.Constants;
 import org.jboss.galleon.Errors;
 import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningException;
@@ -82,16 +92,16 @@ import org.jboss.galleon.runtime.ProvisioningRuntime;
 import org.jboss.galleon.universe.FeaturePackLocation.FPID;
 import org.jboss.galleon.universe.FeaturePackLocation.ProducerSpec;
 import org.jboss.galleon.universe.maven.MavenArtifact;
-import org.jboss.galleon.universe.maven.MavenUniverseException;
 import org.jboss.galleon.universe.maven.repo.MavenRepoManager;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.CollectionUtils;
-import org.jboss.galleon.util.ZipUtils;
 import org.wildfly.galleon.plugin.config.AssembleShadedArtifact;
 import org.wildfly.galleon.plugin.config.CopyArtifact;
 import org.wildfly.galleon.plugin.config.CopyPath;
 import org.wildfly.galleon.plugin.config.DeletePath;
 import org.wildfly.galleon.plugin.config.ExampleFpConfigs;
+import org.wildfly.galleon.plugin.config.FileAppender;
+import org.wildfly.galleon.plugin.config.FileAppenders;
 import org.wildfly.galleon.plugin.config.LineEndingsTask;
 import org.wildfly.galleon.plugin.config.XslTransform;
 import org.wildfly.galleon.plugin.server.ForkedEmbeddedUtil;
@@ -152,6 +162,70 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
     private static final ProvisioningOption OPTION_RECORD_ARTIFACTS = ProvisioningOption.builder("jboss-resolved-artifacts-cache")
             .setDefaultValue(".installation" + File.separator + ".cache")
             .build();
+    /**
+     * Path to the file in which the hashes of the recorded artifacts are indexed. Can be shared by several installations.
+     */
+    private static final ProvisioningOption OPTION_RECORD_ARTIFACTS_HASH_INDEX = ProvisioningOption.builder("jboss-resolved-artifacts-hash-index")
+            .setPersistent(false)
+            .build();
+    /**
+     * Number of threads used to process the JBoss Modules templates. When the option is set without a value,
+     * the number of available processors is used. By default the modules are processed sequentially.
+     */
+    private static final ProvisioningOption OPTION_MODULE_THREADS = ProvisioningOption.builder("jboss-module-threads")
+            .setPersistent(false)
+            .build();
+    /**
+     * Re-use the JBoss Modules of the installation being updated that are unchanged.
+     */
+    private static final ProvisioningOption OPTION_INCREMENTAL_MODULES = ProvisioningOption.builder("jboss-incremental-modules")
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+    /**
+     * How the resolved artifacts are installed in the {@code modules} directory and in the generated Maven repository.
+     */
+    private static final ProvisioningOption OPTION_ARTIFACT_INSTALL_MODE = ProvisioningOption.builder("jboss-artifact-install-mode")
+            .addToValueSet("copy", "hardlink", "symlink")
+            .setDefaultValue("copy")
+            .setPersistent(false)
+            .build();
+    /**
+     * Number of forked processes generating the configs in parallel. When the option is set without a value,
+     * the number of available processors is used.
+     */
+    public static final ProvisioningOption OPTION_CONFIG_GEN_PARALLELISM = ProvisioningOption.builder("jboss-config-gen-parallelism")
+            .setPersistent(false)
+            .build();
+    /**
+     * Keep the embedded server running between the standalone configurations, the server is reloaded with the next
+     * configuration instead of being stopped and started again.
+     */
+    public static final ProvisioningOption OPTION_REUSE_EMBEDDED = ProvisioningOption.builder("jboss-reuse-embedded")
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+    /**
+     * Directory in which the assembled shaded jars are cached. A cached jar is re-used by the next provisionings
+     * as long as its shaded model and its resolved dependencies are unchanged.
+     */
+    private static final ProvisioningOption OPTION_SHADED_JARS_CACHE = ProvisioningOption.builder("jboss-shaded-jars-cache")
+            .setPersistent(false)
+            .build();
+    /**
+     * Generate the example configs in the background, while the configs of the installation are generated.
+     */
+    private static final ProvisioningOption OPTION_BACKGROUND_EXAMPLE_CONFIGS = ProvisioningOption.builder("jboss-background-example-configs")
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+    /**
+     * Set by the plugin on the nested provisioning of the example configs, points to the installation staged
+     * by the main provisioning.
+     */
+    private static final ProvisioningOption OPTION_EXAMPLE_CONFIGS_HOME = ProvisioningOption.builder("jboss-example-configs-home")
+            .setPersistent(false)
+            .build();
     private ProvisioningRuntime runtime;
     MessageWriter log;
 
@@ -165,15 +239,19 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
     private boolean thinServer;
 
     private Set<String> schemaGroups = Collections.emptySet();
+    private SchemaExtractor schemaExtractor;
 
     private List<WildFlyPackageTask> finalizingTasks = Collections.emptyList();
     private List<PackageRuntime> finalizingTasksPkgs = Collections.emptyList();
 
     private DocumentBuilderFactory docBuilderFactory;
-    private TransformerFactory xsltFactory;
-    private Map<String, Transformer> xslTransformers = Collections.emptyMap();
+    private final XslTemplates xslTemplates = new XslTemplates();
 
     private Map<FPID, ExampleFpConfigs> exampleConfigs = new LinkedHashMap<>();
+    private ProgressTracker<List<Object>> examplesTracker;
+    private ExecutorService exampleConfigsExecutor;
+    private Future<List<Path>> exampleConfigsJob;
+    private ProvisioningLayoutFactory exampleConfigsLayoutFactory;
 
     private ProgressTracker<PackageRuntime> pkgProgressTracker;
 
@@ -185,17 +263,24 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
 
     private AbstractArtifactInstaller artifactInstaller;
     private ArtifactResolver artifactResolver;
+    private MemoizingArtifactResolver memoizingResolver;
     private boolean channelArtifactResolution;
 
     private boolean bulkResolveArtifacts;
 
     private final Map<MavenArtifact, MavenArtifact> artifactCache = new HashMap<>();
     private final Map<Path, ModuleTemplate> moduleTemplateCache = new HashMap<>();
+    private final ArtifactCoordsTable artifactCoords = new ArtifactCoordsTable();
+    private final Map<Path, CompletableFuture<Void>> moduleArtifactResolutions = new HashMap<>();
+    private ModuleFingerprints moduleFingerprints;
+    private final AtomicInteger reusedModules = new AtomicInteger();
 
-    private final Map<String, String> resolvedVersionsProperties = new HashMap<>();
+    private final Map<String, String> resolvedVersionsProperties = Collections.synchronizedMap(new HashMap<>());
     private Map<ProducerSpec, WildFlyChannelResolutionMode> channelResolutionModes = new LinkedHashMap<>();
     private Map<String, ProducerSpec> gaToProducer = new HashMap<>();
     private final Map<String, ShadedModel> shadedPackages = new HashMap<>();
+    private ShadedJarCache shadedJarCache;
+    private FileAppenders fileAppenders;
 
     @Override
     protected List<ProvisioningOption> initPluginOptions() {
@@ -203,7 +288,10 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                              OPTION_FORK_EMBEDDED, OPTION_MVN_REPO,
                              OPTION_RESET_EMBEDDED_SYSTEM_PROPERTIES,
                              OPTION_OVERRIDDEN_ARTIFACTS, OPTION_BULK_RESOLVE_ARTIFACTS,
-                             OPTION_RECORD_ARTIFACTS);
+                             OPTION_RECORD_ARTIFACTS, OPTION_RECORD_ARTIFACTS_HASH_INDEX, OPTION_MODULE_THREADS,
+                             OPTION_ARTIFACT_INSTALL_MODE, OPTION_INCREMENTAL_MODULES, OPTION_REUSE_EMBEDDED,
+                             OPTION_CONFIG_GEN_PARALLELISM, OPTION_SHADED_JARS_CACHE, OPTION_EXAMPLE_CONFIGS_HOME,
+                             OPTION_BACKGROUND_EXAMPLE_CONFIGS);
     }
 
     public ProvisioningRuntime getRuntime() {
@@ -237,8 +325,74 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         return getBooleanOption(OPTION_BULK_RESOLVE_ARTIFACTS);
     }
 
+    private Path getArtifactHashIndexFile() throws ProvisioningException {
+        if (!runtime.isOptionSet(OPTION_RECORD_ARTIFACTS_HASH_INDEX)) {
+            return null;
+        }
+        final String value = runtime.getOptionValue(OPTION_RECORD_ARTIFACTS_HASH_INDEX);
+        return value == null || value.isEmpty() ? null : Path.of(value).toAbsolutePath();
+    }
+
+    private Path getShadedJarsCacheDir() throws ProvisioningException {
+        if (!runtime.isOptionSet(OPTION_SHADED_JARS_CACHE)) {
+            return null;
+        }
+        final String value = runtime.getOptionValue(OPTION_SHADED_JARS_CACHE);
+        return value == null || value.isEmpty() ? null : Path.of(value).toAbsolutePath();
+    }
+
+    private ExampleConfigsHome getExampleConfigsHome() throws ProvisioningException {
+        if (!runtime.isOptionSet(OPTION_EXAMPLE_CONFIGS_HOME)) {
+            return null;
+        }
+        final String value = runtime.getOptionValue(OPTION_EXAMPLE_CONFIGS_HOME);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        final Path file = Path.of(value);
+        try {
+            return ExampleConfigsHome.load(file);
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(file), e);
+        }
+    }
+
+    private int getModuleThreads() throws ProvisioningException {
+        if (!runtime.isOptionSet(OPTION_MODULE_THREADS)) {
+            return 1;
+        }
+        final String value = runtime.getOptionValue(OPTION_MODULE_THREADS);
+        if (value == null || value.isEmpty()) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        final int threads;
+        try {
+            threads = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ProvisioningException("Option " + OPTION_MODULE_THREADS.getName() + " expects a positive number of threads but got " + value, e);
+        }
+        if (threads < 1) {
+            throw new ProvisioningException("Option " + OPTION_MODULE_THREADS.getName() + " expects a positive number of threads but got " + value);
+        }
+        return threads;
+    }
+
+    private LinkingArtifactInstaller.Mode getArtifactInstallMode() throws ProvisioningException {
+        if (!runtime.isOptionSet(OPTION_ARTIFACT_INSTALL_MODE)) {
+            return LinkingArtifactInstaller.Mode.COPY;
+        }
+        final String value = runtime.getOptionValue(OPTION_ARTIFACT_INSTALL_MODE);
+        try {
+            return LinkingArtifactInstaller.Mode.fromOption(value);
+        } catch (IllegalArgumentException e) {
+            throw new ProvisioningException("Option " + OPTION_ARTIFACT_INSTALL_MODE.getName() + " expects one of "
+                    + OPTION_ARTIFACT_INSTALL_MODE.getValueSet() + " but got " + value, e);
+        }
+    }
+
     private boolean isForkEmbedded(ProvisioningRuntime runtime) throws ProvisioningException {
-        return getBooleanOption(OPTION_FORK_EMBEDDED);
+        // the system properties of this process are shared with the example configs generated in the background
+        return exampleConfigsJob != null || getBooleanOption(OPTION_FORK_EMBEDDED);
     }
 
     private String isResetEmbeddedSystemProperties() throws ProvisioningException {
@@ -290,7 +444,11 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             if (pathValue != null && !pathValue.isEmpty()) {
                 try {
                     log.verbose("Starting artifact log");
-                    artifactRecorder = Optional.of(new ArtifactRecorder(runtime.getStagedDir(), Path.of(pathValue)));
+                    final Path cacheDir = Path.of(pathValue);
+                    // The index contains absolute paths of the build machine, it is only kept outside of the installation
+                    final Path hashIndexFile = getArtifactHashIndexFile();
+                    artifactRecorder = Optional.of(new ArtifactRecorder(runtime.getStagedDir(), cacheDir,
+                            ArtifactHashIndex.load(hashIndexFile), hashIndexFile));
                 } catch (IOException e) {
                     throw new ProvisioningException("Unable to create artifact.log", e);
                 }
@@ -395,17 +553,32 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         }
         mergedArtifactVersions.putAll(overriddenArtifactVersions);
         mergedTaskPropsResolver = new MapPropertyResolver(mergedTaskProps);
+        final Path shadedJarsCacheDir = getShadedJarsCacheDir();
+        if (shadedJarsCacheDir != null) {
+            shadedJarCache = new ShadedJarCache(shadedJarsCacheDir);
+        }
+        if (!schemaGroups.isEmpty()) {
+            schemaExtractor = new SchemaExtractor(runtime.getStagedDir().resolve(WfConstants.DOCS).resolve(WfConstants.SCHEMA));
+        }
 
         // We must create resolver and installer at this point, prior to process the packges.
         // The CopyArtifact tasks could need the resolver and installer we are instantiating there.
-        artifactResolver = this::resolveMaven;
-        artifactInstaller = new SimpleArtifactInstaller(artifactResolver, generatedMavenRepo, artifactRecorder);
+        // Artifacts are resolved once per provisioning, whatever the number of tasks and phases referencing them
+        memoizingResolver = new MemoizingArtifactResolver(this::resolveMaven);
+        artifactResolver = memoizingResolver;
+        final LinkingArtifactInstaller.Mode installMode = getArtifactInstallMode();
+        if (installMode == LinkingArtifactInstaller.Mode.COPY) {
+            artifactInstaller = new SimpleArtifactInstaller(artifactResolver, generatedMavenRepo, artifactRecorder);
+        } else {
+            log.verbose("Installing artifacts using %s", installMode.getOptionValue());
+            artifactInstaller = new LinkingArtifactInstaller(artifactResolver, generatedMavenRepo, artifactRecorder, installMode);
+        }
 
         // Resolution of provisioning artifacts that we would need in the generated licenses.
-        MavenArtifact configGen = Utils.toArtifactCoords(mergedArtifactVersions, CONFIG_GEN_GA,
+        MavenArtifact configGen = artifactCoords.toArtifactCoords(mergedArtifactVersions, CONFIG_GEN_GA,
                 false, channelArtifactResolution, requireChannel(gaToProducer.get(CONFIG_GEN_GA)));
         artifactResolver.resolve(configGen);
-        MavenArtifact plugin = Utils.toArtifactCoords(mergedArtifactVersions, GALLEON_PLUGINS_GA,
+        MavenArtifact plugin = artifactCoords.toArtifactCoords(mergedArtifactVersions, GALLEON_PLUGINS_GA,
                 false, channelArtifactResolution, requireChannel(gaToProducer.get(GALLEON_PLUGINS_GA)));
         artifactResolver.resolve(plugin);
 
@@ -420,37 +593,78 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         for(FeaturePackRuntime fp : runtime.getFeaturePacks()) {
             processShaded(fp);
         }
+        final ExampleConfigsHome exampleConfigsHome = getExampleConfigsHome();
+        if (exampleConfigsHome != null) {
+            if (exampleConfigsHome.providesPackages(runtime)) {
+                generateExampleConfigs(exampleConfigsHome.getHome());
+                if (startTime > 0) {
+                    log.print(Errors.tookTime("Overall WildFly Galleon Plugin", startTime));
+                }
+                return;
+            }
+            log.verbose("The example configs require packages that are not installed, building their JBoss modules");
+        }
+        fileAppenders = new FileAppenders(runtime.getStagedDir());
         for(FeaturePackRuntime fp : runtime.getFeaturePacks()) {
             processPackages(fp);
         }
+        fileAppenders.flush();
         pkgProgressTracker.complete();
         if (!jbossModules.isEmpty()) {
-
-            if (bulkResolveArtifacts) {
-                log.verbose("Preloading artifacts");
-                final ProgressTracker<MavenArtifact> artifactTracker = layoutFactory.getProgressTracker(TRACK_ARTIFACTS_RESOLVE);
-                populateArtifactCache();
-                artifactTracker.starting(artifactCache.size());
-                resolveArtifactsInCache(artifactTracker);
-                artifactTracker.complete();
-                log.verbose("Finished preloading artifacts");
+            initModuleFingerprints();
+            if (artifactRecorder.isPresent()) {
+                artifactRecorder.get().setTargetOrder(getModuleOrder());
             }
+            final int moduleThreads = Math.min(getModuleThreads(), jbossModules.size());
+            BulkArtifactResolver bulkResolver = null;
+            ExecutorService modulesExecutor = null;
+            try {
+                if (bulkResolveArtifacts) {
+                    log.verbose("Preloading artifacts");
+                    // Artifacts are resolved in the background while the module templates are parsed
+                    bulkResolver = new BulkArtifactResolver(maven, moduleThreads);
+                    populateArtifactCache(bulkResolver);
+                }
+                OrderedTasks<PackageRuntime> moduleResults = null;
+                if (moduleThreads > 1) {
+                    log.verbose("Processing JBoss modules using %s threads", moduleThreads);
+                    // Each module starts as soon as its own artifacts are resolved
+                    modulesExecutor = Executors.newFixedThreadPool(moduleThreads);
+                    moduleResults = submitModuleTemplates(modulesExecutor);
+                }
+                if (bulkResolver != null) {
+                    final ProgressTracker<MavenArtifact> artifactTracker = layoutFactory.getProgressTracker(TRACK_ARTIFACTS_RESOLVE);
+                    artifactTracker.starting(artifactCache.size());
+                    bulkResolver.awaitResolved(artifactTracker);
+                    artifactTracker.complete();
+                    log.verbose("Finished preloading artifacts");
+                }
 
-            final ProgressTracker<PackageRuntime> modulesTracker = layoutFactory.getProgressTracker(TRACK_MODULES_BUILD);
-            modulesTracker.starting(jbossModules.size());
-
-            for (Map.Entry<Path, PackageRuntime> entry : jbossModules.entrySet()) {
-                final PackageRuntime pkg = entry.getValue();
-                modulesTracker.processing(pkg);
-                try {
-                    processModuleTemplate(pkg, entry.getKey());
-                } catch (IOException e) {
-                    throw new ProvisioningException("Failed to process JBoss module XML template for feature-pack "
-                            + pkg.getFeaturePackRuntime().getFPID() + " package " + pkg.getName(), e);
+                final ProgressTracker<PackageRuntime> modulesTracker = layoutFactory.getProgressTracker(TRACK_MODULES_BUILD);
+                modulesTracker.starting(jbossModules.size());
+                if (moduleResults == null) {
+                    processModuleTemplates(modulesTracker);
+                } else {
+                    awaitModuleTemplates(moduleResults, modulesTracker);
+                }
+                modulesTracker.complete();
+                if (moduleFingerprints != null) {
+                    log.verbose("Re-used %s unchanged JBoss modules", reusedModules.get());
+                    try {
+                        moduleFingerprints.store(runtime.getStagedDir());
+                    } catch (IOException e) {
+                        throw new ProvisioningException(Errors.writeFile(runtime.getStagedDir()
+                                .resolve(Constants.PROVISIONED_STATE_DIR).resolve(ModuleFingerprints.FILE_NAME)), e);
+                    }
+                }
+            } finally {
+                if (modulesExecutor != null) {
+                    modulesExecutor.shutdownNow();
+                }
+                if (bulkResolver != null) {
+                    bulkResolver.close();
                 }
-                modulesTracker.processed(pkg);
             }
-            modulesTracker.complete();
         }
 
         final Path layersConf = runtime.getStagedDir().resolve(WfConstants.MODULES).resolve(WfConstants.LAYERS_CONF);
@@ -458,7 +672,63 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             mergeLayerConfs(runtime);
         }
 
-         generateConfigs(runtime);
+        if(!exampleConfigs.isEmpty() && getBooleanOption(OPTION_BACKGROUND_EXAMPLE_CONFIGS)) {
+            submitExampleConfigs();
+            try {
+                finalizeInstallation(startTime);
+                copyExampleConfigs(awaitExampleConfigs());
+            } finally {
+                shutdownExampleConfigs();
+            }
+        } else {
+            finalizeInstallation(startTime);
+            if(!exampleConfigs.isEmpty()) {
+                provisionExampleConfigs();
+            }
+        }
+
+        if (log.isVerboseEnabled() && artifactInstaller instanceof LinkingArtifactInstaller) {
+            log.verbose("%s artifacts could not be linked and have been copied", ((LinkingArtifactInstaller) artifactInstaller).getCopiedCount());
+        }
+
+        if (artifactRecorder.isPresent()) {
+            try {
+                artifactRecorder.get().writeCacheManifest();
+                log.verbose("%s recorded artifacts hashed", artifactRecorder.get().getHashIndexMisses());
+            } catch (IOException e) {
+                throw new ProvisioningException("Unable to record provisioned artifacts", e);
+            }
+        }
+
+        if (xslTemplates.getCompiled() > 0) {
+            log.verbose("%s XSL stylesheets compiled, %s transformations re-used a compiled stylesheet",
+                    xslTemplates.getCompiled(), xslTemplates.getHits());
+        }
+
+        if (shadedJarCache != null) {
+            log.verbose("%s shaded jars re-used from the cache, %s shaded jars assembled",
+                    shadedJarCache.getHits(), shadedJarCache.getMisses());
+        }
+
+        log.verbose("Parsed %s artifact coordinates, %s lookups served from the coordinates table",
+                artifactCoords.getMisses(), artifactCoords.getHits());
+        log.verbose("Resolved %s artifacts, %s resolutions re-used a previous resolution",
+                memoizingResolver.getResolved(), memoizingResolver.getHits());
+
+        if (startTime > 0) {
+            log.print(Errors.tookTime("Overall WildFly Galleon Plugin", startTime));
+        }
+    }
+
+    /**
+     * Generates the configs of the installation and executes the finalizing CLI scripts and tasks.
+     */
+    private void finalizeInstallation(long startTime) throws ProvisioningException {
+        generateConfigs(runtime);
+
+        if (schemaExtractor != null) {
+            awaitSchemas(startTime > 0);
+        }
 
         // If the dir doesn't exist, no configuration has been generated, no need to execute CLI scripts.
         if (Files.exists(runtime.getStagedDir())) {
@@ -467,11 +737,11 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                 if (Files.exists(finalizeCli)) {
                     final URL[] cp = new URL[2];
                     try {
-                        MavenArtifact artifact = Utils.toArtifactCoords(mergedArtifactVersions, CONFIG_GEN_GA,
+                        MavenArtifact artifact = artifactCoords.toArtifactCoords(mergedArtifactVersions, CONFIG_GEN_GA,
                                 false, channelArtifactResolution, requireChannel(gaToProducer.get(CONFIG_GEN_GA)));
                         artifactResolver.resolve(artifact);
                         cp[0] = artifact.getPath().toUri().toURL();
-                        artifact = Utils.toArtifactCoords(mergedArtifactVersions, WILDFLY_LAUNCHER_GA,
+                        artifact = artifactCoords.toArtifactCoords(mergedArtifactVersions, WILDFLY_LAUNCHER_GA,
                                 false, channelArtifactResolution, requireChannel(gaToProducer.get(WILDFLY_LAUNCHER_GA)));
                         artifactResolver.resolve(artifact);
                         cp[1] = artifact.getPath().toUri().toURL();
@@ -533,41 +803,195 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         }
 
         if(!finalizingTasks.isEmpty()) {
-            for(int i = 0; i < finalizingTasks.size(); ++i) {
-                finalizingTasks.get(i).execute(this, finalizingTasksPkgs.get(i));
-            }
+            executeFinalizingTasks();
         }
+    }
 
-        if(!exampleConfigs.isEmpty()) {
-            provisionExampleConfigs();
+    /**
+     * Orders the files installed in the module directories by the declaration order of the modules, so that an artifact
+     * shared by several modules is recorded with the same module whatever the order in which the modules are processed.
+     * The files installed outside of the module directories come first.
+     */
+    private Comparator<Path> getModuleOrder() {
+        final Map<Path, Integer> moduleOrder = new HashMap<>(jbossModules.size());
+        int i = 0;
+        for (Path moduleXmlRelativePath : jbossModules.keySet()) {
+            moduleOrder.put(runtime.getStagedDir().resolve(moduleXmlRelativePath.toString()).getParent(), i++);
         }
+        return Comparator.comparingInt(p -> moduleOrder.getOrDefault(p.getParent(), -1));
+    }
 
-        if (artifactRecorder.isPresent()) {
+    private void processModuleTemplates(ProgressTracker<PackageRuntime> modulesTracker) throws ProvisioningException {
+        for (Map.Entry<Path, PackageRuntime> entry : jbossModules.entrySet()) {
+            final PackageRuntime pkg = entry.getValue();
+            modulesTracker.processing(pkg);
             try {
-                artifactRecorder.get().writeCacheManifest();
+                processModuleTemplate(pkg, entry.getKey());
             } catch (IOException e) {
-                throw new ProvisioningException("Unable to record provisioned artifacts", e);
+                throw moduleTemplateFailure(pkg, e);
             }
+            modulesTracker.processed(pkg);
         }
+    }
 
-        if (startTime > 0) {
-            log.print(Errors.tookTime("Overall WildFly Galleon Plugin", startTime));
+    private OrderedTasks<PackageRuntime> submitModuleTemplates(ExecutorService executor) {
+        // Modules are written to distinct target directories so they can be processed concurrently.
+        final OrderedTasks<PackageRuntime> tasks = new OrderedTasks<>(executor);
+        for (Map.Entry<Path, PackageRuntime> entry : jbossModules.entrySet()) {
+            final PackageRuntime pkg = entry.getValue();
+            final Path moduleXmlRelativePath = entry.getKey();
+            final CompletableFuture<Void> artifactsResolved = moduleArtifactResolutions.get(moduleXmlRelativePath);
+            tasks.submit(pkg, () -> {
+                if (artifactsResolved != null) {
+                    BulkArtifactResolver.await(artifactsResolved);
+                }
+                processModuleTemplate(pkg, moduleXmlRelativePath);
+                return null;
+            });
+        }
+        return tasks;
+    }
+
+    private void awaitModuleTemplates(OrderedTasks<PackageRuntime> tasks, ProgressTracker<PackageRuntime> modulesTracker) throws ProvisioningException {
+        // Progress is reported from this thread in the declaration order of the modules.
+        tasks.await(modulesTracker::processing, modulesTracker::processed, WfInstallPlugin::moduleTemplateFailure);
+    }
+
+    private static ProvisioningException moduleTemplateFailure(PackageRuntime pkg, Throwable cause) {
+        return new ProvisioningException("Failed to process JBoss module XML template for feature-pack "
+                + pkg.getFeaturePackRuntime().getFPID() + " package " + pkg.getName(), cause);
+    }
+
+    private void initModuleFingerprints() throws ProvisioningException {
+        if (!getBooleanOption(OPTION_INCREMENTAL_MODULES)) {
+            return;
+        }
+        // Artifacts resolved by channels and artifacts installed in a generated repository
+        // can't be known without resolving them, modules are always re-built.
+        if (channelArtifactResolution || generatedMavenRepo != null) {
+            log.verbose("Incremental JBoss modules provisioning is not supported when resolving artifacts from channels or generating a Maven repository");
+            return;
+        }
+        final Path fingerprints = runtime.getInstallDir().resolve(Constants.PROVISIONED_STATE_DIR).resolve(ModuleFingerprints.FILE_NAME);
+        try {
+            moduleFingerprints = ModuleFingerprints.load(runtime.getInstallDir());
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(fingerprints), e);
+        }
+    }
+
+    /**
+     * Returns the artifacts of a module if they are fully identified by their coordinates,
+     * null if the module artifacts can change without a change of their coordinates.
+     */
+    private List<MavenArtifact> getFingerprintedArtifacts(ModuleTemplate moduleTemplate, Map<String, String> versionProps,
+            boolean requireChannel) throws ProvisioningException, IOException {
+        final int artifactCount = moduleTemplate.getArtifacts().size();
+        if (artifactCount == 0) {
+            return Collections.emptyList();
+        }
+        final List<MavenArtifact> result = new ArrayList<>(artifactCount);
+        for (int i = 0; i < artifactCount; i++) {
+            final AbstractModuleTemplateProcessor.ModuleArtifact moduleArtifact = new AbstractModuleTemplateProcessor.ModuleArtifact(moduleTemplate,
+                    i, versionProps, artifactCoords, log, artifactInstaller, channelArtifactResolution, requireChannel);
+            final MavenArtifact artifact = moduleArtifact.getUnresolvedArtifact();
+            if (artifact == null || !artifact.hasVersion() || artifact.getVersionRange() != null
+                    || artifact.getVersion().endsWith("-SNAPSHOT")) {
+                return null;
+            }
+            result.add(artifact);
+        }
+        return result;
+    }
+
+    private String getModuleFingerprint(Path moduleTemplateFile, ModuleTemplate moduleTemplate, List<MavenArtifact> artifacts,
+            Map<String, String> versionProps, boolean requireChannel) throws ProvisioningException, IOException {
+        final List<String> coords = new ArrayList<>(artifacts.size() + 1);
+        // the module version can be the version of an artifact that is not a module artifact
+        final String versionExpr = moduleTemplate.getVersion();
+        if (versionExpr != null) {
+            if (versionExpr.startsWith("${") && versionExpr.endsWith("}")) {
+                final String exprBody = versionExpr.substring(2, versionExpr.length() - 1);
+                final int optionsIndex = exprBody.indexOf('?');
+                final MavenArtifact artifact = artifactCoords.toArtifactCoords(versionProps, optionsIndex > 0 ? exprBody.substring(0, optionsIndex) : exprBody,
+                        false, channelArtifactResolution, requireChannel);
+                coords.add(artifact == null ? versionExpr : artifact.getCoordsAsString());
+            }
+        }
+        for (MavenArtifact artifact : artifacts) {
+            coords.add(artifact.getCoordsAsString());
+        }
+        return ModuleFingerprints.fingerprint(moduleTemplateFile, thinServer, coords);
+    }
+
+    /**
+     * Returns the names of the files installed for a module, the module.xml file and, for a fat server, the module artifacts.
+     */
+    private List<String> getModuleFileNames(Path moduleXmlRelativePath, List<MavenArtifact> artifacts) throws ProvisioningException {
+        final List<String> fileNames = new ArrayList<>(artifacts.size() + 1);
+        fileNames.add(moduleXmlRelativePath.getFileName().toString());
+        if (!thinServer) {
+            for (MavenArtifact artifact : artifacts) {
+                fileNames.add(artifact.getArtifactFileName());
+            }
         }
+        return fileNames;
     }
 
-    private void populateArtifactCache() throws ProvisioningException {
+    /**
+     * Returns the hashes of the files of the previously installed module if the module can be re-used as is,
+     * null if its fingerprint changed or if one of its installed files has been modified.
+     */
+    private Map<String, String> getReusableModuleHashes(Path moduleXmlRelativePath, String fingerprint, List<MavenArtifact> artifacts)
+            throws ProvisioningException, IOException {
+        if (!moduleFingerprints.isUnchanged(moduleXmlRelativePath, fingerprint)) {
+            return null;
+        }
+        return moduleFingerprints.verify(moduleXmlRelativePath, getModuleFileNames(moduleXmlRelativePath, artifacts));
+    }
+
+    private boolean reuseModule(Path moduleXmlRelativePath, String fingerprint, List<MavenArtifact> artifacts) throws ProvisioningException, IOException {
+        final Map<String, String> hashes = getReusableModuleHashes(moduleXmlRelativePath, fingerprint, artifacts);
+        if (hashes == null) {
+            return false;
+        }
+        final Path previousModuleXml = moduleFingerprints.getPreviousInstallDir().resolve(moduleXmlRelativePath.toString());
+        final Path targetModuleXml = runtime.getStagedDir().resolve(moduleXmlRelativePath.toString());
+        log.verbose("Re-using unchanged module %s", moduleXmlRelativePath);
+        Files.copy(previousModuleXml, targetModuleXml, StandardCopyOption.REPLACE_EXISTING);
+        for (MavenArtifact artifact : artifacts) {
+            resolvedVersionsProperties.put("version." + artifact.getGroupId() + "." + artifact.getArtifactId(), artifact.getVersion());
+            if (thinServer) {
+                if (schemaGroups.contains(artifact.getGroupId())) {
+                    artifactResolver.resolve(artifact);
+                    processSchemas(artifact.getGroupId(), artifact.getPath());
+                }
+            } else {
+                final Path targetJar = targetModuleXml.resolveSibling(artifact.getArtifactFileName());
+                Files.copy(previousModuleXml.resolveSibling(artifact.getArtifactFileName()), targetJar, StandardCopyOption.REPLACE_EXISTING);
+                if (artifactRecorder.isPresent()) {
+                    artifactRecorder.get().record(artifact, targetJar);
+                }
+                processSchemas(artifact.getGroupId(), targetJar);
+            }
+        }
+        moduleFingerprints.put(moduleXmlRelativePath, fingerprint, hashes);
+        return true;
+    }
+
+    private void populateArtifactCache(BulkArtifactResolver bulkResolver) throws ProvisioningException {
         for (Entry<Path, PackageRuntime> entry : jbossModules.entrySet()) {
             final PackageRuntime pkg = entry.getValue();
             try {
-                findArtifacts(pkg, entry.getKey());
+                findArtifacts(pkg, entry.getKey(), bulkResolver);
             } catch (IOException e) {
-                throw new ProvisioningException("Failed to process JBoss module XML template for feature-pack "
-                                                   + pkg.getFeaturePackRuntime().getFPID() + " package " + pkg.getName(), e);
+                throw moduleTemplateFailure(pkg, e);
             }
         }
+        bulkResolver.flush();
     }
 
-    private void findArtifacts(PackageRuntime pkg, Path moduleXmlRelativePath) throws ProvisioningException, IOException {
+    private void findArtifacts(PackageRuntime pkg, Path moduleXmlRelativePath, BulkArtifactResolver bulkResolver) throws ProvisioningException, IOException {
         final Path moduleTemplateFile = pkg.getResource(WfConstants.PM, WfConstants.WILDFLY, WfConstants.MODULE).resolve(moduleXmlRelativePath);
         final Path targetPath = runtime.getStagedDir().resolve(moduleXmlRelativePath.toString());
         final Map<String, String> versionProps = fpArtifactVersions.get(pkg.getFeaturePackRuntime().getFPID().getProducer());
@@ -576,16 +1000,23 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         if (!moduleTemplate.isModule()) {
             return;
         }
-
-        final Elements artifacts = moduleTemplate.getArtifacts();
-        if (artifacts == null) {
-            return;
+        if (moduleFingerprints != null) {
+            final boolean requireChannel = requireChannel(pkg.getFeaturePackRuntime().getFPID().getProducer());
+            final List<MavenArtifact> artifacts = getFingerprintedArtifacts(moduleTemplate, versionProps, requireChannel);
+            if (artifacts != null) {
+                final String fingerprint = getModuleFingerprint(moduleTemplateFile, moduleTemplate, artifacts, versionProps, requireChannel);
+                if (getReusableModuleHashes(moduleXmlRelativePath, fingerprint, artifacts) != null) {
+                    // the module will be re-used, its artifacts don't need to be resolved
+                    return;
+                }
+            }
         }
 
-        final int artifactCount = artifacts.size();
+        final int artifactCount = moduleTemplate.getArtifacts().size();
+        final List<CompletableFuture<Void>> resolutions = new ArrayList<>(artifactCount);
         for (int i = 0; i < artifactCount; i++) {
             final AbstractModuleTemplateProcessor.ModuleArtifact moduleArtifact = new AbstractModuleTemplateProcessor.ModuleArtifact(moduleTemplate,
-                    artifacts.get(i), versionProps, log, artifactInstaller, channelArtifactResolution,
+                    i, versionProps, artifactCoords, log, artifactInstaller, channelArtifactResolution,
                     requireChannel(pkg.getFeaturePackRuntime().getFPID().getProducer()));
             final MavenArtifact mavenArtifact = moduleArtifact.getUnresolvedArtifact();
             if (mavenArtifact != null) {
@@ -597,23 +1028,19 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                 key.setVersion(mavenArtifact.getVersion());
                 key.setVersionRange(mavenArtifact.getVersionRange());
 
-                artifactCache.put(key, mavenArtifact);
+                // An artifact shared by several modules is resolved once, by the first module referencing it
+                if (!artifactCache.containsKey(key)) {
+                    artifactCache.put(key, mavenArtifact);
+                }
+                resolutions.add(bulkResolver.add(key, artifactCache.get(key)));
             }
         }
-    }
-
-    private void resolveArtifactsInCache(ProgressTracker<MavenArtifact> tracker) throws ProvisioningException {
-        try {
-            maven.resolveAll(addListener(artifactCache.values(), tracker));
-        } catch (MavenUniverseException e) {
-            throw new ProvisioningException("Failed to resolve artifact", e);
+        if (!resolutions.isEmpty()) {
+            moduleArtifactResolutions.put(moduleXmlRelativePath,
+                    CompletableFuture.allOf(resolutions.toArray(new CompletableFuture<?>[0])));
         }
     }
 
-    private Collection<MavenArtifact> addListener(Collection<MavenArtifact> values, ProgressTracker<MavenArtifact> tracker) {
-        return values.stream().map((a)->new MonitorableArtifact(a, tracker)).collect(Collectors.toList());
-    }
-
     private void setupLayerDirectory(Path layersConf, Path layersDir) throws ProvisioningException {
         log.verbose("Creating layers directories if needed.");
         try (BufferedReader reader = Files.newBufferedReader(layersConf)) {
@@ -651,11 +1078,200 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         Utils.mergeLayersConfs(layersConfs, runtime.getStagedDir());
     }
 
+    /**
+     * Generates the configs of the nested provisioning of the example configs against the JBoss modules
+     * of the installation staged by the main provisioning. The packages are not processed.
+     *
+     * @param home  the installation staged by the main provisioning
+     * @throws ProvisioningException  if the configs can't be generated
+     */
+    private void generateExampleConfigs(Path home) throws ProvisioningException {
+        log.verbose("Generating the example configs with the JBoss modules of %s", home);
+        final ProvisioningLayoutFactory layoutFactory = runtime.getLayout().getFactory();
+        // the skipped phases are reported as completed
+        pkgProgressTracker.complete();
+        if (bulkResolveArtifacts) {
+            final ProgressTracker<MavenArtifact> artifactTracker = layoutFactory.getProgressTracker(TRACK_ARTIFACTS_RESOLVE);
+            artifactTracker.starting(0);
+            artifactTracker.complete();
+        }
+        final ProgressTracker<PackageRuntime> modulesTracker = layoutFactory.getProgressTracker(TRACK_MODULES_BUILD);
+        modulesTracker.starting(0);
+        modulesTracker.complete();
+
+        final Path modules = runtime.getStagedDir().resolve(WfConstants.MODULES);
+        final Path homeModules = home.resolve(WfConstants.MODULES);
+        IoUtils.recursiveDelete(modules);
+        boolean linked;
+        try {
+            Files.createSymbolicLink(modules, homeModules);
+            linked = true;
+        } catch (UnsupportedOperationException | IOException e) {
+            log.verbose("Failed to link %s, copying it: %s", homeModules, e.getLocalizedMessage());
+            try {
+                IoUtils.copy(homeModules, modules);
+            } catch (IOException ex) {
+                throw new ProvisioningException(Errors.copyFile(homeModules, modules), ex);
+            }
+            linked = false;
+        }
+        try {
+            generateConfigs(runtime);
+        } finally {
+            if (linked) {
+                // the link must not be followed when the staged dir is moved
+                try {
+                    Files.delete(modules);
+                } catch (IOException e) {
+                    log.verbose("Failed to delete %s: %s", modules, e.getLocalizedMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the generation of the example configs in the background, while the configs of the installation are generated.
+     * The configs of the installation and the example configs are both generated by forked embedded servers,
+     * the example configs by a nested provisioning with its own layout factory against a snapshot of the JBoss Modules.
+     */
+    private void submitExampleConfigs() throws ProvisioningException {
+        final Callable<List<Path>> job;
+        try {
+            job = initExampleConfigs(true);
+        } catch (ProvisioningException e) {
+            if (exampleConfigsLayoutFactory != null) {
+                exampleConfigsLayoutFactory.close();
+                exampleConfigsLayoutFactory = null;
+            }
+            throw e;
+        }
+        final ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+        exampleConfigsExecutor = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, "example-configs");
+            t.setDaemon(true);
+            t.setContextClassLoader(tccl);
+            return t;
+        });
+        exampleConfigsJob = exampleConfigsExecutor.submit(job);
+    }
+
+    private List<Path> awaitExampleConfigs() throws ProvisioningException {
+        try {
+            return exampleConfigsJob.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while generating example configs", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ProvisioningException) {
+                throw (ProvisioningException) cause;
+            }
+            throw new ProvisioningException("Failed to generate example configs", cause);
+        } finally {
+            exampleConfigsJob = null;
+        }
+    }
+
+    private void shutdownExampleConfigs() {
+        if (exampleConfigsJob != null) {
+            exampleConfigsJob.cancel(true);
+            exampleConfigsJob = null;
+        }
+        exampleConfigsExecutor.shutdownNow();
+        boolean terminated;
+        try {
+            // the nested provisioning must be done with its layout factory before the factory is closed
+            terminated = exampleConfigsExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            terminated = false;
+        }
+        exampleConfigsExecutor = null;
+        if (terminated) {
+            exampleConfigsLayoutFactory.close();
+        } else {
+            log.verbose("The generation of the example configs did not terminate");
+        }
+        exampleConfigsLayoutFactory = null;
+    }
+
+    /**
+     * Links the JBoss Modules of the staged installation into a snapshot read by the example configs generated in the
+     * background, the finalizing tasks modify the staged installation meanwhile. The jars are hard linked, the other
+     * files, which may be modified in place, are copied.
+     *
+     * @return  the directory containing the snapshot of the JBoss Modules
+     * @throws ProvisioningException  if the snapshot can't be created
+     */
+    private Path snapshotModules() throws ProvisioningException {
+        final Path modules = runtime.getStagedDir().resolve(WfConstants.MODULES);
+        final Path home = runtime.getTmpPath("example-configs-modules");
+        if (!Files.isDirectory(modules)) {
+            return home;
+        }
+        final Path snapshot = home.resolve(WfConstants.MODULES);
+        try {
+            Files.walkFileTree(modules, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(snapshot.resolve(modules.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    final Path target = snapshot.resolve(modules.relativize(file).toString());
+                    if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".jar")) {
+                        try {
+                            Files.createLink(target, file);
+                            return FileVisitResult.CONTINUE;
+                        } catch (UnsupportedOperationException | IOException e) {
+                            // copied below
+                        }
+                    }
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.copyFile(modules, snapshot), e);
+        }
+        return home;
+    }
+
     private void provisionExampleConfigs() throws ProvisioningException {
+        final List<Path> configPaths;
+        try {
+            configPaths = initExampleConfigs(false).call();
+        } catch (ProvisioningException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ProvisioningException("Failed to generate example configs", e);
+        }
+        copyExampleConfigs(configPaths);
+    }
+
+    /**
+     * Prepares the nested provisioning of the example configs.
+     *
+     * @param background  whether the example configs are generated while the configs of the installation are generated
+     * @return the nested provisioning, returns the paths of the generated example configs
+     * @throws ProvisioningException  if the nested provisioning can't be prepared
+     */
+    private Callable<List<Path>> initExampleConfigs(boolean background) throws ProvisioningException {
 
         final Path examplesTmp = runtime.getTmpPath("example-configs");
-        final ProvisioningLayoutFactory factory = runtime.getLayout().getFactory();
-        final ProgressTracker<List<Object>> examplesTracker = factory.getProgressTracker("JBEXTRACONFIGS");
+        final ProvisioningLayoutFactory mainFactory = runtime.getLayout().getFactory();
+        final ProgressTracker<List<Object>> examplesTracker = mainFactory.getProgressTracker("JBEXTRACONFIGS");
+        this.examplesTracker = examplesTracker;
+        final ProvisioningLayoutFactory factory;
+        if (background) {
+            // the trackers of the main factory are still in use by the generation of the installation configs
+            factory = ProvisioningLayoutFactory.getInstance(mainFactory.getUniverseResolver());
+            exampleConfigsLayoutFactory = factory;
+        } else {
+            factory = mainFactory;
+        }
         final List<String> trackedPhases = new ArrayList<>(List.of(ProvisioningLayoutFactory.TRACK_LAYOUT_BUILD, ProvisioningLayoutFactory.TRACK_PACKAGES,
                 TRACK_MODULES_BUILD, ProvisioningLayoutFactory.TRACK_CONFIGS));
         if (isBulkResolveArtifacts()) {
@@ -694,7 +1310,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                 .setRecordState(false)
                 .build();
 
-        List<Path> configPaths = new ArrayList<>();
+        final List<Path> configPaths = new ArrayList<>();
         final ProvisioningConfig.Builder configBuilder = ProvisioningConfig.builder();
         for(Map.Entry<FPID, ExampleFpConfigs> example : exampleConfigs.entrySet()) {
             final FeaturePackConfig.Builder fpBuilder = FeaturePackConfig.builder(example.getKey().getLocation())
@@ -733,27 +1349,49 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             }
             configBuilder.addFeaturePackDep(fpBuilder.build());
         }
+        final ProvisioningConfig config;
+        final Map<String, String> options;
         try {
-            log.verbose("Generating example configs");
-            ProvisioningConfig config = configBuilder.build();
-            Map<String, String> options = runtime.getLayout().getOptions();
-            if (!options.containsKey(OPTION_MVN_DIST.getName()) || options.containsKey(OPTION_MVN_REPO.getName())) {
-                final Map<String, String> tmp = new HashMap<>(options.size() + 1);
-                tmp.putAll(options);
-                options = tmp;
-                options.put(OPTION_MVN_DIST.getName(), null);
-                // Remove OPTION_MVN_REPO so we don't waste time populating it again
-                // as it was already populated by the main postInstall provisioning.
-                // It would be a waste of time regardless, but if jakartaTransform is true,
-                // trying to populate it again will fail provisioning
-                options.remove(OPTION_MVN_REPO.getName());
-            }
-
-            pm.provision(config, options);
+            config = configBuilder.build();
+            options = new HashMap<>(runtime.getLayout().getOptions());
+            options.put(OPTION_MVN_DIST.getName(), null);
+            // Remove OPTION_MVN_REPO so we don't waste time populating it again
+            // as it was already populated by the main postInstall provisioning.
+            // It would be a waste of time regardless, but if jakartaTransform is true,
+            // trying to populate it again will fail provisioning
+            options.remove(OPTION_MVN_REPO.getName());
+            // The example configs are generated against the modules installed by this provisioning
+            // when they don't require other packages
+            final Path exampleConfigsHome = runtime.getTmpPath("example-configs-home.txt");
+            try {
+                ExampleConfigsHome.store(exampleConfigsHome, background ? snapshotModules() : runtime.getStagedDir(), runtime);
+            } catch (IOException e) {
+                throw new ProvisioningException(Errors.writeFile(exampleConfigsHome), e);
+            }
+            options.put(OPTION_EXAMPLE_CONFIGS_HOME.getName(), exampleConfigsHome.toString());
+            if (background) {
+                // an embedded server can't be started while another one runs in this process
+                options.put(OPTION_FORK_EMBEDDED.getName(), "true");
+            }
         } catch(ProvisioningException e) {
             throw new ProvisioningException("Failed to generate example configs", e);
         }
+        return () -> {
+            final long startTime = runtime.isLogTime() ? System.nanoTime() : -1;
+            log.verbose("Generating example configs");
+            try {
+                pm.provision(config, options);
+            } catch(ProvisioningException e) {
+                throw new ProvisioningException("Failed to generate example configs", e);
+            }
+            if (startTime > 0) {
+                log.print(Errors.tookTime("Example configs generation", startTime));
+            }
+            return configPaths;
+        };
+    }
 
+    private void copyExampleConfigs(List<Path> configPaths) throws ProvisioningException {
         final Path exampleConfigsDir = runtime.getStagedDir().resolve(WfConstants.DOCS).resolve("examples").resolve("configs");
         for(Path configPath : configPaths) {
             examplesTracker.processing(Arrays.asList(TRACK_COPY_CONFIGS, configPath));
@@ -781,7 +1419,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         List<URL> urlsEmbedded = new ArrayList<>();
         List<URL> cliDependencies = new ArrayList<>();
         try {
-            MavenArtifact artifact = Utils.toArtifactCoords(mergedArtifactVersions, CONFIG_GEN_GA,
+            MavenArtifact artifact = artifactCoords.toArtifactCoords(mergedArtifactVersions, CONFIG_GEN_GA,
                     false, channelArtifactResolution, requireChannel(gaToProducer.get(CONFIG_GEN_GA)));
             artifactResolver.resolve(artifact);
             if (artifactRecorder.isPresent()) {
@@ -792,7 +1430,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             if (model == null) {
                 // This can occur in tests that rely on WildFly version that doesn't contain shaded models.
                 log.print("WARNING: defaulting to wildfly-cli:client shaded jar.");
-                artifact = Utils.toArtifactCoords(mergedArtifactVersions, WILDFLY_CLI_GA+"::client",
+                artifact = artifactCoords.toArtifactCoords(mergedArtifactVersions, WILDFLY_CLI_GA+"::client",
                     false, channelArtifactResolution, requireChannel(gaToProducer.get(WILDFLY_CLI_GA)));
                 artifactResolver.resolve(artifact);
                 urls.add(artifact.getPath().toUri().toURL());
@@ -807,7 +1445,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             cp = new URL[urls.size()];
             cp = urls.toArray(cp);
 
-            artifact = Utils.toArtifactCoords(mergedArtifactVersions, JBOSS_MODULES_GA,
+            artifact = artifactCoords.toArtifactCoords(mergedArtifactVersions, JBOSS_MODULES_GA,
                     false, channelArtifactResolution, requireChannel(gaToProducer.get(JBOSS_MODULES_GA)));
             artifactResolver.resolve(artifact);
             urlsEmbedded.add(artifact.getPath().toUri().toURL());
@@ -866,6 +1504,37 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         }
     }
 
+    /**
+     * Executes the finalizing tasks in their declaration order. The consecutive file tasks are applied in a single
+     * traversal of the staged installation instead of one traversal per task.
+     */
+    private void executeFinalizingTasks() throws ProvisioningException {
+        final List<StagedFileTask> fileTasks = new ArrayList<>();
+        for (int i = 0; i < finalizingTasks.size(); ++i) {
+            final WildFlyPackageTask task = finalizingTasks.get(i);
+            if (task instanceof StagedFileTask) {
+                fileTasks.add((StagedFileTask) task);
+                continue;
+            }
+            walkStagedDir(fileTasks);
+            task.execute(this, finalizingTasksPkgs.get(i));
+        }
+        walkStagedDir(fileTasks);
+    }
+
+    private void walkStagedDir(List<StagedFileTask> fileTasks) throws ProvisioningException {
+        if (fileTasks.isEmpty()) {
+            return;
+        }
+        final long startTime = runtime.isLogTime() ? System.nanoTime() : -1;
+        log.verbose("Applying %s file tasks to the staged installation", fileTasks.size());
+        StagedTreeWalker.walk(runtime.getStagedDir(), fileTasks);
+        fileTasks.clear();
+        if (startTime > 0) {
+            log.print(Errors.tookTime("File tasks", startTime));
+        }
+    }
+
     private void processShaded(final FeaturePackRuntime fp) throws ProvisioningException {
         for(PackageRuntime pkg : fp.getPackages()) {
             final Path pmWfDir = pkg.getResource(WfConstants.PM, WfConstants.WILDFLY);
@@ -878,8 +1547,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                     shadedPackages.put(pkg.getName(), new ShadedModel(
                             requireChannel(pkg.getFeaturePackRuntime().getFPID().getProducer()),
                             shadedDir.resolve(ShadedModel.FILE_NAME),
-                            runtime.getTmpPath(),
-                            artifactResolver, log, mergedArtifactVersions, artifactInstaller, channelArtifactResolution, artifactRecorder));
+                            artifactResolver, log, mergedArtifactVersions, artifactCoords, artifactInstaller, channelArtifactResolution, artifactRecorder));
                 } catch (IOException ex) {
                     throw new ProvisioningException(ex);
                 }
@@ -898,6 +1566,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             }
             final Path moduleDir = pmWfDir.resolve(WfConstants.MODULE);
             if(Files.exists(moduleDir)) {
+                flushFileAppenders(moduleDir);
                 processModules(pkg, moduleDir);
             }
             final Path tasksXml = pmWfDir.resolve(WfConstants.TASKS_XML);
@@ -907,6 +1576,15 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                     log.verbose("Processing %s package %s tasks", fp.getFPID(), pkg.getName());
                     for (WildFlyPackageTask task : pkgTasks.getTasks()) {
                         if (task.getPhase() == WildFlyPackageTask.Phase.PROCESSING) {
+                            if (task instanceof FileAppender) {
+                                fileAppenders.add((FileAppender) task);
+                                continue;
+                            }
+                            if (task instanceof CopyArtifact) {
+                                fileAppenders.flush(runtime.getStagedDir().resolve(((CopyArtifact) task).getToLocation()));
+                            } else {
+                                fileAppenders.flush();
+                            }
                             task.execute(this, pkg);
                         } else {
                             finalizingTasks = CollectionUtils.add(finalizingTasks, task);
@@ -926,6 +1604,9 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
                 }
 
                 final List<LineEndingsTask> processingLineEndingTasks = pkgTasks.getLineEndings().stream().filter(t -> t.getPhase() == WildFlyPackageTask.Phase.PROCESSING).collect(Collectors.toList());
+                if (!processingLineEndingTasks.isEmpty()) {
+                    fileAppenders.flush();
+                }
                 for (LineEndingsTask lineEnding : processingLineEndingTasks) {
                     lineEnding.execute(this, pkg);
                 }
@@ -940,12 +1621,15 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         if (!Files.exists(src)) {
             throw new ProvisioningException(Errors.pathDoesNotExist(src));
         }
-        // Copy the path to handle replacements
-        Path tmp = runtime.getTmpPath().resolve(src.getFileName());
+        // Replace the properties in memory, the replaced content is also kept in the installation
+        final byte[] srcContent;
         try {
-            PropertyResolver versionsResolver = new MapPropertyResolver(resolvedVersionsProperties);
-            PropertyReplacer.copy(src, tmp, versionsResolver, "Not Installed");
-            Files.copy(tmp, src, StandardCopyOption.REPLACE_EXISTING);
+            final byte[] content = Files.readAllBytes(src);
+            srcContent = replaceProperties(content, new MapPropertyResolver(resolvedVersionsProperties), "Not Installed");
+            if (srcContent != content) {
+                LinkedFiles.unlink(src);
+                Files.write(src, srcContent);
+            }
         } catch (IOException ex) {
             throw new ProvisioningException(ex);
         }
@@ -954,9 +1638,9 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             throw new ProvisioningException(Errors.pathAlreadyExists(output));
         }
 
-        try (InputStream srcInput = Files.newInputStream(src); OutputStream outStream = Files.newOutputStream(output)) {
+        try (InputStream srcInput = new ByteArrayInputStream(srcContent); OutputStream outStream = Files.newOutputStream(output)) {
             final org.w3c.dom.Document document = getXmlDocumentBuilderFactory().newDocumentBuilder().parse(srcInput);
-            final Transformer transformer = getXslTransformer(xslt.getStylesheet());
+            final Transformer transformer = getXslTransformer(runtime.getStagedDir().resolve(xslt.getStylesheet()));
             if (xslt.hasParams()) {
                 for (Map.Entry<String, String> param : xslt.getParams().entrySet()) {
                     transformer.setParameter(param.getKey(), param.getValue());
@@ -979,14 +1663,24 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         }
     }
 
-    private Transformer getXslTransformer(String stylesheet) throws ProvisioningException {
-        Transformer transformer = xslTransformers.get(stylesheet);
-        if(transformer != null) {
-            return transformer;
-        }
-        transformer = getXslTransformer(runtime.getStagedDir().resolve(stylesheet));
-        xslTransformers = CollectionUtils.put(xslTransformers, stylesheet, transformer);
-        return transformer;
+    /**
+     * Replaces the properties of a UTF-8 content.
+     *
+     * @return the replaced content or the content itself if it doesn't change
+     */
+    private static byte[] replaceProperties(byte[] content, PropertyResolver resolver, String failureReplacement) throws IOException {
+        boolean dollar = false;
+        for (int i = 0; i < content.length && !dollar; ++i) {
+            dollar = content[i] == '$';
+        }
+        if (!dollar) {
+            return content;
+        }
+        final String text = new String(content, StandardCharsets.UTF_8);
+        final StringWriter writer = new StringWriter(text.length());
+        PropertyReplacer.copy(new StringReader(text), writer, resolver, failureReplacement);
+        final String replaced = writer.toString();
+        return replaced.equals(text) ? content : replaced.getBytes(StandardCharsets.UTF_8);
     }
 
     public DocumentBuilderFactory getXmlDocumentBuilderFactory() {
@@ -1000,17 +1694,29 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         if(!Files.exists(p)) {
             throw new ProvisioningException(Errors.pathDoesNotExist(p));
         }
-        try (InputStream styleInput = Files.newInputStream(p)) {
-            final StreamSource stylesource = new StreamSource(styleInput);
-            if(xsltFactory == null) {
-                xsltFactory = TransformerFactory.newInstance();
-            }
-            return xsltFactory.newTransformer(stylesource);
+        try {
+            return xslTemplates.newTransformer(p);
         } catch (Exception e) {
             throw new ProvisioningException("Failed to initialize a transformer for " + p, e);
         }
     }
 
+    /**
+     * Applies the pending file appenders whose files are going to be overwritten by the content of a package module directory.
+     */
+    private void flushFileAppenders(Path fpModuleDir) throws ProvisioningException {
+        if (fileAppenders.isEmpty()) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(fpModuleDir)) {
+            for (Path p : stream) {
+                fileAppenders.flush(runtime.getStagedDir().resolve(p.getFileName().toString()));
+            }
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readDirectory(fpModuleDir), e);
+        }
+    }
+
     private void processModules(PackageRuntime pkg, Path fpModuleDir) throws ProvisioningException {
         try {
             final Path stagedDir = runtime.getStagedDir();
@@ -1072,6 +1778,21 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
 
         AbstractModuleTemplateProcessor processor;
         final Map<String, String> versionProps = fpArtifactVersions.get(pkg.getFeaturePackRuntime().getFPID().getProducer());
+        String fingerprint = null;
+        List<MavenArtifact> fingerprintedArtifacts = null;
+        if (moduleFingerprints != null) {
+            final List<MavenArtifact> artifacts = getFingerprintedArtifacts(moduleTemplate, versionProps,
+                    requireChannel(pkg.getFeaturePackRuntime().getFPID().getProducer()));
+            if (artifacts != null) {
+                fingerprintedArtifacts = artifacts;
+                fingerprint = getModuleFingerprint(moduleTemplateFile, moduleTemplate, artifacts, versionProps,
+                        requireChannel(pkg.getFeaturePackRuntime().getFPID().getProducer()));
+                if (reuseModule(moduleXmlRelativePath, fingerprint, artifacts)) {
+                    reusedModules.incrementAndGet();
+                    return;
+                }
+            }
+        }
         final Path targetDir = runtime.getStagedDir().resolve(moduleXmlRelativePath.toString());
         if (thinServer) {
             processor = new ThinModuleTemplateProcessor(this,
@@ -1087,6 +1808,10 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         }
         processor.process();
         moduleTemplate.store();
+        if (fingerprint != null) {
+            moduleFingerprints.put(moduleXmlRelativePath, fingerprint,
+                    ModuleFingerprints.hash(targetPath.getParent(), getModuleFileNames(moduleXmlRelativePath, fingerprintedArtifacts)));
+        }
     }
 
     public void addExampleConfigs(FeaturePackRuntime fp, ExampleFpConfigs exampleConfigs) throws ProvisioningException {
@@ -1104,14 +1829,16 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         }
     }
 
-    private void extractSchemas(Path moduleArtifact) throws IOException {
-        final Path targetSchemasDir = this.runtime.getStagedDir().resolve(WfConstants.DOCS).resolve(WfConstants.SCHEMA);
-        Files.createDirectories(targetSchemasDir);
-        try (FileSystem jarFS = FileSystems.newFileSystem(moduleArtifact, (ClassLoader) null)) {
-            final Path schemaSrc = jarFS.getPath(WfConstants.SCHEMA);
-            if (Files.exists(schemaSrc)) {
-                ZipUtils.copyFromZip(schemaSrc.toAbsolutePath(), targetSchemasDir);
-            }
+    private void awaitSchemas(boolean logTime) throws ProvisioningException {
+        try {
+            schemaExtractor.await();
+        } finally {
+            schemaExtractor.close();
+        }
+        log.verbose("Extracted schemas from %s of %s artifacts in %s ms", schemaExtractor.getArtifactsWithSchemas(),
+                schemaExtractor.getArtifactCount(), TimeUnit.NANOSECONDS.toMillis(schemaExtractor.getExtractionNanos()));
+        if (logTime && schemaExtractor.isStarted()) {
+            log.print(Errors.tookTime("Schemas extraction", schemaExtractor.getStartNanos()));
         }
     }
 
@@ -1128,20 +1855,36 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
         return requireChannel;
     }
 
+    ArtifactCoordsTable getArtifactCoords() {
+        return artifactCoords;
+    }
+
     public void assembleArtifact(AssembleShadedArtifact copyArtifact, PackageRuntime pkg) throws ProvisioningException {
         try {
             ShadedModel model = shadedPackages.get(copyArtifact.getShadedModelPackage());
             String location = copyArtifact.getToLocation();
             final Path jarTarget = runtime.getStagedDir().resolve(location);
             Files.createDirectories(jarTarget.getParent());
-            model.buildJar(jarTarget);
+            if (shadedJarCache == null) {
+                model.buildJar(jarTarget);
+                return;
+            }
+            final String key = ShadedJarCache.key(model);
+            final Path cachedJar = shadedJarCache.get(key);
+            if (cachedJar != null) {
+                log.verbose("Re-using cached shaded jar %s", cachedJar);
+                artifactInstaller.installFile(cachedJar, jarTarget);
+            } else {
+                model.buildJar(jarTarget);
+                shadedJarCache.put(key, jarTarget);
+            }
         } catch (IOException e) {
             throw new ProvisioningException("Failed to copy shaded jar " + copyArtifact.getShadedModelPackage(), e);
         }
     }
 
     public void copyArtifact(CopyArtifact copyArtifact, PackageRuntime pkg) throws ProvisioningException {
-        final MavenArtifact artifact = Utils.toArtifactCoords(copyArtifact.isFeaturePackVersion() ? fpArtifactVersions.get(pkg.getFeaturePackRuntime().getFPID().getProducer())
+        final MavenArtifact artifact = artifactCoords.toArtifactCoords(copyArtifact.isFeaturePackVersion() ? fpArtifactVersions.get(pkg.getFeaturePackRuntime().getFPID().getProducer())
                         : mergedArtifactVersions,
                 copyArtifact.getArtifact(), copyArtifact.isOptional(),
                 channelArtifactResolution, requireChannel(pkg.getFeaturePackRuntime().getFPID().getProducer()));
@@ -1179,7 +1922,7 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             } else {
                 if (artifactRecorder.isPresent()) {
                     try {
-                        artifactRecorder.get().record(artifact, jarTarget);
+                        artifactRecorder.get().record(artifact, jarTarget, jarSrc);
                     } catch (IOException e) {
                         throw new RuntimeException(e);
                     }
@@ -1189,16 +1932,16 @@ public class WfInstallPlugin extends ProvisioningPluginWithOptions implements In
             // only attempt to extract schemas if the artifact is a zip archive
             if(schemaGroups.contains(artifact.getGroupId())
                     && (artifact.getExtension().equals("jar") || artifact.getExtension().equals("zip"))) {
-                extractSchemas(jarSrc);
+                schemaExtractor.extract(jarSrc);
             }
         } catch (IOException e) {
             throw new ProvisioningException("Failed to copy artifact " + artifact, e);
         }
     }
 
-    void processSchemas(String groupId, Path artifactPath) throws IOException {
+    void processSchemas(String groupId, Path artifactPath) {
         if (schemaGroups.contains(groupId)) {
-            extractSchemas(artifactPath);
+            schemaExtractor.extract(artifactPath);
         }
     }
 
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Compiled XSL stylesheets of a provisioning, keyed by the SHA-1 of their content so that a stylesheet
+ * present in several packages is compiled once. Each transformation gets its own {@link Transformer}.
+ */
+class XslTemplates {
+
+    private final Map<String, Templates> templates = new HashMap<>();
+    private TransformerFactory factory;
+    private int hits;
+
+    /**
+     * Creates a transformer for a stylesheet, compiling the stylesheet if its content has not been compiled yet.
+     *
+     * @param stylesheet  the stylesheet
+     * @return a new transformer
+     * @throws IOException  if the stylesheet can't be read
+     * @throws TransformerConfigurationException  if the stylesheet can't be compiled
+     */
+    synchronized Transformer newTransformer(Path stylesheet) throws IOException, TransformerConfigurationException {
+        final byte[] content = Files.readAllBytes(stylesheet);
+        final String key = sha1(content);
+        Templates compiled = templates.get(key);
+        if (compiled == null) {
+            if (factory == null) {
+                factory = TransformerFactory.newInstance();
+            }
+            compiled = factory.newTemplates(new StreamSource(new ByteArrayInputStream(content)));
+            templates.put(key, compiled);
+        } else {
+            ++hits;
+        }
+        return compiled.newTransformer();
+    }
+
+    synchronized int getCompiled() {
+        return templates.size();
+    }
+
+    synchronized int getHits() {
+        return hits;
+    }
+
+    private static String sha1(byte[] content) throws IOException {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
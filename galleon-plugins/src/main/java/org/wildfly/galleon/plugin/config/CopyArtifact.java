@@ -40,6 +40,7 @@ public class CopyArtifact implements WildFlyPackageTask {
     private String toLocation;
     private boolean extract;
     private List<FileFilter> filters = Collections.emptyList();
+    private FileFilterSet filterSet = FileFilterSet.of(filters);
     private boolean optional;
     private boolean featurePackVersion;
 
@@ -60,6 +61,7 @@ public class CopyArtifact implements WildFlyPackageTask {
 
     public void addFilter(FileFilter filter) {
         filters = CollectionUtils.add(filters, filter);
+        filterSet = FileFilterSet.of(filters);
     }
 
     public String getArtifact() {
@@ -87,12 +89,7 @@ public class CopyArtifact implements WildFlyPackageTask {
     }
 
     public boolean includeFile(final String path) {
-        for(FileFilter filter : filters) {
-            if(filter.matches(path)) {
-                return filter.isInclude();
-            }
-        }
-        return true; //default include
+        return filterSet.includes(path, true);
     }
 
     public void setFeaturePackVersion() {
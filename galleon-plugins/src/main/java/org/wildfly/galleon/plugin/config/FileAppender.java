@@ -17,10 +17,8 @@
 package org.wildfly.galleon.plugin.config;
 
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -44,6 +42,7 @@ public class FileAppender implements WildFlyPackageTask {
     private String src;
     private String target;
     private String match;
+    private Pattern matchPattern;
     private boolean ignore = true;
     private boolean allMatches = true;
     private final List<String> lines = new ArrayList<>();
@@ -57,14 +56,20 @@ public class FileAppender implements WildFlyPackageTask {
     }
 
     public Pattern getMatch() {
-        if(match == null) {
-            return null;
-        }
-        return Pattern.compile(match);
+        return matchPattern;
     }
 
     public void setMatch(String match) {
         this.match = match;
+        this.matchPattern = match == null ? null : Pattern.compile(match);
+    }
+
+    String getTarget() {
+        return target;
+    }
+
+    String getSource() {
+        return src;
     }
 
     public void addLine(String line) {
@@ -97,52 +102,50 @@ public class FileAppender implements WildFlyPackageTask {
 
     @Override
     public void execute(WfInstallPlugin plugin, PackageRuntime pkg) throws ProvisioningException {
-        if(this.target == null) {
-            if(this.isIgnore()) {
-                return;
-            }
-            throw new ProvisioningException("Target can't be null when appending content");
-        }
-        final Path targetPath = plugin.getRuntime().getStagedDir().resolve(this.target);
-        if (!Files.exists(targetPath)) {
-            if(this.isIgnore()) {
-                return;
+        final FileAppenders appenders = new FileAppenders(plugin.getRuntime().getStagedDir());
+        appenders.add(this);
+        appenders.flush();
+    }
+
+    /**
+     * Adds the lines after the matching lines of the target file content.
+     *
+     * @param stagedDir  the staged installation, the source file is resolved against it
+     * @param fileLines  the lines of the target file
+     * @return the updated lines of the target file
+     * @throws ProvisioningException  if the source file doesn't exist
+     * @throws IOException  if the source file can't be read
+     */
+    List<String> append(Path stagedDir, List<String> fileLines) throws ProvisioningException, IOException {
+        if (this.src != null) {
+            final Path srcPath = stagedDir.resolve(this.src);
+            if (!Files.exists(srcPath)) {
+                throw new ProvisioningException(Errors.pathDoesNotExist(srcPath));
             }
-            throw new ProvisioningException(Errors.pathDoesNotExist(targetPath));
+            this.lines.clear();
+            this.lines.addAll(Files.readAllLines(srcPath));
         }
-        try {
-            if (this.src != null) {
-                final Path srcPath = plugin.getRuntime().getStagedDir().resolve(this.src);
-                if (!Files.exists(srcPath)) {
-                    throw new ProvisioningException(Errors.pathDoesNotExist(srcPath));
-                }
-                this.lines.clear();
-                this.lines.addAll(Files.readAllLines(srcPath));
-            }
-            List<String> fileLines = Files.readAllLines(targetPath);
-            List<String> updatedLines = new ArrayList<>(lines.size() + 3);
-            boolean found = false;
-            for (String line : fileLines) {
-                if ((allMatches || !found) && this.getMatch() != null && this.getMatch().matcher(line).find()) {
-                    if (addToMatchingLine != null && !addToMatchingLine.isEmpty()) {
-                        updatedLines.add(line + addToMatchingLine);
-                    } else {
-                        updatedLines.add(line);
-                    }
-                    for (int i = 0; i < lines.size(); i++) {
-                        updatedLines.add(lines.get(i));
-                    }
+        final Pattern pattern = getMatch();
+        List<String> updatedLines = new ArrayList<>(fileLines.size() + lines.size() + 3);
+        boolean found = false;
+        for (String line : fileLines) {
+            if ((allMatches || !found) && pattern != null && pattern.matcher(line).find()) {
+                if (addToMatchingLine != null && !addToMatchingLine.isEmpty()) {
+                    updatedLines.add(line + addToMatchingLine);
                 } else {
                     updatedLines.add(line);
                 }
+                for (int i = 0; i < lines.size(); i++) {
+                    updatedLines.add(lines.get(i));
+                }
+            } else {
+                updatedLines.add(line);
             }
-            if (this.getMatch() == null) {
-                updatedLines.addAll(lines);
-            }
-            Files.write(targetPath, updatedLines, StandardOpenOption.WRITE);
-        } catch (IOException e) {
-            throw new UncheckedIOException(String.format("Failed to append content to file %s", targetPath), e);
         }
+        if (pattern == null) {
+            updatedLines.addAll(lines);
+        }
+        return updatedLines;
     }
 
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningException;
+import org.wildfly.galleon.plugin.LinkedFiles;
+
+/**
+ * {@link FileAppender}s waiting to be applied, grouped by target file. The appenders of a target are applied in the order
+ * in which they have been added, reading and writing the target file once.
+ *
+ * The pending appenders of a target must be flushed before any other change is made to their target or source files.
+ */
+public class FileAppenders {
+
+    private final Path stagedDir;
+    private final Map<Path, List<FileAppender>> pending = new LinkedHashMap<>();
+
+    public FileAppenders(Path stagedDir) {
+        this.stagedDir = stagedDir;
+    }
+
+    /**
+     * Adds an appender.
+     *
+     * @param appender  the appender
+     * @throws ProvisioningException  if the appender has no target and can't be ignored
+     */
+    public void add(FileAppender appender) throws ProvisioningException {
+        if (appender.getTarget() == null) {
+            if (appender.isIgnore()) {
+                return;
+            }
+            throw new ProvisioningException("Target can't be null when appending content");
+        }
+        if (appender.getSource() != null) {
+            // the source has to be read once the pending appenders of the source have been applied
+            flush(stagedDir.resolve(appender.getSource()));
+        }
+        pending.computeIfAbsent(stagedDir.resolve(appender.getTarget()), t -> new ArrayList<>()).add(appender);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Applies the appenders whose target or source file is the path or is located under the path.
+     *
+     * @param path  a path that is going to be changed
+     * @throws ProvisioningException  if an appender failed
+     */
+    public void flush(Path path) throws ProvisioningException {
+        final Iterator<Map.Entry<Path, List<FileAppender>>> i = pending.entrySet().iterator();
+        while (i.hasNext()) {
+            final Map.Entry<Path, List<FileAppender>> entry = i.next();
+            if (isAffected(entry.getKey(), entry.getValue(), path)) {
+                i.remove();
+                apply(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Applies all the pending appenders.
+     *
+     * @throws ProvisioningException  if an appender failed
+     */
+    public void flush() throws ProvisioningException {
+        final Iterator<Map.Entry<Path, List<FileAppender>>> i = pending.entrySet().iterator();
+        while (i.hasNext()) {
+            final Map.Entry<Path, List<FileAppender>> entry = i.next();
+            i.remove();
+            apply(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private boolean isAffected(Path target, List<FileAppender> appenders, Path path) {
+        if (target.startsWith(path)) {
+            return true;
+        }
+        for (FileAppender appender : appenders) {
+            if (appender.getSource() != null && stagedDir.resolve(appender.getSource()).startsWith(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(Path targetPath, List<FileAppender> appenders) throws ProvisioningException {
+        List<String> fileLines = null;
+        try {
+            for (FileAppender appender : appenders) {
+                if (fileLines == null) {
+                    if (!Files.exists(targetPath)) {
+                        if (appender.isIgnore()) {
+                            continue;
+                        }
+                        throw new ProvisioningException(Errors.pathDoesNotExist(targetPath));
+                    }
+                    fileLines = Files.readAllLines(targetPath);
+                } else {
+                    // the lines as they would have been read from the file written by the previous appender
+                    fileLines = splitLines(fileLines);
+                }
+                fileLines = appender.append(stagedDir, fileLines);
+            }
+            if (fileLines != null) {
+                LinkedFiles.unlink(targetPath);
+                Files.write(targetPath, fileLines, StandardOpenOption.WRITE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to append content to file %s", targetPath), e);
+        }
+    }
+
+    private static List<String> splitLines(List<String> lines) throws IOException {
+        List<String> result = null;
+        for (int i = 0; i < lines.size(); ++i) {
+            final String line = lines.get(i);
+            if (line.indexOf('\n') < 0 && line.indexOf('\r') < 0) {
+                if (result != null) {
+                    result.add(line);
+                }
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>(lines.subList(0, i));
+            }
+            try (BufferedReader reader = new BufferedReader(new StringReader(line + System.lineSeparator()))) {
+                String split = reader.readLine();
+                while (split != null) {
+                    result.add(split);
+                    split = reader.readLine();
+                }
+            }
+        }
+        return result == null ? lines : result;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered list of {@link FileFilter}s compiled to find the first filter matching a path without evaluating
+ * the regular expression of each filter.
+ *
+ * The wildcard patterns are split in:
+ * <ul>
+ * <li>literals, looked up in a hash table</li>
+ * <li>patterns ending with a single {@code *}, looked up in a trie of prefixes</li>
+ * <li>patterns starting with a single {@code *}, looked up in a trie of reversed suffixes</li>
+ * <li>other patterns made of literals and {@code *}, matched segment by segment</li>
+ * <li>patterns using any other wildcard, matched with the regular expression of the filter</li>
+ * </ul>
+ * The last two groups are only evaluated for the filters preceding the first match found in the tables.
+ *
+ * Instances are immutable and can be shared by threads.
+ */
+public final class FileFilterSet {
+
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private static final FileFilterSet EMPTY = new FileFilterSet(Collections.emptyList());
+
+    private static final class Node {
+        private char[] chars = new char[0];
+        private Node[] children = new Node[0];
+        private int first = NONE;
+
+        Node child(char c) {
+            for (int i = 0; i < chars.length; ++i) {
+                if (chars[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(char c) {
+            Node child = child(c);
+            if (child == null) {
+                child = new Node();
+                chars = Arrays.copyOf(chars, chars.length + 1);
+                chars[chars.length - 1] = c;
+                children = Arrays.copyOf(children, children.length + 1);
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+
+    private static final class Glob {
+        private final int index;
+        private final String[] segments;
+
+        Glob(int index, String pattern) {
+            this.index = index;
+            this.segments = pattern.split("\\*", -1);
+        }
+
+        boolean matches(String path) {
+            final String prefix = segments[0];
+            final String suffix = segments[segments.length - 1];
+            if (path.length() < prefix.length() + suffix.length() || !path.startsWith(prefix) || !path.endsWith(suffix)) {
+                return false;
+            }
+            int from = prefix.length();
+            final int to = path.length() - suffix.length();
+            for (int i = 1; i < segments.length - 1; ++i) {
+                final String segment = segments[i];
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                final int found = path.indexOf(segment, from);
+                if (found < 0 || found + segment.length() > to) {
+                    return false;
+                }
+                from = found + segment.length();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Compiles a list of filters.
+     *
+     * @param filters  the filters, in the order in which they are evaluated
+     * @return the compiled filters
+     */
+    public static FileFilterSet of(List<FileFilter> filters) {
+        return filters.isEmpty() ? EMPTY : new FileFilterSet(filters);
+    }
+
+    private final List<FileFilter> filters;
+    private final Map<String, Integer> literals = new HashMap<>();
+    private final Node prefixes = new Node();
+    private final Node suffixes = new Node();
+    private final List<Glob> globs = new ArrayList<>();
+    private final List<Integer> regexps = new ArrayList<>();
+
+    private FileFilterSet(List<FileFilter> filters) {
+        this.filters = filters;
+        for (int i = 0; i < filters.size(); ++i) {
+            final String pattern = filters.get(i).getPattern();
+            if (pattern.indexOf('?') >= 0 || pattern.indexOf('\\') >= 0 || pattern.indexOf('|') >= 0) {
+                // not a plain wildcard, keep the regular expression semantics
+                regexps.add(i);
+                continue;
+            }
+            final int star = pattern.indexOf('*');
+            if (star < 0) {
+                literals.putIfAbsent(pattern, i);
+            } else if (star == pattern.length() - 1) {
+                Node node = prefixes;
+                for (int c = 0; c < star; ++c) {
+                    node = node.addChild(pattern.charAt(c));
+                }
+                node.first = Math.min(node.first, i);
+            } else if (star == 0 && pattern.indexOf('*', 1) < 0) {
+                Node node = suffixes;
+                for (int c = pattern.length() - 1; c > 0; --c) {
+                    node = node.addChild(pattern.charAt(c));
+                }
+                node.first = Math.min(node.first, i);
+            } else {
+                globs.add(new Glob(i, pattern));
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the first filter matching a path.
+     *
+     * @param path  the path
+     * @return the index of the first matching filter or -1 if no filter matches the path
+     */
+    public int firstMatch(String path) {
+        int first = NONE;
+        final Integer literal = literals.get(path);
+        if (literal != null) {
+            first = literal;
+        }
+        Node node = prefixes;
+        first = Math.min(first, node.first);
+        for (int i = 0; i < path.length() && node != null; ++i) {
+            node = node.child(path.charAt(i));
+            if (node != null) {
+                first = Math.min(first, node.first);
+            }
+        }
+        node = suffixes;
+        first = Math.min(first, node.first);
+        for (int i = path.length() - 1; i >= 0 && node != null; --i) {
+            node = node.child(path.charAt(i));
+            if (node != null) {
+                first = Math.min(first, node.first);
+            }
+        }
+        for (Glob glob : globs) {
+            if (glob.index >= first) {
+                break;
+            }
+            if (glob.matches(path)) {
+                first = glob.index;
+                break;
+            }
+        }
+        for (int index : regexps) {
+            if (index >= first) {
+                break;
+            }
+            if (filters.get(index).matches(path)) {
+                first = index;
+                break;
+            }
+        }
+        return first == NONE ? -1 : first;
+    }
+
+    /**
+     * Whether any filter matches a path.
+     *
+     * @param path  the path
+     * @return true if at least one filter matches the path
+     */
+    public boolean matches(String path) {
+        return firstMatch(path) >= 0;
+    }
+
+    /**
+     * Whether a path is included, according to the first filter matching the path.
+     *
+     * @param path  the path
+     * @param defaultInclude  whether a path not matched by any filter is included
+     * @return true if the path is included
+     */
+    public boolean includes(String path, boolean defaultInclude) {
+        final int first = firstMatch(path);
+        return first < 0 ? defaultInclude : filters.get(first).isInclude();
+    }
+
+    public List<FileFilter> getFilters() {
+        return filters;
+    }
+}
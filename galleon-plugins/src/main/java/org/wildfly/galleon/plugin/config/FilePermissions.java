@@ -18,26 +18,22 @@
 package org.wildfly.galleon.plugin.config;
 
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.List;
 
 import org.jboss.galleon.ProvisioningException;
-import org.jboss.galleon.runtime.PackageRuntime;
 import org.jboss.galleon.util.CollectionUtils;
 import org.jboss.galleon.util.PropertyUtils;
-import org.wildfly.galleon.plugin.WfInstallPlugin;
-import org.wildfly.galleon.plugin.WildFlyPackageTask;
+import org.wildfly.galleon.plugin.LinkedFiles;
+import org.wildfly.galleon.plugin.StagedFileTask;
 
 /**
  *
  * @author Alexey Loubyansky
  */
-public class FilePermissions implements WildFlyPackageTask {
+public class FilePermissions implements StagedFileTask {
 
     private Phase phase = Phase.PROCESSING;
     private List<FilePermission> permissions = Collections.emptyList();
@@ -56,39 +52,29 @@ public class FilePermissions implements WildFlyPackageTask {
     }
 
     @Override
-    public void execute(WfInstallPlugin plugin, PackageRuntime pkg) throws ProvisioningException {
-        if(PropertyUtils.isWindows()) {
-            return;
-        }
+    public boolean isEnabled() {
+        return !PropertyUtils.isWindows();
+    }
 
-        try {
-            final Path installDir = plugin.getRuntime().getStagedDir();
-            Files.walkFileTree(installDir, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    final String relative = installDir.relativize(dir).toString();
-                    for (FilePermission perm : permissions) {
-                        if (perm.includeFile(relative)) {
-                            Files.setPosixFilePermissions(dir, perm.getPermission());
-                            continue;
-                        }
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    final String relative = installDir.relativize(file).toString();
-                    for (FilePermission perm : permissions) {
-                        if (perm.includeFile(relative)) {
-                            Files.setPosixFilePermissions(file, perm.getPermission());
-                            continue;
-                        }
+    @Override
+    public void visitDirectory(Path dir, String relative) throws ProvisioningException {
+        visitFile(dir, relative);
+    }
+
+    @Override
+    public void visitFile(Path file, String relative) throws ProvisioningException {
+        for (FilePermission perm : permissions) {
+            if (perm.includeFile(relative)) {
+                try {
+                    // the permissions of a linked file are shared with the file it is linked to
+                    if (!perm.getPermission().equals(Files.getPosixFilePermissions(file))) {
+                        LinkedFiles.unlink(file);
+                        Files.setPosixFilePermissions(file, perm.getPermission());
                     }
-                    return FileVisitResult.CONTINUE;
+                } catch (IOException e) {
+                    throw new ProvisioningException("Failed to set file permissions", e);
                 }
-            });
-        } catch (IOException e) {
-            throw new ProvisioningException("Failed to set file permissions", e);
+            }
         }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2018 Red Hat, Inc. and/or its affiliates
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
  * and other contributors as indicated by the @author tags.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
@@ -47,6 +48,7 @@ public class XmlMerge implements WildFlyPackageTask {
 
     private String basedir;
     private List<FileFilter> filters = Collections.emptyList();
+    private FileFilterSet filterSet = FileFilterSet.of(filters);
     private String output;
 
     public XmlMerge() {
@@ -62,15 +64,11 @@ public class XmlMerge implements WildFlyPackageTask {
 
     public void addFilter(FileFilter filter) {
         filters = CollectionUtils.add(filters, filter);
+        filterSet = FileFilterSet.of(filters);
     }
 
     public boolean includeFile(final String path) {
-        for(FileFilter filter : filters) {
-            if(filter.matches(path)) {
-                return filter.isInclude();
-            }
-        }
-        return false; //default include
+        return filterSet.includes(path, false);
     }
 
     @Override
@@ -105,10 +103,8 @@ public class XmlMerge implements WildFlyPackageTask {
             return;
         }
 
-        final String fileList = includedFiles.stream()
-                .sorted()
-                .map(p -> p.toUri().toString())
-                .collect(Collectors.joining(","));
+        includedFiles.sort(null);
+        final Path mergedXml = plugin.getRuntime().getStagedDir().resolve(output);
 
         final Path pmWf = pkg.getResource(WfConstants.PM, WfConstants.WILDFLY);
         final Path mergerXsl = pmWf.resolve("merger.xsl");
@@ -116,7 +112,25 @@ public class XmlMerge implements WildFlyPackageTask {
             throw new ProvisioningException(Errors.pathDoesNotExist(mergerXsl));
         }
 
-        final Path mergedXml = plugin.getRuntime().getStagedDir().resolve(output);
+        // a stylesheet that only appends elements and overrides attributes is applied by streaming the files
+        final XmlStreamMerge streamMerge;
+        try {
+            streamMerge = XmlStreamMerge.of(mergerXsl);
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(mergerXsl), e);
+        }
+        if(streamMerge != null) {
+            try {
+                streamMerge.merge(includedFiles, mergedXml);
+            } catch (IOException | XMLStreamException e) {
+                throw new ProvisioningException("Failed to merge " + includedFiles + " into " + mergedXml, e);
+            }
+            return;
+        }
+
+        final String fileList = includedFiles.stream()
+                .map(p -> p.toUri().toString())
+                .collect(Collectors.joining(","));
 
         try(OutputStream out = Files.newOutputStream(mergedXml)) {
             final Transformer transformer = plugin.getXslTransformer(mergerXsl);
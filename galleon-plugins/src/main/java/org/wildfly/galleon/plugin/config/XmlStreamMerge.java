@@ -0,0 +1,666 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Streaming implementation of the merger stylesheets of {@link XmlMerge} that only append elements and override attributes.
+ *
+ * A merger stylesheet is streamed when it only contains parameters, an XML output without indentation and a template
+ * matching the root that builds literal result elements. The literal result elements have no attributes, contain text,
+ * literal result elements and iterations over the tokenized {@code fileList} parameter containing:
+ * <ul>
+ * <li>{@code <xsl:copy-of select="document(.)/a/b/@*"/>}, the attributes of the selected elements are added to the literal
+ * result element, the attributes of the last documents overriding the previous ones. These iterations have to precede the
+ * content of the literal result element.</li>
+ * <li>{@code <xsl:copy-of select="document(.)/a/b/*"/>}, {@code document(.)/a/b/node()} or {@code document(.)/a/b/c}, the
+ * selected children of the selected elements are appended to the literal result element.</li>
+ * </ul>
+ * Such a stylesheet is applied by streaming the merged documents once per {@code xsl:copy-of}, without building them in memory.
+ * Any other stylesheet is applied with XSLT.
+ */
+class XmlStreamMerge {
+
+    private static final String XSL_NAMESPACE = "http://www.w3.org/1999/XSL/Transform";
+    private static final String EXSLT_STRINGS = "http://exslt.org/strings";
+    private static final String NCNAME = "[A-Za-z_][\\w.-]*";
+    private static final String QNAME = "(?:" + NCNAME + ":)?" + NCNAME;
+    private static final Pattern TOKENIZE = Pattern.compile(
+            "\\s*(?:(" + NCNAME + "):)?tokenize\\(\\s*\\$fileList\\s*,\\s*(['\"]),\\2\\s*\\)\\s*");
+    private static final Pattern SELECT = Pattern.compile(
+            "\\s*document\\(\\s*\\.\\s*\\)((?:/" + QNAME + ")+)/(\\*|node\\(\\)|@\\*|" + QNAME + ")\\s*");
+    private static final Set<String> STYLESHEET_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            "version", "id", "exclude-result-prefixes", "extension-element-prefixes"));
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    /**
+     * The selected nodes of an {@code xsl:copy-of}.
+     */
+    private static class Selection {
+        static final int ATTRIBUTES = 0;
+        static final int ELEMENTS = 1;
+        static final int NODES = 2;
+
+        final List<QName> path;
+        final int kind;
+        // the name of the selected elements, null for all the elements
+        final QName name;
+
+        Selection(List<QName> path, int kind, QName name) {
+            this.path = path;
+            this.kind = kind;
+            this.name = name;
+        }
+    }
+
+    /**
+     * A literal result element.
+     */
+    private static class LiteralElement {
+        final QName name;
+        final Map<String, String> namespaces;
+        // the iterations copying attributes
+        final List<List<Selection>> attributes = new ArrayList<>();
+        // the text, the literal result elements and the iterations copying nodes
+        final List<Object> content = new ArrayList<>();
+
+        LiteralElement(QName name, Map<String, String> namespaces) {
+            this.name = name;
+            this.namespaces = namespaces;
+        }
+    }
+
+    /**
+     * Returns the streaming implementation of a merger stylesheet.
+     *
+     * @param mergerXsl  the merger stylesheet
+     * @return the streaming implementation of the stylesheet or null if the stylesheet has to be applied with XSLT
+     * @throws IOException  in case the stylesheet can't be read
+     */
+    static XmlStreamMerge of(Path mergerXsl) throws IOException {
+        try (InputStream in = Files.newInputStream(mergerXsl)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                reader.nextTag();
+                final LiteralElement root = new StylesheetParser(reader).parseStylesheet();
+                return root == null ? null : new XmlStreamMerge(root);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // the XSLT processor reports the invalid stylesheets
+            return null;
+        }
+    }
+
+    /**
+     * Reads the streamable subset of XSLT.
+     */
+    private static class StylesheetParser {
+
+        private final XMLStreamReader reader;
+        private final Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+        private final Set<String> excludedPrefixes = new HashSet<>();
+        private boolean xslt2;
+
+        private StylesheetParser(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        private LiteralElement parseStylesheet() throws XMLStreamException {
+            if (!isXsl("stylesheet") && !isXsl("transform")) {
+                return null;
+            }
+            for (int i = 0; i < reader.getAttributeCount(); ++i) {
+                final String namespace = reader.getAttributeNamespace(i);
+                if (namespace != null && !namespace.isEmpty()) {
+                    // ignored by the XSLT processors
+                    continue;
+                }
+                final String name = reader.getAttributeLocalName(i);
+                if (!STYLESHEET_ATTRIBUTES.contains(name)) {
+                    return null;
+                }
+                if (name.endsWith("-prefixes")) {
+                    for (String prefix : reader.getAttributeValue(i).trim().split("\\s+")) {
+                        excludedPrefixes.add("#default".equals(prefix) ? "" : prefix);
+                    }
+                } else if (name.equals("version")) {
+                    xslt2 = !reader.getAttributeValue(i).trim().startsWith("1.");
+                }
+            }
+            pushNamespaces();
+            LiteralElement root = null;
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                pushNamespaces();
+                if (isXsl("param")) {
+                    skipElement();
+                } else if (isXsl("output")) {
+                    if (!isXmlOutput()) {
+                        return null;
+                    }
+                    skipElement();
+                } else if (isXsl("template") && root == null && isRootTemplate()) {
+                    if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+                        return null;
+                    }
+                    root = parseLiteralElement();
+                    if (root == null || reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+                namespaces.pop();
+            }
+            return root;
+        }
+
+        private boolean isXmlOutput() {
+            for (int i = 0; i < reader.getAttributeCount(); ++i) {
+                final String value = reader.getAttributeValue(i).trim();
+                switch (reader.getAttributeLocalName(i)) {
+                    case "method":
+                        if (!value.equals("xml")) {
+                            return false;
+                        }
+                        break;
+                    case "indent":
+                        if (!value.equals("no")) {
+                            return false;
+                        }
+                        break;
+                    case "encoding":
+                        if (!value.equalsIgnoreCase("UTF-8")) {
+                            return false;
+                        }
+                        break;
+                    case "version":
+                        if (!value.equals("1.0")) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isRootTemplate() {
+            return reader.getAttributeCount() == 1 && reader.getAttributeLocalName(0).equals("match")
+                    && reader.getAttributeValue(0).trim().equals("/");
+        }
+
+        /**
+         * Parses a literal result element, the reader being positioned on its start, its end once parsed.
+         */
+        private LiteralElement parseLiteralElement() throws XMLStreamException {
+            if (reader.getAttributeCount() > 0) {
+                return null;
+            }
+            pushNamespaces();
+            final Map<String, String> resultNamespaces = new LinkedHashMap<>();
+            for (Map<String, String> scope : namespaces) {
+                for (Map.Entry<String, String> ns : scope.entrySet()) {
+                    if (!excludedPrefixes.contains(ns.getKey()) && !XSL_NAMESPACE.equals(ns.getValue())) {
+                        resultNamespaces.putIfAbsent(ns.getKey(), ns.getValue());
+                    }
+                }
+            }
+            final LiteralElement element = new LiteralElement(reader.getName(), resultNamespaces);
+            final StringBuilder text = new StringBuilder();
+            while (true) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        text.append(reader.getText());
+                        break;
+                    case XMLStreamConstants.START_ELEMENT:
+                        addText(element, text);
+                        if (isXsl("for-each")) {
+                            final List<Selection> selections = parseForEach();
+                            if (selections == null) {
+                                return null;
+                            }
+                            if (selections.get(0).kind != Selection.ATTRIBUTES) {
+                                element.content.add(selections);
+                            } else if (element.content.isEmpty()) {
+                                element.attributes.add(selections);
+                            } else {
+                                // the attributes are not added once the element has content
+                                return null;
+                            }
+                        } else if (XSL_NAMESPACE.equals(reader.getNamespaceURI())) {
+                            return null;
+                        } else {
+                            final LiteralElement child = parseLiteralElement();
+                            if (child == null) {
+                                return null;
+                            }
+                            element.content.add(child);
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        addText(element, text);
+                        namespaces.pop();
+                        return element;
+                    case XMLStreamConstants.COMMENT:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        break;
+                    default:
+                        return null;
+                }
+            }
+        }
+
+        private static void addText(LiteralElement element, StringBuilder text) {
+            // the white space text nodes are stripped from the stylesheet
+            if (!text.toString().trim().isEmpty()) {
+                element.content.add(text.toString());
+            }
+            text.setLength(0);
+        }
+
+        /**
+         * Parses the copies of an iteration over the tokenized file list, they either all copy attributes or all copy nodes.
+         */
+        private List<Selection> parseForEach() throws XMLStreamException {
+            if (reader.getAttributeCount() != 1 || !reader.getAttributeLocalName(0).equals("select")) {
+                return null;
+            }
+            final Matcher tokenize = TOKENIZE.matcher(reader.getAttributeValue(0));
+            if (!tokenize.matches()) {
+                return null;
+            }
+            if (tokenize.group(1) == null ? !xslt2 : !EXSLT_STRINGS.equals(reader.getNamespaceURI(tokenize.group(1)))) {
+                return null;
+            }
+            final List<Selection> selections = new ArrayList<>();
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (!isXsl("copy-of") || reader.getAttributeCount() != 1 || !reader.getAttributeLocalName(0).equals("select")) {
+                    return null;
+                }
+                final Selection selection = parseSelection(reader.getAttributeValue(0));
+                if (selection == null || !selections.isEmpty()
+                        && (selection.kind == Selection.ATTRIBUTES) != (selections.get(0).kind == Selection.ATTRIBUTES)) {
+                    return null;
+                }
+                selections.add(selection);
+                if (reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+                    return null;
+                }
+            }
+            return selections.isEmpty() ? null : selections;
+        }
+
+        private Selection parseSelection(String select) {
+            final Matcher matcher = SELECT.matcher(select);
+            if (!matcher.matches()) {
+                return null;
+            }
+            final List<QName> path = new ArrayList<>();
+            for (String step : matcher.group(1).substring(1).split("/")) {
+                final QName name = toQName(step);
+                if (name == null) {
+                    return null;
+                }
+                path.add(name);
+            }
+            final String test = matcher.group(2);
+            switch (test) {
+                case "@*":
+                    return new Selection(path, Selection.ATTRIBUTES, null);
+                case "*":
+                    return new Selection(path, Selection.ELEMENTS, null);
+                case "node()":
+                    return new Selection(path, Selection.NODES, null);
+                default:
+                    final QName name = toQName(test);
+                    return name == null ? null : new Selection(path, Selection.ELEMENTS, name);
+            }
+        }
+
+        /**
+         * @return the expanded name of an XPath name test, an unprefixed name being in no namespace
+         */
+        private QName toQName(String name) {
+            final int colon = name.indexOf(':');
+            if (colon < 0) {
+                return new QName(name);
+            }
+            final String namespace = reader.getNamespaceURI(name.substring(0, colon));
+            return namespace == null ? null : new QName(namespace, name.substring(colon + 1));
+        }
+
+        private boolean isXsl(String localName) {
+            return XSL_NAMESPACE.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+        }
+
+        private void pushNamespaces() {
+            final Map<String, String> declared = new LinkedHashMap<>();
+            for (int i = 0; i < reader.getNamespaceCount(); ++i) {
+                final String prefix = reader.getNamespacePrefix(i);
+                declared.put(prefix == null ? "" : prefix, reader.getNamespaceURI(i) == null ? "" : reader.getNamespaceURI(i));
+            }
+            namespaces.push(declared);
+        }
+
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        ++depth;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        --depth;
+                        break;
+                }
+            }
+        }
+    }
+
+    private final LiteralElement root;
+
+    private XmlStreamMerge(LiteralElement root) {
+        this.root = root;
+    }
+
+    /**
+     * Merges the documents into the target file.
+     *
+     * @param files  the documents to merge, in the order of the file list of the stylesheet
+     * @param target  the merged document
+     * @throws IOException  in case the documents can't be read or the target can't be written
+     * @throws XMLStreamException  in case a document can't be parsed
+     */
+    void merge(List<Path> files, Path target) throws IOException, XMLStreamException {
+        // the target may be one of the merged documents
+        final Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                final XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+                try {
+                    writer.writeStartDocument("UTF-8", "1.0");
+                    new Output(files, writer).write(root);
+                    writer.writeEndDocument();
+                } finally {
+                    writer.close();
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Writes the merged document, the namespace declarations already in scope are not repeated.
+     */
+    private static class Output {
+
+        private final List<Path> files;
+        private final XMLStreamWriter writer;
+        private final Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+
+        private Output(List<Path> files, XMLStreamWriter writer) {
+            this.files = files;
+            this.writer = writer;
+        }
+
+        private void write(LiteralElement element) throws IOException, XMLStreamException {
+            final Map<QName, Attribute> attributes = new LinkedHashMap<>();
+            for (List<Selection> selections : element.attributes) {
+                for (Path file : files) {
+                    for (Selection selection : selections) {
+                        copy(file, selection, attributes);
+                    }
+                }
+            }
+            writeStartElement(element.name, element.namespaces, attributes.values().iterator());
+            for (Object content : element.content) {
+                if (content instanceof String) {
+                    writer.writeCharacters((String) content);
+                } else if (content instanceof LiteralElement) {
+                    write((LiteralElement) content);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    final List<Selection> selections = (List<Selection>) content;
+                    for (Path file : files) {
+                        for (Selection selection : selections) {
+                            copy(file, selection, null);
+                        }
+                    }
+                }
+            }
+            writeEndElement();
+        }
+
+        /**
+         * Streams a document copying the selected nodes to the output or the selected attributes to the map.
+         */
+        private void copy(Path file, Selection selection, Map<QName, Attribute> attributes) throws IOException, XMLStreamException {
+            final int parentDepth = selection.path.size();
+            try (InputStream in = Files.newInputStream(file)) {
+                final XMLEventReader reader = XML_INPUT_FACTORY.createXMLEventReader(in);
+                try {
+                    final Deque<Map<String, String>> inScope = new ArrayDeque<>();
+                    int depth = 0;
+                    // the number of the ancestors of the current node matching the path
+                    int matching = 0;
+                    while (reader.hasNext()) {
+                        final XMLEvent event = reader.nextEvent();
+                        final boolean selectedParent = depth == parentDepth && matching == parentDepth;
+                        switch (event.getEventType()) {
+                            case XMLStreamConstants.START_ELEMENT: {
+                                final StartElement start = event.asStartElement();
+                                if (selectedParent && (selection.kind == Selection.NODES
+                                        || selection.kind == Selection.ELEMENTS
+                                        && (selection.name == null || selection.name.equals(start.getName())))) {
+                                    copyElement(start, reader, inScope);
+                                    break;
+                                }
+                                ++depth;
+                                inScope.push(getNamespaces(start));
+                                if (matching == depth - 1 && depth <= parentDepth && selection.path.get(depth - 1).equals(start.getName())) {
+                                    matching = depth;
+                                    if (depth == parentDepth && attributes != null) {
+                                        final Iterator<Attribute> i = start.getAttributes();
+                                        while (i.hasNext()) {
+                                            final Attribute attribute = i.next();
+                                            attributes.put(attribute.getName(), attribute);
+                                        }
+                                    }
+                                }
+                                break;
+                            }
+                            case XMLStreamConstants.END_ELEMENT:
+                                if (matching == depth) {
+                                    --matching;
+                                }
+                                --depth;
+                                inScope.pop();
+                                break;
+                            default:
+                                if (selectedParent && selection.kind == Selection.NODES) {
+                                    copyNode(event);
+                                }
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        }
+
+        /**
+         * Copies an element and its content with the namespaces in scope in the source document.
+         */
+        private void copyElement(StartElement start, XMLEventReader reader, Deque<Map<String, String>> inScope) throws XMLStreamException {
+            final Map<String, String> copied = new LinkedHashMap<>(getNamespaces(start));
+            for (Map<String, String> scope : inScope) {
+                for (Map.Entry<String, String> ns : scope.entrySet()) {
+                    copied.putIfAbsent(ns.getKey(), ns.getValue());
+                }
+            }
+            writeStartElement(start.getName(), copied, start.getAttributes());
+            int depth = 1;
+            while (depth > 0) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    ++depth;
+                    writeStartElement(event.asStartElement().getName(), getNamespaces(event.asStartElement()),
+                            event.asStartElement().getAttributes());
+                } else if (event.isEndElement()) {
+                    --depth;
+                    writeEndElement();
+                } else {
+                    copyNode(event);
+                }
+            }
+        }
+
+        private void copyNode(XMLEvent event) throws XMLStreamException {
+            switch (event.getEventType()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    writer.writeCharacters(event.asCharacters().getData());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    writer.writeComment(((Comment) event).getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION: {
+                    final ProcessingInstruction pi = (ProcessingInstruction) event;
+                    if (pi.getData() == null || pi.getData().isEmpty()) {
+                        writer.writeProcessingInstruction(pi.getTarget());
+                    } else {
+                        writer.writeProcessingInstruction(pi.getTarget(), pi.getData());
+                    }
+                    break;
+                }
+            }
+        }
+
+        private void writeStartElement(QName name, Map<String, String> namespaces, Iterator<Attribute> attributes) throws XMLStreamException {
+            final List<Attribute> attributeList = new ArrayList<>();
+            final Map<String, String> required = new LinkedHashMap<>();
+            required.put(name.getPrefix(), name.getNamespaceURI());
+            required.putAll(namespaces);
+            while (attributes.hasNext()) {
+                final Attribute attribute = attributes.next();
+                attributeList.add(attribute);
+                if (!attribute.getName().getPrefix().isEmpty()) {
+                    required.putIfAbsent(attribute.getName().getPrefix(), attribute.getName().getNamespaceURI());
+                }
+            }
+            writer.writeStartElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+            final Map<String, String> declared = new LinkedHashMap<>();
+            for (Map.Entry<String, String> ns : required.entrySet()) {
+                final String prefix = ns.getKey();
+                final String uri = ns.getValue();
+                if (XMLConstants.XML_NS_PREFIX.equals(prefix) || !prefix.isEmpty() && uri.isEmpty() || uri.equals(getNamespaceURI(prefix))) {
+                    continue;
+                }
+                if (prefix.isEmpty()) {
+                    writer.writeDefaultNamespace(uri);
+                } else {
+                    writer.writeNamespace(prefix, uri);
+                }
+                declared.put(prefix, uri);
+            }
+            this.namespaces.push(declared);
+            for (Attribute attribute : attributeList) {
+                final QName attrName = attribute.getName();
+                if (attrName.getNamespaceURI().isEmpty()) {
+                    writer.writeAttribute(attrName.getLocalPart(), attribute.getValue());
+                } else {
+                    writer.writeAttribute(attrName.getPrefix(), attrName.getNamespaceURI(), attrName.getLocalPart(), attribute.getValue());
+                }
+            }
+        }
+
+        private void writeEndElement() throws XMLStreamException {
+            writer.writeEndElement();
+            namespaces.pop();
+        }
+
+        private String getNamespaceURI(String prefix) {
+            for (Map<String, String> scope : namespaces) {
+                final String uri = scope.get(prefix);
+                if (uri != null) {
+                    return uri;
+                }
+            }
+            return prefix.isEmpty() ? "" : null;
+        }
+    }
+
+    private static Map<String, String> getNamespaces(StartElement start) {
+        final Map<String, String> namespaces = new LinkedHashMap<>();
+        final Iterator<Namespace> i = start.getNamespaces();
+        while (i.hasNext()) {
+            final Namespace namespace = i.next();
+            namespaces.put(namespace.getPrefix(), namespace.getNamespaceURI());
+        }
+        return namespaces.isEmpty() ? Collections.emptyMap() : namespaces;
+    }
+}
@@ -22,6 +22,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -91,6 +92,21 @@ public class ForkedEmbeddedUtil {
     }
 
     public static void fork(ForkCallback callback, boolean debug, Path props, String... args) throws ProvisioningException {
+        start(callback, debug, props, args).waitFor();
+    }
+
+    /**
+     * Starts a forked embedded process without waiting for its completion. The process can be fed through its standard input
+     * while its output is consumed in the background.
+     *
+     * @param callback  the callback executed in the forked process
+     * @param debug  whether the output of the forked process should be printed
+     * @param props  the system properties of the forked process
+     * @param args  the arguments of the callback
+     * @return the forked process
+     * @throws ProvisioningException  if the process failed to start
+     */
+    public static ForkedProcess start(ForkCallback callback, boolean debug, Path props, String... args) throws ProvisioningException {
         // prepare the classpath
         final StringBuilder cp = new StringBuilder();
         collectCpUrls(getJavaHome(), Thread.currentThread().getContextClassLoader(), cp);
@@ -116,29 +132,78 @@ public class ForkedEmbeddedUtil {
         } catch (IOException e) {
             throw new ProvisioningException("Failed to start a feature spec reading process", e);
         }
+        return new ForkedProcess(p, callback, debug);
+    }
 
-        List<String> exceptionTrace = null;
-        List<String> allTraces = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-            String line = reader.readLine();
-            while (line != null) {
-                callback.forkedEmbeddedMessage(line);
-                allTraces.add(line);
-                if(exceptionTrace != null) {
-                    exceptionTrace.add(line);
-                } else if(FORKED_EMBEDDED_ERROR_START.equals(line)) {
-                    exceptionTrace = new ArrayList<>();
-                }
-                line = reader.readLine();
-            }
-            if (p.isAlive()) {
-                try {
-                    p.waitFor();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+    /**
+     * A forked embedded process. Its output is consumed by a background thread.
+     */
+    public static class ForkedProcess {
+
+        private final Process p;
+        private final ForkCallback callback;
+        private final boolean debug;
+        private final Thread outputReader;
+        private final List<String> allTraces = new ArrayList<>();
+        private List<String> exceptionTrace;
+        private IOException readFailure;
+
+        private ForkedProcess(Process p, ForkCallback callback, boolean debug) {
+            this.p = p;
+            this.callback = callback;
+            this.debug = debug;
+            outputReader = new Thread(this::readOutput, "forked-embedded-output");
+            outputReader.setDaemon(true);
+            outputReader.start();
+        }
+
+        private void readOutput() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                while (line != null) {
+                    callback.forkedEmbeddedMessage(line);
+                    allTraces.add(line);
+                    if(exceptionTrace != null) {
+                        exceptionTrace.add(line);
+                    } else if(FORKED_EMBEDDED_ERROR_START.equals(line)) {
+                        exceptionTrace = new ArrayList<>();
+                    }
+                    line = reader.readLine();
                 }
+            } catch (IOException e) {
+                readFailure = e;
             }
+        }
+
+        /**
+         * @return the standard input of the forked process
+         */
+        public OutputStream getInput() {
+            return p.getOutputStream();
+        }
 
+        /**
+         * Closes the standard input of the forked process and waits for its completion.
+         *
+         * @throws ProvisioningException  if the forked process has failed
+         */
+        public void waitFor() throws ProvisioningException {
+            try {
+                p.getOutputStream().close();
+            } catch (IOException e) {
+                // the process has already exited
+            }
+            try {
+                outputReader.join();
+                p.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                p.destroyForcibly();
+                throw new ProvisioningException("Interrupted while waiting for the forked embedded process", e);
+            }
+            if (readFailure != null) {
+                throw new ProvisioningException("Forked embedded process has failed", readFailure);
+            }
             int exitCode = p.exitValue();
             if (exitCode != 0) {
                 Throwable t = null;
@@ -158,8 +223,13 @@ public class ForkedEmbeddedUtil {
                     }
                 }
             }
-        } catch (IOException e) {
-            throw new ProvisioningException("Forked embedded process has failed", e);
+        }
+
+        /**
+         * Kills the forked process.
+         */
+        public void destroy() {
+            p.destroyForcibly();
         }
     }
 
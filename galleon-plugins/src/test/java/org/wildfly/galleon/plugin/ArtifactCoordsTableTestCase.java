@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArtifactCoordsTableTestCase {
+
+    @Test
+    public void testLookups() throws Exception {
+        final Map<String, String> versionProps = new HashMap<>();
+        versionProps.put("grpId:artId", "grpId:artId:1.0.0.Final");
+        versionProps.put("grpId:other::linux", "grpId:other:2.0.0.Final:linux");
+        final ArtifactCoordsTable table = new ArtifactCoordsTable();
+
+        final MavenArtifact first = table.toArtifactCoords(versionProps, "grpId:artId", false, false, false);
+        final MavenArtifact second = table.toArtifactCoords(versionProps, "grpId:artId", false, false, false);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(first.getCoordsAsString(), second.getCoordsAsString());
+        Assert.assertEquals("1.0.0.Final", second.getVersion());
+        Assert.assertEquals("jar", second.getExtension());
+        // the returned artifacts are updated by the callers
+        first.setVersion("3.0.0.Final");
+        Assert.assertEquals("1.0.0.Final", table.toArtifactCoords(versionProps, "grpId:artId", false, false, false).getVersion());
+
+        final MavenArtifact classified = table.toArtifactCoords(versionProps, "grpId:other::linux", false, false, false);
+        Assert.assertEquals("linux", classified.getClassifier());
+        Assert.assertEquals("2.0.0.Final", classified.getVersion());
+
+        Assert.assertNull(table.toArtifactCoords(versionProps, "grpId:unknown", true, false, false));
+        Assert.assertNull(table.toArtifactCoords(versionProps, "grpId:unknown", true, false, false));
+
+        // a different map of version properties is a different entry
+        final Map<String, String> otherProps = new HashMap<>();
+        otherProps.put("grpId:artId", "grpId:artId:1.1.0.Final");
+        Assert.assertEquals("1.1.0.Final", table.toArtifactCoords(otherProps, "grpId:artId", false, false, false).getVersion());
+
+        Assert.assertEquals(4, table.getMisses());
+        Assert.assertEquals(3, table.getHits());
+    }
+
+    @Test
+    public void testFailuresNotRecorded() throws Exception {
+        final ArtifactCoordsTable table = new ArtifactCoordsTable();
+        for (int i = 0; i < 2; ++i) {
+            try {
+                table.toArtifactCoords(new HashMap<>(), "grpId:unknown", false, false, false);
+                Assert.fail("Unknown artifact version should have failed");
+            } catch (ProvisioningException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(2, table.getMisses());
+        Assert.assertEquals(0, table.getHits());
+    }
+}
@@ -1,6 +1,7 @@
 package org.wildfly.galleon.plugin;
 
 import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.util.HashUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -9,7 +10,10 @@ import org.junit.rules.TemporaryFolder;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -124,6 +128,93 @@ public class ArtifactRecorderTestCase {
                 Files.exists(cacheDir.resolve("test-one-1.0.0.jar")));
     }
 
+    @Test
+    public void recordedTargetFollowsTargetOrder() throws Exception {
+        final Path first = createArtifactFile("modules/first/test.jar");
+        final Path second = createArtifactFile("modules/second/test.jar");
+        recorder.setTargetOrder(Comparator.comparing(p -> p.getParent().getFileName().toString()));
+
+        // the modules are processed in any order, the target of the greatest module is recorded
+        recorder.record(mavenArtifact("org.test", "test-one"), second);
+        recorder.record(mavenArtifact("org.test", "test-one"), first);
+        recorder.record(mavenArtifact("org.test", "test-two"), first);
+        recorder.record(mavenArtifact("org.test", "test-two"), second);
+
+        recorder.writeCacheManifest();
+
+        assertRecordedArtifactContainOnly(
+                "org.test:test-one:jar:1.0.0::*::modules/second/test.jar",
+                "org.test:test-two:jar:1.0.0::*::modules/second/test.jar");
+    }
+
+    @Test
+    public void recordedArtifactIsHashedFromSource() throws Exception {
+        final Path indexFile = temp.newFolder("index").toPath().resolve("hashes.txt");
+        recorder = new ArtifactRecorder(installBase, cacheDir, new ArtifactHashIndex(), indexFile);
+        final Path source = createArtifactFile("repo/test-one.jar");
+        Files.writeString(source, "content");
+        final Path target = installBase.resolve("modules/test-one.jar");
+        Files.createDirectories(target.getParent());
+        Files.copy(source, target);
+
+        recorder.record(mavenArtifact("org.test", "test-one"), target, source);
+
+        recorder.writeCacheManifest();
+
+        assertRecordedArtifactContainOnly("org.test:test-one:jar:1.0.0::*::modules/test-one.jar");
+        assertRecordedHash(HashUtils.hashFile(target));
+        final List<String> index = Files.readAllLines(indexFile);
+        assertEquals(1, index.size());
+        assertTrue(index.get(0).endsWith(source.toAbsolutePath().toString()));
+        try (Stream<Path> files = Files.list(indexFile.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void hashIndexIsNotStoredInInstallation() throws Exception {
+        recorder.record(mavenArtifact("org.test", "test-one"), createArtifactFile("test.jar"));
+
+        recorder.writeCacheManifest();
+
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of(cacheDir.resolve(ArtifactRecorder.ARTIFACT_LIST_FILE)), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void indexedHashIsReused() throws Exception {
+        final Path indexFile = temp.newFolder("index").toPath().resolve("hashes.txt");
+        final Path source = createArtifactFile("repo/test-one.jar");
+        Files.writeString(source, "content");
+
+        recorder = new ArtifactRecorder(installBase, cacheDir, ArtifactHashIndex.load(indexFile), indexFile);
+        recorder.record(mavenArtifact("org.test", "test-one"), source);
+        recorder.writeCacheManifest();
+        assertEquals(1, recorder.getHashIndexMisses());
+
+        recorder = new ArtifactRecorder(installBase, cacheDir, ArtifactHashIndex.load(indexFile), indexFile);
+        recorder.record(mavenArtifact("org.test", "test-one"), source);
+        recorder.writeCacheManifest();
+        assertEquals(0, recorder.getHashIndexMisses());
+        assertRecordedArtifactContainOnly("org.test:test-one:jar:1.0.0::*::repo/test-one.jar");
+        assertRecordedHash(HashUtils.hashFile(source));
+
+        // a modified file is hashed again
+        Files.writeString(source, "modified content");
+        recorder = new ArtifactRecorder(installBase, cacheDir, ArtifactHashIndex.load(indexFile), indexFile);
+        recorder.record(mavenArtifact("org.test", "test-one"), source);
+        recorder.writeCacheManifest();
+        assertEquals(1, recorder.getHashIndexMisses());
+        assertRecordedArtifactContainOnly("org.test:test-one:jar:1.0.0::*::repo/test-one.jar");
+        assertRecordedHash(HashUtils.hashFile(source));
+    }
+
+    private void assertRecordedHash(String hash) throws IOException {
+        final List<String> artifactList = Files.readAllLines(cacheDir.resolve(ArtifactRecorder.ARTIFACT_LIST_FILE));
+        assertTrue("Expected hash " + hash + " in " + artifactList, artifactList.get(0).contains("::" + hash + "::"));
+    }
+
     private void assertRecordedArtifactContainOnly(String... lines) throws IOException {
         final List<String> artifactList = Files.readAllLines(cacheDir.resolve(ArtifactRecorder.ARTIFACT_LIST_FILE));
 
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.progresstracking.ProgressTracker;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.universe.maven.MavenUniverseException;
+import org.jboss.galleon.universe.maven.repo.MavenRepoManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkArtifactResolverTestCase {
+
+    private interface BatchResolver {
+        void resolveAll(Collection<MavenArtifact> artifacts) throws MavenUniverseException, InterruptedException;
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final List<MavenArtifact> artifacts = new ArrayList<>();
+        final List<CompletableFuture<Void>> resolutions = new ArrayList<>();
+        final List<String> events = new ArrayList<>();
+        try (BulkArtifactResolver resolver = new BulkArtifactResolver(repoManager(batch -> {
+            batchSizes.add(batch.size());
+            for (MavenArtifact artifact : batch) {
+                artifact.setPath(path(artifact));
+            }
+        }), 1)) {
+            for (int i = 0; i < 70; ++i) {
+                final MavenArtifact artifact = artifact("artifact-" + i);
+                artifacts.add(artifact);
+                resolutions.add(resolver.add(artifact("artifact-" + i), artifact));
+            }
+            // the same coordinates are resolved once
+            Assert.assertSame(resolutions.get(0), resolver.add(artifact("artifact-0"), artifact("artifact-0")));
+
+            resolver.awaitResolved(tracker(events));
+        }
+
+        Assert.assertEquals(List.of(32, 32, 6), batchSizes);
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < artifacts.size(); ++i) {
+            final MavenArtifact artifact = artifacts.get(i);
+            Assert.assertTrue(resolutions.get(i).isDone());
+            Assert.assertFalse(resolutions.get(i).isCompletedExceptionally());
+            Assert.assertEquals(path(artifact), artifact.getPath());
+            expected.add("processing " + artifact.getCoordsAsString());
+            expected.add("processed " + artifact.getCoordsAsString());
+        }
+        Assert.assertEquals(expected, events);
+    }
+
+    @Test
+    public void testArtifactResolvedBeforeItsBatch() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final MavenArtifact first = artifact("first");
+        final MavenArtifact second = artifact("second");
+        try (BulkArtifactResolver resolver = new BulkArtifactResolver(repoManager(batch -> {
+            final List<MavenArtifact> list = new ArrayList<>(batch);
+            list.get(0).setPath(path(list.get(0)));
+            release.await();
+            list.get(1).setPath(path(list.get(1)));
+        }), 1)) {
+            final CompletableFuture<Void> firstResolution = resolver.add(first, first);
+            final CompletableFuture<Void> secondResolution = resolver.add(second, second);
+            resolver.flush();
+
+            firstResolution.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(path(first), first.getPath());
+            Assert.assertFalse(secondResolution.isDone());
+
+            release.countDown();
+            secondResolution.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(path(second), second.getPath());
+        }
+    }
+
+    @Test
+    public void testFailedBatch() throws Exception {
+        final MavenArtifact first = artifact("first");
+        final MavenArtifact second = artifact("second");
+        final List<String> events = new ArrayList<>();
+        try (BulkArtifactResolver resolver = new BulkArtifactResolver(repoManager(batch -> {
+            final MavenArtifact artifact = batch.iterator().next();
+            artifact.setPath(path(artifact));
+            throw new MavenUniverseException("offline");
+        }), 1)) {
+            final CompletableFuture<Void> firstResolution = resolver.add(first, first);
+            final CompletableFuture<Void> secondResolution = resolver.add(second, second);
+            try {
+                resolver.awaitResolved(tracker(events));
+                Assert.fail("The second artifact is not resolved");
+            } catch (ProvisioningException e) {
+                assertNamesArtifact(second, e);
+                Assert.assertEquals("offline", e.getCause().getMessage());
+            }
+            firstResolution.get(10, TimeUnit.SECONDS);
+            assertFailed(second, secondResolution);
+        }
+        Assert.assertEquals(List.of("processing " + first.getCoordsAsString(), "processed " + first.getCoordsAsString(),
+                "processing " + second.getCoordsAsString()), events);
+    }
+
+    @Test
+    public void testArtifactWithoutPath() throws Exception {
+        final MavenArtifact first = artifact("first");
+        final MavenArtifact second = artifact("second");
+        try (BulkArtifactResolver resolver = new BulkArtifactResolver(repoManager(batch -> {
+            final MavenArtifact artifact = batch.iterator().next();
+            artifact.setPath(path(artifact));
+        }), 1)) {
+            final CompletableFuture<Void> firstResolution = resolver.add(first, first);
+            final CompletableFuture<Void> secondResolution = resolver.add(second, second);
+            try {
+                resolver.awaitResolved(tracker(new ArrayList<>()));
+                Assert.fail("The second artifact has no path");
+            } catch (ProvisioningException e) {
+                assertNamesArtifact(second, e);
+            }
+            firstResolution.get(10, TimeUnit.SECONDS);
+            assertFailed(second, secondResolution);
+        }
+    }
+
+    private static void assertFailed(MavenArtifact artifact, CompletableFuture<Void> resolution) throws Exception {
+        try {
+            resolution.get(10, TimeUnit.SECONDS);
+            Assert.fail(artifact.getCoordsAsString() + " is not resolved");
+        } catch (ExecutionException e) {
+            assertNamesArtifact(artifact, e.getCause());
+        }
+    }
+
+    private static void assertNamesArtifact(MavenArtifact artifact, Throwable t) {
+        Assert.assertTrue(t.getMessage(), t.getMessage().contains(artifact.getCoordsAsString()));
+    }
+
+    private static MavenArtifact artifact(String artifactId) {
+        return new MavenArtifact().setGroupId("org.wildfly.galleon.test").setArtifactId(artifactId).setVersion("1.0.0.Final");
+    }
+
+    private static Path path(MavenArtifact artifact) {
+        return Paths.get("repo", artifact.getArtifactId() + ".jar");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MavenRepoManager repoManager(BatchResolver resolver) {
+        return (MavenRepoManager) Proxy.newProxyInstance(BulkArtifactResolverTestCase.class.getClassLoader(),
+                new Class<?>[] {MavenRepoManager.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("resolveAll")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    resolver.resolveAll((Collection<MavenArtifact>) args[0]);
+                    return null;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProgressTracker<MavenArtifact> tracker(List<String> events) {
+        return (ProgressTracker<MavenArtifact>) Proxy.newProxyInstance(BulkArtifactResolverTestCase.class.getClassLoader(),
+                new Class<?>[] {ProgressTracker.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("processing") || method.getName().equals("processed")) {
+                        events.add(method.getName() + ' ' + ((MavenArtifact) args[0]).getCoordsAsString());
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
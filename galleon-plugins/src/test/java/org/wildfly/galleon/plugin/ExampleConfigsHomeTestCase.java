@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExampleConfigsHomeTestCase {
+
+    private static final String FP = "org.wildfly:wildfly-galleon-pack@maven(org.jboss.universe:community-universe):current#30.0.0.Final";
+    private static final String OTHER_VERSION_FP = "org.wildfly:wildfly-galleon-pack@maven(org.jboss.universe:community-universe):current#31.0.0.Final";
+
+    private Path workDir;
+    private Path home;
+    private Path file;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("example-configs-home");
+        home = workDir.resolve("home");
+        Files.createDirectories(home.resolve(WfConstants.MODULES));
+        file = workDir.resolve("example-configs-home.txt");
+        ExampleConfigsHome.store(file, home, Set.of(ExampleConfigsHome.toKey(FP, "org.wildfly.core"),
+                ExampleConfigsHome.toKey(FP, "org.jboss.as.server")));
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final ExampleConfigsHome configsHome = ExampleConfigsHome.load(file);
+        Assert.assertEquals(home.toAbsolutePath(), configsHome.getHome());
+        Assert.assertTrue(configsHome.providesPackages(Set.of(ExampleConfigsHome.toKey(FP, "org.wildfly.core"),
+                ExampleConfigsHome.toKey(FP, "org.jboss.as.server"))));
+        Assert.assertTrue(configsHome.providesPackages(Set.of(ExampleConfigsHome.toKey(FP, "org.wildfly.core"))));
+        Assert.assertTrue(configsHome.providesPackages(Set.of()));
+    }
+
+    @Test
+    public void testMissingPackage() throws Exception {
+        final ExampleConfigsHome configsHome = ExampleConfigsHome.load(file);
+        Assert.assertFalse(configsHome.providesPackages(Set.of(ExampleConfigsHome.toKey(FP, "org.wildfly.core"),
+                ExampleConfigsHome.toKey(FP, "org.jboss.as.ejb3"))));
+    }
+
+    @Test
+    public void testOtherFeaturePackVersion() throws Exception {
+        final ExampleConfigsHome configsHome = ExampleConfigsHome.load(file);
+        Assert.assertFalse(configsHome.providesPackages(Set.of(ExampleConfigsHome.toKey(OTHER_VERSION_FP, "org.wildfly.core"))));
+    }
+
+    @Test
+    public void testMissingModules() throws Exception {
+        IoUtils.recursiveDelete(home.resolve(WfConstants.MODULES));
+        final ExampleConfigsHome configsHome = ExampleConfigsHome.load(file);
+        Assert.assertFalse(configsHome.providesPackages(Set.of(ExampleConfigsHome.toKey(FP, "org.wildfly.core"))));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+import java.util.Set;
+
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.galleon.util.PropertyUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LineEndingsConverterTestCase {
+
+    private static final String[] CONTENTS = {
+        "", "a", "a\n", "a\r\n", "a\r", "\n", "\r\n", "\r", "a\nb", "a\r\nb\r\n", "a\rb\nc\r\n", "a\n\nb\r\n\r\nc",
+        "\r\r\n\n", "#!/bin/sh\n\necho \"\u00e9t\u00e9\"\r\n", "@echo off\r\nrem x\nset A=1\r\n"
+    };
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("line-endings");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testConvertLines() throws Exception {
+        for (String content : CONTENTS) {
+            for (boolean windows : new boolean[] {false, true}) {
+                final Path file = write(content);
+                final String expected = readLines(content, windows ? "\r\n" : "\n");
+                Assert.assertEquals(content, !expected.equals(content), LineEndingsConverter.convertLines(file, windows));
+                Assert.assertEquals(content, expected, Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void testReplaceLineEndings() throws Exception {
+        for (String content : CONTENTS) {
+            for (boolean windows : new boolean[] {false, true}) {
+                final Path file = write(content);
+                final String expected = windows ? content.replaceAll("(?<!\\r)\\n", "\r\n") : content.replace("\r\n", "\n");
+                Assert.assertEquals(content, !expected.equals(content), LineEndingsConverter.replaceLineEndings(file, windows));
+                Assert.assertEquals(content, expected, Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+        final Random random = new Random(7);
+        final StringBuilder buf = new StringBuilder();
+        while (buf.length() < 3 * 1024 * 1024) {
+            buf.append("line ").append(random.nextInt()).append(random.nextBoolean() ? "\r\n" : "\n");
+        }
+        final String content = buf.toString();
+        final Path file = write(content);
+        Assert.assertTrue(LineEndingsConverter.convertLines(file, false));
+        Assert.assertEquals(content.replace("\r\n", "\n"), Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertFalse(LineEndingsConverter.convertLines(file, false));
+        Assert.assertTrue(LineEndingsConverter.convertLines(file, true));
+        Assert.assertEquals(content.replaceAll("(?<!\\r)\\n", "\r\n"), Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertFalse(LineEndingsConverter.convertLines(file, true));
+    }
+
+    @Test
+    public void testBinaryFileIsSkipped() throws Exception {
+        final Path file = workDir.resolve("binary");
+        final byte[] content = {'a', '\r', '\n', 0, 'b', '\n', 'c'};
+        Files.write(file, content);
+        Assert.assertFalse(LineEndingsConverter.convertLines(file, false));
+        Assert.assertFalse(LineEndingsConverter.replaceLineEndings(file, true));
+        Assert.assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testNormalizedFileIsNotWritten() throws Exception {
+        final Path file = write("a\nb\n");
+        final FileTime lastModified = FileTime.fromMillis(1000);
+        Files.setLastModifiedTime(file, lastModified);
+        Assert.assertFalse(LineEndingsConverter.convertLines(file, false));
+        Assert.assertEquals(lastModified, Files.getLastModifiedTime(file));
+    }
+
+    @Test
+    public void testPermissionsArePreserved() throws Exception {
+        if (PropertyUtils.isWindows()) {
+            return;
+        }
+        final Path file = write("#!/bin/sh\r\necho\r\n");
+        final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwxr-x---");
+        Files.setPosixFilePermissions(file, permissions);
+        Assert.assertTrue(LineEndingsConverter.convertLines(file, false));
+        Assert.assertEquals(permissions, Files.getPosixFilePermissions(file));
+    }
+
+    private Path write(String content) throws Exception {
+        final Path file = Files.createTempFile(workDir, "file", ".txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * What the line by line conversion used to produce.
+     */
+    private static String readLines(String content, String eol) throws Exception {
+        final StringBuilder buf = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                buf.append(line).append(eol);
+            }
+        }
+        return buf.toString();
+    }
+}
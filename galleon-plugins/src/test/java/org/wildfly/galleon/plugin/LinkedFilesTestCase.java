@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkedFilesTestCase {
+
+    private Path workDir;
+    private Path shared;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("linked-files");
+        shared = workDir.resolve("shared.txt");
+        Files.writeString(shared, "a\r\nb\r\n", StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testHardLinkIsCopiedBeforeConversion() throws Exception {
+        final Path file = workDir.resolve("hardlink.txt");
+        Files.createLink(file, shared);
+        Assert.assertTrue(LineEndingsConverter.convertLines(file, false));
+        Assert.assertFalse(LinkedFiles.isLinked(file));
+        Assert.assertEquals("a\nb\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertEquals("a\r\nb\r\n", Files.readString(shared, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSymbolicLinkIsCopiedBeforeConversion() throws Exception {
+        final Path file = workDir.resolve("symlink.txt");
+        Files.createSymbolicLink(file, shared);
+        Assert.assertTrue(LineEndingsConverter.convertLines(file, false));
+        Assert.assertFalse(Files.isSymbolicLink(file));
+        Assert.assertEquals("a\nb\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertEquals("a\r\nb\r\n", Files.readString(shared, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUnlinkedFilesAreLeftUntouched() throws Exception {
+        Assert.assertFalse(LinkedFiles.unlink(shared));
+        Assert.assertFalse(LinkedFiles.unlink(workDir));
+        final Path file = workDir.resolve("hardlink.txt");
+        Files.createLink(file, shared);
+        Assert.assertTrue(LinkedFiles.unlink(file));
+        Assert.assertFalse(LinkedFiles.unlink(file));
+        Assert.assertFalse(LinkedFiles.isLinked(shared));
+        Assert.assertEquals("a\r\nb\r\n", Files.readString(file, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoizingArtifactResolverTestCase {
+
+    @Test
+    public void testResolvedOnce() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final MemoizingArtifactResolver resolver = new MemoizingArtifactResolver(artifact -> {
+            calls.incrementAndGet();
+            artifact.setVersion("1.0.Final");
+            artifact.setPath(Paths.get(artifact.getArtifactId() + ".jar"));
+        });
+
+        final MavenArtifact first = artifact("a", null);
+        resolver.resolve(first);
+        final MavenArtifact second = artifact("a", null);
+        resolver.resolve(second);
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals("1.0.Final", second.getVersion());
+        Assert.assertEquals(first.getPath(), second.getPath());
+
+        // the artifacts that require a channel are resolved separately
+        final MavenArtifact channel = artifact("a", null);
+        channel.addMetadata(WfInstallPlugin.REQUIRES_CHANNEL_FOR_ARTIFACT_RESOLUTION_PROPERTY, "true");
+        resolver.resolve(channel);
+        resolver.resolve(artifact("b", null));
+        Assert.assertEquals(3, calls.get());
+        Assert.assertEquals(3, resolver.getResolved());
+        Assert.assertEquals(1, resolver.getHits());
+    }
+
+    @Test
+    public void testFailureIsNotRecorded() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final MemoizingArtifactResolver resolver = new MemoizingArtifactResolver(artifact -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ProvisioningException("offline");
+            }
+            artifact.setPath(Paths.get("a.jar"));
+        });
+        try {
+            resolver.resolve(artifact("a", "1.0"));
+            Assert.fail("resolution should have failed");
+        } catch (ProvisioningException e) {
+            Assert.assertEquals("offline", e.getMessage());
+        }
+        final MavenArtifact artifact = artifact("a", "1.0");
+        resolver.resolve(artifact);
+        Assert.assertEquals(Paths.get("a.jar"), artifact.getPath());
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testConcurrentResolutionsAreCollapsed() throws Exception {
+        final int threads = 4;
+        final CountDownLatch resolving = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final MemoizingArtifactResolver resolver = new MemoizingArtifactResolver(artifact -> {
+            calls.incrementAndGet();
+            resolving.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            artifact.setPath(Paths.get("a.jar"));
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                results.add(executor.submit(() -> {
+                    final MavenArtifact artifact = artifact("a", "1.0");
+                    resolver.resolve(artifact);
+                    return artifact.getPath();
+                }));
+            }
+            Assert.assertTrue(resolving.await(10, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<Path> result : results) {
+                Assert.assertEquals(Paths.get("a.jar"), result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(threads - 1, resolver.getHits());
+    }
+
+    private static MavenArtifact artifact(String artifactId, String version) {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId("org.example");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion(version);
+        artifact.setExtension("jar");
+        return artifact;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModuleFingerprintsTestCase {
+
+    private static final Path MODULE_XML = Path.of("modules", "system", "layers", "base", "org", "test", "main", "module.xml");
+    private static final List<String> FILE_NAMES = List.of("module.xml", "test-1.0.jar");
+
+    private Path workDir;
+    private Path installDir;
+    private Path template;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("module-fingerprints");
+        installDir = workDir.resolve("install");
+        template = workDir.resolve("module-template.xml");
+        Files.writeString(template, "<module name=\"org.test\"/>");
+        final Path moduleDir = installDir.resolve(MODULE_XML.toString()).getParent();
+        Files.createDirectories(moduleDir);
+        Files.writeString(moduleDir.resolve("module.xml"), "<module name=\"org.test\"/>");
+        Files.writeString(moduleDir.resolve("test-1.0.jar"), "jar");
+
+        // a first provisioning builds the module
+        final ModuleFingerprints fingerprints = ModuleFingerprints.load(installDir);
+        fingerprints.put(MODULE_XML, fingerprint(), ModuleFingerprints.hash(moduleDir, FILE_NAMES));
+        fingerprints.store(installDir);
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testUnchangedModuleIsReused() throws Exception {
+        final ModuleFingerprints fingerprints = ModuleFingerprints.load(installDir);
+        Assert.assertTrue(fingerprints.isUnchanged(MODULE_XML, fingerprint()));
+        final Map<String, String> hashes = fingerprints.verify(MODULE_XML, FILE_NAMES);
+        Assert.assertNotNull(hashes);
+        Assert.assertEquals(FILE_NAMES.size(), hashes.size());
+    }
+
+    @Test
+    public void testChangedTemplateIsRebuilt() throws Exception {
+        final ModuleFingerprints fingerprints = ModuleFingerprints.load(installDir);
+        Files.writeString(template, "<module name=\"org.test\"><dependencies/></module>");
+        Assert.assertFalse(fingerprints.isUnchanged(MODULE_XML, fingerprint()));
+    }
+
+    @Test
+    public void testChangedInstalledFileIsRebuilt() throws Exception {
+        final ModuleFingerprints fingerprints = ModuleFingerprints.load(installDir);
+        Files.writeString(installDir.resolve(MODULE_XML.toString()).resolveSibling("test-1.0.jar"), "patched jar");
+        Assert.assertTrue(fingerprints.isUnchanged(MODULE_XML, fingerprint()));
+        Assert.assertNull(fingerprints.verify(MODULE_XML, FILE_NAMES));
+    }
+
+    @Test
+    public void testMissingInstalledFileIsRebuilt() throws Exception {
+        final ModuleFingerprints fingerprints = ModuleFingerprints.load(installDir);
+        Files.delete(installDir.resolve(MODULE_XML.toString()));
+        Assert.assertNull(fingerprints.verify(MODULE_XML, FILE_NAMES));
+    }
+
+    @Test
+    public void testUnrecordedFileIsRebuilt() throws Exception {
+        final ModuleFingerprints fingerprints = ModuleFingerprints.load(installDir);
+        Assert.assertNull(fingerprints.verify(MODULE_XML, List.of("module.xml", "test-2.0.jar")));
+    }
+
+    private String fingerprint() throws Exception {
+        return ModuleFingerprints.fingerprint(template, false, List.of("org.test:test:jar:1.0"));
+    }
+}
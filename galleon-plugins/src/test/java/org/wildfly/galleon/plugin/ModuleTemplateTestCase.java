@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import nu.xom.Builder;
+import nu.xom.Elements;
+import nu.xom.Serializer;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class ModuleTemplateTestCase {
+
+    private static final String NS = "urn:jboss:module:1.9";
+
+    private static final String TEMPLATE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!-- module template -->\n"
+            + "<module xmlns=\"" + NS + "\" name=\"org.foo\" version=\"${org.foo:foo}\">\n"
+            + "    <properties>\n"
+            + "        <property name=\"jboss.api\" value=\"private\"/>\n"
+            + "    </properties>\n"
+            + "    <resources>\n"
+            + "        <artifact name=\"${org.foo:foo}\"/>\n"
+            + "        <artifact name=\"${org.foo:bar?jandex}\">\n"
+            + "            <filter>\n"
+            + "                <exclude path=\"META-INF\"/>\n"
+            + "            </filter>\n"
+            + "        </artifact>\n"
+            + "        <resource-root path=\"lib.jar\"/>\n"
+            + "        <artifact name=\"org.foo:baz:1.0\"/>\n"
+            + "    </resources>\n"
+            + "    <dependencies>\n"
+            + "        <module name=\"java.base\"/>\n"
+            + "    </dependencies>\n"
+            + "</module>\n";
+
+    private static final String XOM_TEMPLATE = "<?xml version='1.0' encoding='UTF-8'?>\n"
+            + "<!-- module template -->\n"
+            + "<?module-template version=\"1\"?>\n"
+            + "<module name=\"org.foo\" xmlns=\"" + NS + "\" version=\"${org.foo:foo}\" xmlns:x=\"urn:x\">\n"
+            + "    <properties>\n"
+            + "        <property name=\"jboss.api\" value=\"&quot;private&quot; &amp; &lt;internal&gt;\"></property>\n"
+            + "        <x:property x:name=\"x\" xmlns:x=\"urn:x\"/>\n"
+            + "    </properties>\n"
+            + "    <resources>\n"
+            + "        <!-- the main artifact -->\n"
+            + "        <artifact name=\"${org.foo:foo}\"/>\n"
+            + "        <artifact name=\"${org.foo:bar?jandex}\">\n"
+            + "            <filter xmlns=\"" + NS + "\">\n"
+            + "                <exclude path=\"META-INF\"/>\n"
+            + "            </filter>\n"
+            + "        </artifact>\n"
+            + "        <resource-root path=\"lib.jar\"/>\n"
+            + "    </resources>\n"
+            + "    <dependencies>\n"
+            + "        <module name=\"java.base\"><![CDATA[a > b & c]]> &amp; d</module>\n"
+            + "        <system xmlns=\"\"/>\n"
+            + "    </dependencies>\n"
+            + "</module>\n"
+            + "<!-- end of the template -->\n";
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("module-template");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        final ModuleTemplate template = newTemplate(TEMPLATE);
+        Assert.assertTrue(template.isModule());
+        Assert.assertEquals("org.foo", template.getName());
+        Assert.assertEquals("${org.foo:foo}", template.getVersion());
+        Assert.assertEquals(Arrays.asList("${org.foo:foo}", "${org.foo:bar?jandex}", "org.foo:baz:1.0"), template.getArtifacts());
+
+        final ModuleTemplate noResources = newTemplate("<module xmlns=\"" + NS + "\" name=\"org.bar\"/>");
+        Assert.assertTrue(noResources.isModule());
+        Assert.assertNull(noResources.getVersion());
+        Assert.assertEquals(Collections.emptyList(), noResources.getArtifacts());
+
+        Assert.assertFalse(newTemplate("<module-absent xmlns=\"" + NS + "\" name=\"org.baz\"/>").isModule());
+    }
+
+    @Test
+    public void testStore() throws Exception {
+        final ModuleTemplate template = newTemplate(TEMPLATE);
+        template.setVersion("1.0.0.Final");
+        template.setResourceRoot(0, "foo-1.0.0.Final.jar");
+        template.setResourceRoot(1, "bar-2.0.0.Final.jar");
+        template.store();
+
+        final Element module = parseTarget();
+        Assert.assertEquals("org.foo", module.getAttribute("name"));
+        Assert.assertEquals("1.0.0.Final", module.getAttribute("version"));
+        final NodeList resourceRoots = module.getElementsByTagNameNS(NS, "resource-root");
+        Assert.assertEquals(3, resourceRoots.getLength());
+        Assert.assertEquals("foo-1.0.0.Final.jar", ((Element) resourceRoots.item(0)).getAttribute("path"));
+        Assert.assertFalse(((Element) resourceRoots.item(0)).hasAttribute("name"));
+        final Element bar = (Element) resourceRoots.item(1);
+        Assert.assertEquals("bar-2.0.0.Final.jar", bar.getAttribute("path"));
+        Assert.assertEquals(1, bar.getElementsByTagNameNS(NS, "exclude").getLength());
+        Assert.assertEquals("lib.jar", ((Element) resourceRoots.item(2)).getAttribute("path"));
+        // not processed
+        final NodeList artifacts = module.getElementsByTagNameNS(NS, "artifact");
+        Assert.assertEquals(1, artifacts.getLength());
+        Assert.assertEquals("org.foo:baz:1.0", ((Element) artifacts.item(0)).getAttribute("name"));
+        Assert.assertEquals(1, module.getElementsByTagNameNS(NS, "property").getLength());
+        Assert.assertEquals(1, module.getElementsByTagNameNS(NS, "dependencies").getLength());
+    }
+
+    @Test
+    public void testStoreThin() throws Exception {
+        final ModuleTemplate template = newTemplate(TEMPLATE);
+        template.setArtifactName(0, "org.foo:foo:1.0.0.Final");
+        template.setArtifactName(1, "org.foo:bar:2.0.0.Final");
+        template.store();
+
+        final Element module = parseTarget();
+        // the version was not resolved
+        Assert.assertEquals("${org.foo:foo}", module.getAttribute("version"));
+        final NodeList artifacts = module.getElementsByTagNameNS(NS, "artifact");
+        Assert.assertEquals(3, artifacts.getLength());
+        Assert.assertEquals("org.foo:foo:1.0.0.Final", ((Element) artifacts.item(0)).getAttribute("name"));
+        Assert.assertEquals("org.foo:bar:2.0.0.Final", ((Element) artifacts.item(1)).getAttribute("name"));
+        Assert.assertEquals(1, ((Element) artifacts.item(1)).getElementsByTagNameNS(NS, "filter").getLength());
+        Assert.assertEquals("org.foo:baz:1.0", ((Element) artifacts.item(2)).getAttribute("name"));
+    }
+
+    @Test
+    public void testStoreIsSerializedLikeXom() throws Exception {
+        newTemplate(XOM_TEMPLATE).store();
+        assertSerializedLikeXom(parseWithXom());
+
+        ModuleTemplate template = newTemplate(XOM_TEMPLATE);
+        template.setVersion("1.0.0.Final");
+        template.setResourceRoot(0, "foo-1.0.0.Final.jar");
+        template.setResourceRoot(1, "bar-2.0.0.Final.jar");
+        template.store();
+        nu.xom.Document document = parseWithXom();
+        document.getRootElement().getAttribute("version").setValue("1.0.0.Final");
+        Elements artifacts = getArtifacts(document);
+        for (int i = 0; i < artifacts.size(); ++i) {
+            final nu.xom.Element artifact = artifacts.get(i);
+            artifact.setLocalName("resource-root");
+            artifact.getAttribute("name").setLocalName("path");
+        }
+        artifacts.get(0).getAttribute("path").setValue("foo-1.0.0.Final.jar");
+        artifacts.get(1).getAttribute("path").setValue("bar-2.0.0.Final.jar");
+        assertSerializedLikeXom(document);
+
+        template = newTemplate(XOM_TEMPLATE);
+        template.setArtifactName(1, "org.foo:bar:2.0.0.Final");
+        template.store();
+        document = parseWithXom();
+        artifacts = getArtifacts(document);
+        artifacts.get(1).getAttribute("name").setValue("org.foo:bar:2.0.0.Final");
+        assertSerializedLikeXom(document);
+    }
+
+    private nu.xom.Document parseWithXom() throws Exception {
+        return new Builder(false).build(workDir.resolve("module.xml").toFile());
+    }
+
+    private static Elements getArtifacts(nu.xom.Document document) {
+        return document.getRootElement().getFirstChildElement("resources", NS).getChildElements("artifact", NS);
+    }
+
+    private void assertSerializedLikeXom(nu.xom.Document document) throws Exception {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new Serializer(expected).write(document);
+        Assert.assertEquals(new String(expected.toByteArray(), StandardCharsets.UTF_8),
+                new String(Files.readAllBytes(workDir.resolve("target.xml")), StandardCharsets.UTF_8));
+    }
+
+    private ModuleTemplate newTemplate(String content) throws Exception {
+        final Path file = workDir.resolve("module.xml");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return new ModuleTemplate(null, file, workDir.resolve("target.xml"));
+    }
+
+    private Element parseTarget() throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document document = factory.newDocumentBuilder().parse(workDir.resolve("target.xml").toFile());
+        return document.getDocumentElement();
+    }
+}
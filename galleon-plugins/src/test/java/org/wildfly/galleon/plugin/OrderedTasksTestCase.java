@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.ProvisioningException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderedTasksTestCase {
+
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testProgressIsReportedInSubmissionOrder() throws Exception {
+        final List<String> completed = new ArrayList<>();
+        final CountDownLatch thirdDone = new CountDownLatch(1);
+        final CountDownLatch secondDone = new CountDownLatch(1);
+        final OrderedTasks<String> tasks = new OrderedTasks<>(executor);
+        // the tasks complete in the reverse submission order
+        tasks.submit("first", () -> {
+            Assert.assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+            complete(completed, "first");
+            return null;
+        });
+        tasks.submit("second", () -> {
+            Assert.assertTrue(thirdDone.await(10, TimeUnit.SECONDS));
+            complete(completed, "second");
+            secondDone.countDown();
+            return null;
+        });
+        tasks.submit("third", () -> {
+            complete(completed, "third");
+            thirdDone.countDown();
+            return null;
+        });
+
+        final List<String> progress = new ArrayList<>();
+        tasks.await(item -> progress.add("processing " + item), item -> progress.add("processed " + item),
+                (item, e) -> new ProvisioningException(item, e));
+
+        Assert.assertEquals(Arrays.asList("third", "second", "first"), completed);
+        Assert.assertEquals(Arrays.asList("processing first", "processed first", "processing second", "processed second",
+                "processing third", "processed third"), progress);
+    }
+
+    @Test
+    public void testFirstFailureInSubmissionOrderIsReported() throws Exception {
+        final CountDownLatch thirdFailed = new CountDownLatch(1);
+        final OrderedTasks<String> tasks = new OrderedTasks<>(executor);
+        tasks.submit("first", () -> null);
+        tasks.submit("second", () -> {
+            Assert.assertTrue(thirdFailed.await(10, TimeUnit.SECONDS));
+            throw new IOException("second failed");
+        });
+        tasks.submit("third", () -> {
+            thirdFailed.countDown();
+            throw new ProvisioningException("third failed");
+        });
+
+        final List<String> processed = new ArrayList<>();
+        try {
+            tasks.await(item -> {}, processed::add, (item, e) -> new ProvisioningException("Failed to process " + item, e));
+            Assert.fail("the second task should have failed");
+        } catch (ProvisioningException e) {
+            Assert.assertEquals("Failed to process second", e.getMessage());
+            Assert.assertEquals("second failed", e.getCause().getMessage());
+        }
+        Assert.assertEquals(Arrays.asList("first"), processed);
+    }
+
+    private static void complete(List<String> completed, String item) {
+        synchronized (completed) {
+            completed.add(item);
+        }
+    }
+}
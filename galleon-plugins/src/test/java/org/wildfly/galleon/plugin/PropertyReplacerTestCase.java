@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.jboss.galleon.util.IoUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PropertyReplacerTestCase {
+
+    private static final Map<String, String> PROPS = new HashMap<>();
+    static {
+        PROPS.put("a", "A");
+        PROPS.put("b", "B");
+        PROPS.put("b:default", "BD");
+        PROPS.put("dollar", "$");
+    }
+    private static final PropertyResolver RESOLVER = new MapPropertyResolver(PROPS);
+
+    /**
+     * Expected output of each input, the separator expression is expected to be replaced by the platform file separator.
+     */
+    private static final String[][] GOLDEN = {
+        {"", ""},
+        {"no expression", "no expression"},
+        {"${a}", "A"},
+        {"x${a}y${b}z", "xAyBz"},
+        {"${a,b}", "A"},
+        {"${x,b}", "B"},
+        {"${x,literal}", "literal"},
+        {"${x,b:default}", "BD"},
+        {"${a,b:default}", "A"},
+        {"${x,}", ""},
+        {"${x,y,z}", "y,z"},
+        {"${/}", File.separator},
+        {"a${/}b${/}c", "a" + File.separator + "b" + File.separator + "c"},
+        {"${/,ignored}", File.separator},
+        {"$$", "$"},
+        {"$${a}", "${a}"},
+        {"$$$", "$$"},
+        {"$", "$"},
+        {"a$", "a$"},
+        {"$a", "$a"},
+        {"$ {a}", "$ {a}"},
+        {"${}", "R"},
+        {"${dollar}", "$"},
+        {"${a,${b}}", "A}"},
+        {"${x,${b}}", "${b}"},
+        {"${x,default", "default"},
+        {"${a,unterminated", "A"},
+        {"${x}", "R"},
+        {"${x,${y}}", "${y}"},
+        {"a${x}b${x,c}d", "aRbcd"},
+        {"${x,lit}${a}", "litA"},
+        {"\u00e9${a}\u00fc\u20ac", "\u00e9A\u00fc\u20ac"},
+    };
+
+    @Test
+    public void testGolden() throws Exception {
+        for (String[] golden : GOLDEN) {
+            Assert.assertEquals(golden[0], golden[1], replace(golden[0], RESOLVER, "R", Integer.MAX_VALUE));
+            // expressions split over several reads
+            for (int chunk = 1; chunk <= 3; ++chunk) {
+                Assert.assertEquals(golden[0] + " read by " + chunk, golden[1], replace(golden[0], RESOLVER, "R", chunk));
+            }
+        }
+    }
+
+    @Test
+    public void testUnresolvedWithoutReplacement() throws Exception {
+        try {
+            replace("${x}", RESOLVER, null, Integer.MAX_VALUE);
+            Assert.fail("Unresolved property should have failed");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Failed to resolve property: x", e.getMessage());
+        }
+        Assert.assertEquals("B", replace("${x,b}", RESOLVER, null, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testIncompleteExpression() throws Exception {
+        try {
+            replace("abc${a", RESOLVER, "R", 2);
+            Assert.fail("Incomplete expression should have failed");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Incomplete expression: a", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testLargeContent() throws Exception {
+        final Random random = new Random(42);
+        final String[] fragments = {"text ", "\n", "${a}", "${x,b}", "${/}", "$$", "${x,lit}", "$ ", "{", "}", ",", "\u00e9"};
+        final StringBuilder input = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        while (input.length() < 100_000) {
+            final int i = random.nextInt(fragments.length);
+            input.append(fragments[i]);
+            switch (i) {
+                case 2:
+                    expected.append('A');
+                    break;
+                case 3:
+                    expected.append('B');
+                    break;
+                case 4:
+                    expected.append(File.separatorChar);
+                    break;
+                case 5:
+                    expected.append('$');
+                    break;
+                case 6:
+                    expected.append("lit");
+                    break;
+                default:
+                    expected.append(fragments[i]);
+            }
+        }
+        Assert.assertEquals(expected.toString(), replace(input.toString(), RESOLVER, null, Integer.MAX_VALUE));
+        Assert.assertEquals(expected.toString(), replace(input.toString(), RESOLVER, null, 7));
+    }
+
+    @Test
+    public void testCopyFiles() throws Exception {
+        final Path dir = Files.createTempDirectory("property-replacer");
+        try {
+            final Path plain = dir.resolve("plain.txt");
+            final byte[] plainContent = "no expression\r\nhere \u00e9\n".getBytes(StandardCharsets.UTF_8);
+            Files.write(plain, plainContent);
+            final Path plainTarget = dir.resolve("target").resolve("plain.txt");
+            PropertyReplacer.copy(plain, plainTarget, RESOLVER, null);
+            Assert.assertArrayEquals(plainContent, Files.readAllBytes(plainTarget));
+
+            final Path expr = dir.resolve("expr.txt");
+            Files.writeString(expr, "value=${a}\r\nother=${x,b}\n");
+            final Path exprTarget = dir.resolve("target").resolve("expr.txt");
+            PropertyReplacer.copy(expr, exprTarget, RESOLVER, null);
+            Assert.assertEquals("value=A\r\nother=B\n", Files.readString(exprTarget));
+        } finally {
+            IoUtils.recursiveDelete(dir);
+        }
+    }
+
+    private static String replace(String input, PropertyResolver resolver, String failureReplacement, int chunk) throws IOException {
+        final Writer writer = new StringWriter();
+        PropertyReplacer.copy(new ChunkedReader(new StringReader(input), chunk), writer, resolver, failureReplacement);
+        return writer.toString();
+    }
+
+    /**
+     * Returns at most the given number of chars per read.
+     */
+    private static class ChunkedReader extends Reader {
+        private final Reader reader;
+        private final int chunk;
+
+        ChunkedReader(Reader reader, int chunk) {
+            this.reader = reader;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return reader.read(cbuf, off, Math.min(len, chunk));
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SchemaExtractorTestCase {
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("schema-extractor");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testExtract() throws Exception {
+        final Path withSchemas = zip("with-schemas.jar", "META-INF/MANIFEST.MF", "schema/", "schema/a.xsd", "schema/sub/b.xsd", "other/c.xsd");
+        final Path withoutSchemas = zip("without-schemas.jar", "org/foo/Foo.class", "schemas/d.xsd");
+        final Path targetDir = workDir.resolve("docs").resolve("schema");
+        try (SchemaExtractor extractor = new SchemaExtractor(targetDir)) {
+            final long before = System.nanoTime();
+            extractor.extract(withSchemas);
+            extractor.extract(withoutSchemas);
+            extractor.extract(withSchemas);
+            extractor.await();
+            Assert.assertEquals(2, extractor.getArtifactCount());
+            Assert.assertEquals(1, extractor.getArtifactsWithSchemas());
+            Assert.assertTrue(extractor.isStarted());
+            Assert.assertTrue(extractor.getStartNanos() - before >= 0);
+            Assert.assertTrue(System.nanoTime() - extractor.getStartNanos() >= extractor.getExtractionNanos());
+        }
+        Assert.assertEquals("schema/a.xsd", Files.readString(targetDir.resolve("a.xsd")));
+        Assert.assertEquals("schema/sub/b.xsd", Files.readString(targetDir.resolve("sub").resolve("b.xsd")));
+        try (var files = Files.list(targetDir)) {
+            Assert.assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final Path notAZip = workDir.resolve("broken.jar");
+        Files.writeString(notAZip, "not a zip");
+        try (SchemaExtractor extractor = new SchemaExtractor(workDir.resolve("schema"))) {
+            extractor.extract(notAZip);
+            try {
+                extractor.await();
+                Assert.fail("Broken archive should have failed");
+            } catch (ProvisioningException e) {
+                Assert.assertTrue(e.getMessage().contains("broken.jar"));
+            }
+        }
+    }
+
+    private Path zip(String name, String... entries) throws Exception {
+        final Path zip = workDir.resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                if (!entry.endsWith("/")) {
+                    out.write(entry.getBytes(StandardCharsets.UTF_8));
+                }
+                out.closeEntry();
+            }
+        }
+        return zip;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShadedJarCacheTestCase {
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("shaded-jar-cache");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testKeyIsStable() throws Exception {
+        final Path model = write("shaded-model.xml", "<shaded-model/>");
+        final MavenArtifact dep = artifact("dep", "1.0", "content");
+        Assert.assertEquals(ShadedJarCache.key(model, Collections.singletonList(dep)),
+                ShadedJarCache.key(model, Collections.singletonList(artifact("dep", "1.0", "content"))));
+    }
+
+    @Test
+    public void testKeyChanges() throws Exception {
+        final Path model = write("shaded-model.xml", "<shaded-model/>");
+        final String key = ShadedJarCache.key(model, Collections.singletonList(artifact("dep", "1.0", "content")));
+
+        Assert.assertNotEquals(key, ShadedJarCache.key(model, Collections.singletonList(artifact("dep", "1.1", "content"))));
+        Assert.assertNotEquals(key, ShadedJarCache.key(model, Collections.singletonList(artifact("dep", "1.0", "changed"))));
+        Assert.assertNotEquals(key, ShadedJarCache.key(model, Arrays.asList(artifact("dep", "1.0", "content"),
+                artifact("other", "1.0", "content"))));
+        Assert.assertNotEquals(key, ShadedJarCache.key(write("other-model.xml", "<shaded-model><main-class>Main</main-class></shaded-model>"),
+                Collections.singletonList(artifact("dep", "1.0", "content"))));
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        final ShadedJarCache cache = new ShadedJarCache(workDir.resolve("cache"));
+        Assert.assertNull(cache.get("abc"));
+
+        cache.put("abc", write("shaded.jar", "jar content"));
+        final Path cached = cache.get("abc");
+        Assert.assertNotNull(cached);
+        Assert.assertEquals("jar content", Files.readString(cached));
+        Assert.assertNull(cache.get("def"));
+
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        try (var files = Files.list(workDir.resolve("cache"))) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    private MavenArtifact artifact(String artifactId, String version, String content) throws Exception {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId("org.test");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion(version);
+        artifact.setExtension("jar");
+        artifact.setPath(write(artifactId + "-" + version + "-" + content.hashCode() + ".jar", content));
+        return artifact;
+    }
+
+    private Path write(String name, String content) throws Exception {
+        final Path file = workDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
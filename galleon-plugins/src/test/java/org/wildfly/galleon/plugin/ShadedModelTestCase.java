@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.galleon.MessageWriter;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShadedModelTestCase {
+
+    private static final String GROUP_ID = "org.wildfly.galleon.test";
+    private static final String SERVICE = "META-INF/services/org.wildfly.galleon.test.Service";
+
+    private static final MessageWriter NO_OP_WRITER = new MessageWriter() {
+        @Override
+        public void verbose(Throwable cause, CharSequence message) {
+        }
+
+        @Override
+        public void print(Throwable cause, CharSequence message) {
+        }
+
+        @Override
+        public void error(Throwable cause, CharSequence message) {
+        }
+
+        @Override
+        public boolean isVerboseEnabled() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private Path workDir;
+    private final Map<String, Path> jars = new HashMap<>();
+    private final Map<String, String> versions = new HashMap<>();
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("shaded-model");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testBuildJar() throws Exception {
+        final Manifest firstManifest = manifest();
+        firstManifest.getMainAttributes().putValue("Created-By", "first");
+        firstManifest.getMainAttributes().putValue("Multi-Release", "false");
+        firstManifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "org.wildfly.galleon.test.First");
+        try (ZipOutputStream out = newJar("first", firstManifest)) {
+            deflated(out, "org/wildfly/galleon/test/A.class", "first A");
+            deflated(out, "org/wildfly/galleon/test/First.class", "first");
+            deflated(out, SERVICE, "# first\norg.wildfly.galleon.test.FirstService\n");
+            deflated(out, "module-info.class", "first module");
+        }
+        final Manifest secondManifest = manifest();
+        secondManifest.getMainAttributes().putValue("Created-By", "second");
+        secondManifest.getMainAttributes().putValue("Second-Only", "second");
+        try (ZipOutputStream out = newJar("second", secondManifest)) {
+            deflated(out, "org/wildfly/galleon/test/A.class", "second A");
+            stored(out, "org/wildfly/galleon/test/stored.txt", "stored content");
+            deflated(out, SERVICE, "org.wildfly.galleon.test.FirstService\norg.wildfly.galleon.test.SecondService\n");
+            deflated(out, "META-INF/INDEX.LIST", "index");
+        }
+        try (ZipOutputStream out = newJar("third", null)) {
+            deflated(out, "org/wildfly/galleon/test/A.class", "third A");
+            deflated(out, "org/wildfly/galleon/third/Third.class", "third");
+            deflated(out, SERVICE, "org.wildfly.galleon.test.FirstService\n");
+        }
+
+        final Path shadedJar = workDir.resolve("shaded.jar");
+        newModel("first", "second", "third").buildJar(shadedJar);
+
+        try (JarFile jar = new JarFile(shadedJar.toFile())) {
+            Assert.assertEquals("first A", read(jar, "org/wildfly/galleon/test/A.class"));
+            Assert.assertEquals("first", read(jar, "org/wildfly/galleon/test/First.class"));
+            Assert.assertEquals("third", read(jar, "org/wildfly/galleon/third/Third.class"));
+            Assert.assertNotNull(jar.getEntry("org/wildfly/galleon/third/"));
+            Assert.assertNull(jar.getEntry("module-info.class"));
+            Assert.assertNull(jar.getEntry("META-INF/INDEX.LIST"));
+
+            Assert.assertEquals(Arrays.asList("# first", "org.wildfly.galleon.test.FirstService", "org.wildfly.galleon.test.SecondService"),
+                    Arrays.asList(read(jar, SERVICE).split(System.lineSeparator())));
+
+            final ZipEntry stored = jar.getEntry("org/wildfly/galleon/test/stored.txt");
+            Assert.assertEquals(ZipEntry.STORED, stored.getMethod());
+            Assert.assertEquals("stored content", read(jar, stored.getName()));
+            Assert.assertEquals(ZipEntry.DEFLATED, jar.getEntry("org/wildfly/galleon/test/A.class").getMethod());
+
+            final Attributes attributes = jar.getManifest().getMainAttributes();
+            Assert.assertEquals("first", attributes.getValue("Created-By"));
+            Assert.assertNull(attributes.getValue("Second-Only"));
+            Assert.assertEquals("true", attributes.getValue("Multi-Release"));
+            Assert.assertEquals("org.wildfly.galleon.test.Main", attributes.getValue(Attributes.Name.MAIN_CLASS));
+            Assert.assertEquals("Galleon shading of test-shaded", attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE));
+            Assert.assertEquals("Galleon shading of test-shaded", attributes.getValue(Attributes.Name.SPECIFICATION_TITLE));
+            Assert.assertEquals("Unknown", attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION));
+        }
+    }
+
+    @Test
+    public void testBuildJarWithoutManifest() throws Exception {
+        try (ZipOutputStream out = newJar("first", null)) {
+            deflated(out, "org/wildfly/galleon/test/A.class", "first A");
+        }
+        final Path shadedJar = workDir.resolve("shaded.jar");
+        newModel("first").buildJar(shadedJar);
+
+        try (JarFile jar = new JarFile(shadedJar.toFile())) {
+            Assert.assertEquals("first A", read(jar, "org/wildfly/galleon/test/A.class"));
+            final Attributes attributes = jar.getManifest().getMainAttributes();
+            Assert.assertEquals("org.wildfly.galleon.test.Main", attributes.getValue(Attributes.Name.MAIN_CLASS));
+            Assert.assertEquals("true", attributes.getValue("Multi-Release"));
+        }
+    }
+
+    private ShadedModel newModel(String... dependencies) throws Exception {
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<shaded-model>\n<name>test-shaded</name>\n<shaded-dependencies>\n");
+        for (String dependency : dependencies) {
+            xml.append("<dependency>").append(GROUP_ID).append(':').append(dependency).append("</dependency>\n");
+        }
+        xml.append("</shaded-dependencies>\n<main-class>org.wildfly.galleon.test.Main</main-class>\n");
+        xml.append("<manifestEntries>\n<Multi-Release>true</Multi-Release>\n</manifestEntries>\n</shaded-model>\n");
+        final Path model = workDir.resolve(ShadedModel.FILE_NAME);
+        Files.writeString(model, xml);
+        return new ShadedModel(false, model, artifact -> artifact.setPath(jars.get(artifact.getArtifactId())),
+                NO_OP_WRITER, versions, artifact -> artifact.getPath(), false, Optional.empty());
+    }
+
+    private static Manifest manifest() {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        return manifest;
+    }
+
+    private ZipOutputStream newJar(String artifactId, Manifest manifest) throws IOException {
+        final Path jar = workDir.resolve(artifactId + ".jar");
+        jars.put(artifactId, jar);
+        versions.put(GROUP_ID + ':' + artifactId, GROUP_ID + ':' + artifactId + ":1.0.0.Final::jar");
+        final ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar));
+        if (manifest != null) {
+            out.putNextEntry(new ZipEntry("META-INF/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+            manifest.write(out);
+            out.closeEntry();
+        }
+        return out;
+    }
+
+    private static void deflated(ZipOutputStream out, String name, String content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+
+    private static void stored(ZipOutputStream out, String name, String content) throws IOException {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(bytes);
+        out.closeEntry();
+    }
+
+    private static String read(ZipFile zip, String name) throws IOException {
+        final ZipEntry entry = zip.getEntry(name);
+        Assert.assertNotNull(name, entry);
+        try (InputStream in = zip.getInputStream(entry)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StagedTreeWalkerTestCase {
+
+    private static class RecordingTask implements StagedFileTask {
+        private final String name;
+        private final Map<String, List<String>> visits;
+        private final boolean enabled;
+
+        RecordingTask(String name, Map<String, List<String>> visits, boolean enabled) {
+            this.name = name;
+            this.visits = visits;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public void visitDirectory(Path dir, String relativePath) {
+            record(relativePath, name + " dir");
+        }
+
+        @Override
+        public void visitFile(Path file, String relativePath) throws ProvisioningException {
+            if (relativePath.endsWith("fail.txt")) {
+                throw new ProvisioningException("Failed " + relativePath);
+            }
+            record(relativePath, name);
+        }
+
+        private void record(String relativePath, String visit) {
+            final List<String> pathVisits = visits.computeIfAbsent(relativePath, p -> Collections.synchronizedList(new ArrayList<>()));
+            pathVisits.add(visit);
+            if (!relativePath.isEmpty()) {
+                // the content of a directory is visited before the directory
+                final String parent = relativePath.contains(File.separator) ? relativePath.substring(0, relativePath.lastIndexOf(File.separatorChar)) : "";
+                Assert.assertFalse(visits.containsKey(parent));
+            }
+        }
+    }
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("staged-tree");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testSingleTraversal() throws Exception {
+        final List<String> files = Arrays.asList("a.txt", "bin/b.sh", "bin/c.sh", "modules/x/y/main/module.xml", "modules/x/y/main/y.jar");
+        for (String file : files) {
+            createFile(file);
+        }
+        final Map<String, List<String>> visits = new ConcurrentHashMap<>();
+        StagedTreeWalker.walk(workDir, Arrays.asList(new RecordingTask("first", visits, true),
+                new RecordingTask("disabled", visits, false), new RecordingTask("second", visits, true)));
+
+        final Map<String, List<String>> expected = new HashMap<>();
+        for (String file : files) {
+            expected.put(file.replace('/', File.separatorChar), Arrays.asList("first", "second"));
+        }
+        for (String dir : Arrays.asList("", "bin", "modules", "modules/x", "modules/x/y", "modules/x/y/main")) {
+            expected.put(dir.replace('/', File.separatorChar), Arrays.asList("first dir", "second dir"));
+        }
+        Assert.assertEquals(expected, new HashMap<>(visits));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        createFile("a/b/fail.txt");
+        createFile("a/ok.txt");
+        try {
+            StagedTreeWalker.walk(workDir, Collections.singletonList(new RecordingTask("task", new ConcurrentHashMap<>(), true)));
+            Assert.fail("The walk should have failed");
+        } catch (ProvisioningException e) {
+            Assert.assertEquals("Failed " + "a/b/fail.txt".replace('/', File.separatorChar), e.getMessage());
+        }
+    }
+
+    private void createFile(String relativePath) throws Exception {
+        final Path file = workDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, relativePath);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class XslTemplatesTestCase {
+
+    private static final String STYLESHEET = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+            + "<xsl:output method=\"text\"/><xsl:param name=\"suffix\"/>"
+            + "<xsl:template match=\"/\"><xsl:value-of select=\"/root/@name\"/><xsl:value-of select=\"$suffix\"/></xsl:template>"
+            + "</xsl:stylesheet>";
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("xsl-templates");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testSameContentIsCompiledOnce() throws Exception {
+        final Path first = Files.writeString(workDir.resolve("first.xsl"), STYLESHEET);
+        final Path second = Files.writeString(workDir.resolve("second.xsl"), STYLESHEET);
+        final Path other = Files.writeString(workDir.resolve("other.xsl"), STYLESHEET.replace("@name", "@id"));
+        final XslTemplates templates = new XslTemplates();
+
+        final Transformer firstTransformer = templates.newTransformer(first);
+        firstTransformer.setParameter("suffix", "-first");
+        final Transformer secondTransformer = templates.newTransformer(second);
+        Assert.assertNotSame(firstTransformer, secondTransformer);
+        Assert.assertEquals("a-first", transform(firstTransformer, "<root name=\"a\" id=\"1\"/>"));
+        // parameters are not shared between the transformers
+        Assert.assertEquals("a", transform(secondTransformer, "<root name=\"a\" id=\"1\"/>"));
+        Assert.assertEquals("1", transform(templates.newTransformer(other), "<root name=\"a\" id=\"1\"/>"));
+
+        Assert.assertEquals(2, templates.getCompiled());
+        Assert.assertEquals(1, templates.getHits());
+    }
+
+    private static String transform(Transformer transformer, String xml) throws Exception {
+        final StringWriter writer = new StringWriter();
+        transformer.transform(new StreamSource(new StringReader(xml)), new StreamResult(writer));
+        return writer.toString();
+    }
+}
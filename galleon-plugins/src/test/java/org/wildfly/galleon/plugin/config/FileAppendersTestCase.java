@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileAppendersTestCase {
+
+    private static final String STANDALONE_CONF = "## JVM options\nJAVA_OPTS=\"-Xms64m\"\nJAVA_OPTS=\"$JAVA_OPTS -Djava.net.preferIPv4Stack=true\"\n# end\n";
+
+    private Path workDir;
+    private Path sequentialDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("file-appenders");
+        sequentialDir = Files.createTempDirectory("file-appenders-sequential");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+        IoUtils.recursiveDelete(sequentialDir);
+    }
+
+    @Test
+    public void testSameOutputAsSequentialAppenders() throws Exception {
+        for (Path dir : Arrays.asList(workDir, sequentialDir)) {
+            write(dir, "bin/standalone.conf", STANDALONE_CONF);
+            write(dir, "bin/domain.conf", STANDALONE_CONF);
+            write(dir, "bin/extra.conf", "EXTRA=1\nEXTRA=2\n");
+        }
+        final List<FileAppender> appenders = Arrays.asList(
+                appender("bin/standalone.conf", "^JAVA_OPTS", null, null, "# after JAVA_OPTS"),
+                appender("bin/domain.conf", null, null, null, "# appended"),
+                appender("bin/standalone.conf", "preferIPv4", " # ipv4", null, "multi\nline", ""),
+                appender("bin/standalone.conf", "^multi$", null, null, "# after the split line"),
+                appender("bin/extra.conf", "EXTRA", null, null, "# extra"),
+                appender("bin/standalone.conf", null, null, "bin/extra.conf"),
+                appender("bin/missing.conf", null, null, null, "ignored"));
+
+        final FileAppenders coalesced = new FileAppenders(workDir);
+        for (FileAppender appender : appenders) {
+            coalesced.add(appender);
+        }
+        coalesced.flush();
+
+        for (FileAppender appender : appenders) {
+            final Path target = sequentialDir.resolve(appender.getTarget());
+            if (Files.exists(target)) {
+                Files.write(target, appender.append(sequentialDir, Files.readAllLines(target)), StandardOpenOption.WRITE);
+            }
+        }
+
+        for (String file : Arrays.asList("bin/standalone.conf", "bin/domain.conf", "bin/extra.conf")) {
+            Assert.assertEquals(file, Files.readString(sequentialDir.resolve(file)), Files.readString(workDir.resolve(file)));
+        }
+        Assert.assertTrue(Files.readString(workDir.resolve("bin/standalone.conf")).contains("# extra"));
+        Assert.assertFalse(Files.exists(workDir.resolve("bin/missing.conf")));
+    }
+
+    @Test
+    public void testFlushPath() throws Exception {
+        write(workDir, "bin/standalone.conf", STANDALONE_CONF);
+        write(workDir, "docs/README", "readme\n");
+        final FileAppenders appenders = new FileAppenders(workDir);
+        appenders.add(appender("bin/standalone.conf", null, null, null, "# bin"));
+        appenders.add(appender("docs/README", null, null, null, "# docs"));
+
+        appenders.flush(workDir.resolve("docs"));
+        Assert.assertEquals("readme\n# docs\n".replace("\n", System.lineSeparator()), Files.readString(workDir.resolve("docs/README")));
+        Assert.assertEquals(STANDALONE_CONF, Files.readString(workDir.resolve("bin/standalone.conf")));
+        Assert.assertFalse(appenders.isEmpty());
+
+        appenders.flush();
+        Assert.assertTrue(appenders.isEmpty());
+        Assert.assertTrue(Files.readString(workDir.resolve("bin/standalone.conf")).endsWith("# bin" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testMissingTarget() throws Exception {
+        final FileAppenders appenders = new FileAppenders(workDir);
+        final FileAppender appender = appender("bin/missing.conf", null, null, null, "line");
+        appender.setIgnore(false);
+        appenders.add(appender);
+        try {
+            appenders.flush();
+            Assert.fail("The target doesn't exist");
+        } catch (ProvisioningException e) {
+            // expected
+        }
+    }
+
+    private static FileAppender appender(String target, String match, String addToMatchingLine, String src, String... lines) {
+        final FileAppender appender = new FileAppender();
+        appender.setTarget(target);
+        appender.setMatch(match);
+        appender.setAddToMatchingLine(addToMatchingLine);
+        appender.setSource(src);
+        for (String line : lines) {
+            appender.addLine(line);
+        }
+        return appender;
+    }
+
+    private static void write(Path dir, String file, String content) throws Exception {
+        final Path path = dir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
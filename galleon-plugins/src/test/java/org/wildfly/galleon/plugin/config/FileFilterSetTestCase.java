@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileFilterSetTestCase {
+
+    private static final String[] PATTERNS = {
+        "bin/standalone.sh", "bin/*.sh", "bin/*", "*.bat", "*.ps1", "docs/*/*.xml", "*", "**",
+        "modules/*/main/*.jar", "modules/system/layers/base/*", "*module.xml", "bin/client/*.sh",
+        "bin/?.sh", "*.conf", "domain/configuration/*.properties", "a*a", "welcome-content/*.txt", ""
+    };
+
+    private static final String[] PATHS = {
+        "bin/standalone.sh", "bin/domain.sh", "bin/standalone.bat", "bin/x.sh", "bin/client/jboss-cli.sh",
+        "bin/standalone.conf", "docs/schema/jboss-as-1_0.xml", "docs/licenses/licenses.xml", "docs/a.xml",
+        "modules/system/layers/base/org/jboss/as/main/module.xml", "modules/org/main/x.jar", "modules/main/x.jar",
+        "domain/configuration/mgmt-users.properties", "a", "aa", "aba", "welcome-content/index.txt", "", "README.txt"
+    };
+
+    @Test
+    public void testFirstMatchOfEachPattern() {
+        for (String pattern : PATTERNS) {
+            final List<FileFilter> filters = Collections.singletonList(filter(pattern, true));
+            assertSameAsRegexps(filters);
+        }
+    }
+
+    @Test
+    public void testFirstMatchOfShuffledPatterns() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; ++i) {
+            final List<String> patterns = new ArrayList<>(Arrays.asList(PATTERNS));
+            Collections.shuffle(patterns, random);
+            final List<FileFilter> filters = new ArrayList<>();
+            for (String pattern : patterns.subList(0, 1 + random.nextInt(patterns.size()))) {
+                filters.add(filter(pattern, random.nextBoolean()));
+            }
+            assertSameAsRegexps(filters);
+        }
+    }
+
+    @Test
+    public void testIncludes() {
+        final FileFilterSet set = FileFilterSet.of(Arrays.asList(filter("bin/client/*", false), filter("bin/*", true)));
+        Assert.assertTrue(set.includes("bin/standalone.sh", false));
+        Assert.assertFalse(set.includes("bin/client/jboss-cli.sh", true));
+        Assert.assertFalse(set.includes("docs/a.xml", false));
+        Assert.assertTrue(set.includes("docs/a.xml", true));
+        Assert.assertFalse(FileFilterSet.of(Collections.emptyList()).matches("bin/standalone.sh"));
+    }
+
+    private static void assertSameAsRegexps(List<FileFilter> filters) {
+        final FileFilterSet set = FileFilterSet.of(filters);
+        for (String path : PATHS) {
+            int expected = -1;
+            for (int i = 0; i < filters.size(); ++i) {
+                if (filters.get(i).matches(path)) {
+                    expected = i;
+                    break;
+                }
+            }
+            Assert.assertEquals(filters + " " + path, expected, set.firstMatch(path));
+        }
+    }
+
+    private static FileFilter filter(String pattern, boolean include) {
+        final FileFilter filter = new FileFilter();
+        filter.setPatternString(pattern);
+        if (include) {
+            filter.setInclude();
+        }
+        return filter;
+    }
+}
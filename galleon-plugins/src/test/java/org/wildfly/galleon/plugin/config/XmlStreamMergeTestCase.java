@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.galleon.plugin.config;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class XmlStreamMergeTestCase {
+
+    private static final String STYLESHEET_START = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\""
+            + " xmlns:str=\"http://exslt.org/strings\" xmlns:s=\"urn:summary\" extension-element-prefixes=\"str\">\n"
+            + "    <xsl:output method=\"xml\" encoding=\"UTF-8\"/>\n"
+            + "    <xsl:param name=\"fileList\"/>\n"
+            + "    <xsl:param name=\"fileSeparator\"/>\n"
+            + "    <xsl:template match=\"/\">\n";
+
+    private static final String STYLESHEET_END = "    </xsl:template>\n"
+            + "</xsl:stylesheet>\n";
+
+    private static final String MERGER_XSL = STYLESHEET_START
+            + "        <summary>\n"
+            + "            <xsl:for-each select=\"str:tokenize($fileList, ',')\">\n"
+            + "                <xsl:copy-of select=\"document(.)/summary/@*\"/>\n"
+            + "            </xsl:for-each>\n"
+            + "            <dependencies>\n"
+            + "                <xsl:for-each select=\"str:tokenize($fileList, ',')\">\n"
+            + "                    <xsl:copy-of select=\"document(.)/summary/dependencies/*\"/>\n"
+            + "                </xsl:for-each>\n"
+            + "            </dependencies>\n"
+            + "            <notes>merged <!-- literal --> notes</notes>\n"
+            + "            <xsl:for-each select=\"str:tokenize($fileList, ',')\">\n"
+            + "                <xsl:copy-of select=\"document(.)/summary/s:extra/node()\"/>\n"
+            + "                <xsl:copy-of select=\"document(.)/summary/item\"/>\n"
+            + "            </xsl:for-each>\n"
+            + "        </summary>\n"
+            + STYLESHEET_END;
+
+    private Path workDir;
+
+    @Before
+    public void before() throws Exception {
+        workDir = Files.createTempDirectory("xml-merge");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(workDir);
+    }
+
+    @Test
+    public void testMergeIsTheStylesheetResult() throws Exception {
+        final Path mergerXsl = Files.writeString(workDir.resolve("merger.xsl"), MERGER_XSL);
+        final List<Path> files = Arrays.asList(
+                Files.writeString(workDir.resolve("a.xml"), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<summary version=\"1\" xmlns:s=\"urn:summary\" xmlns:x=\"urn:x\">\n"
+                        + "    <dependencies><dependency x:id=\"a\">a</dependency></dependencies>\n"
+                        + "    <item name=\"x\" value=\"1\"/>\n"
+                        + "    <s:extra>text <!-- comment --><s:a/><b xmlns=\"urn:b\"><c/></b></s:extra>\n"
+                        + "</summary>\n"),
+                Files.writeString(workDir.resolve("b.xml"),
+                        "<summary version=\"2\" extra=\"e\"><dependencies><dependency>b</dependency>text<other/></dependencies>"
+                        + "<item name=\"y\" value=\"3\">\u00e9</item><ignored><item/></ignored></summary>"));
+        final XmlStreamMerge merge = XmlStreamMerge.of(mergerXsl);
+        Assert.assertNotNull(merge);
+        final Path target = workDir.resolve("summary.xml");
+        merge.merge(files, target);
+
+        final Path expected = workDir.resolve("expected.xml");
+        transform(mergerXsl, files, expected);
+        final Document expectedDoc = parse(expected);
+        final Document mergedDoc = parse(target);
+        Assert.assertTrue(Files.readString(expected) + "\n" + Files.readString(target), expectedDoc.isEqualNode(mergedDoc));
+    }
+
+    @Test
+    public void testStylesheetsAppliedWithXslt() throws Exception {
+        // indented output
+        assertNotStreamed(MERGER_XSL.replace("encoding=\"UTF-8\"", "indent=\"yes\""));
+        // attributes added once the element has content
+        assertNotStreamed(STYLESHEET_START
+                + "<summary><a/><xsl:for-each select=\"str:tokenize($fileList, ',')\">"
+                + "<xsl:copy-of select=\"document(.)/summary/@*\"/></xsl:for-each></summary>"
+                + STYLESHEET_END);
+        // attributes and elements copied by the same iteration
+        assertNotStreamed(STYLESHEET_START
+                + "<summary><xsl:for-each select=\"str:tokenize($fileList, ',')\">"
+                + "<xsl:copy-of select=\"document(.)/summary/@*\"/><xsl:copy-of select=\"document(.)/summary/*\"/>"
+                + "</xsl:for-each></summary>"
+                + STYLESHEET_END);
+        // other instructions
+        assertNotStreamed(STYLESHEET_START
+                + "<summary><xsl:for-each select=\"str:tokenize($fileList, ',')\">"
+                + "<xsl:copy-of select=\"document(.)/summary/*[@name]\"/></xsl:for-each></summary>"
+                + STYLESHEET_END);
+        assertNotStreamed(STYLESHEET_START
+                + "<summary><xsl:apply-templates select=\"document(str:tokenize($fileList, ','))/summary/*\"/></summary>"
+                + STYLESHEET_END);
+        assertNotStreamed(STYLESHEET_START.replace("<xsl:template", "<xsl:strip-space elements=\"*\"/><xsl:template")
+                + "<summary/>"
+                + STYLESHEET_END);
+        // attribute of a literal result element
+        assertNotStreamed(STYLESHEET_START + "<summary version=\"1\"/>" + STYLESHEET_END);
+        // XSLT 2.0 function in an XSLT 1.0 stylesheet
+        assertNotStreamed(STYLESHEET_START
+                + "<summary><xsl:for-each select=\"tokenize($fileList, ',')\">"
+                + "<xsl:copy-of select=\"document(.)/summary/*\"/></xsl:for-each></summary>"
+                + STYLESHEET_END);
+    }
+
+    @Test
+    public void testTargetIsMerged() throws Exception {
+        final XmlStreamMerge merge = XmlStreamMerge.of(Files.writeString(workDir.resolve("merger.xsl"), MERGER_XSL));
+        final Path base = Files.writeString(workDir.resolve("a.xml"), "<summary><item/></summary>");
+        final Path merged = Files.writeString(workDir.resolve("b.xml"), "<summary><item name=\"b\"/></summary>");
+
+        merge.merge(Arrays.asList(base, merged), base);
+
+        final String result = Files.readString(base);
+        Assert.assertTrue(result, result.endsWith("<notes>merged  notes</notes><item></item><item name=\"b\"></item></summary>"));
+        try (Stream<Path> files = Files.list(workDir)) {
+            Assert.assertEquals(3, files.count());
+        }
+    }
+
+    private void assertNotStreamed(String stylesheet) throws Exception {
+        Assert.assertNull(stylesheet, XmlStreamMerge.of(Files.writeString(workDir.resolve("merger.xsl"), stylesheet)));
+    }
+
+    private static void transform(Path mergerXsl, List<Path> files, Path target) throws Exception {
+        final Transformer transformer = TransformerFactory.newInstance().newTransformer(new StreamSource(mergerXsl.toFile()));
+        transformer.setParameter("fileList", files.stream().map(p -> p.toUri().toString()).collect(Collectors.joining(",")));
+        transformer.setParameter("fileSeparator", File.separator);
+        try (OutputStream out = Files.newOutputStream(target)) {
+            transformer.transform(new DOMSource(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()),
+                    new StreamResult(out));
+        }
+    }
+
+    private static Document parse(Path file) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document document = factory.newDocumentBuilder().parse(file.toFile());
+        document.normalizeDocument();
+        return document;
+    }
+}
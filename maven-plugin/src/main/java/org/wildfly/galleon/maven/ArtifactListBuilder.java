@@ -93,7 +93,7 @@ public class ArtifactListBuilder {
         }
     }
 
-    private String checksum(String filepath) throws IOException {
+    String checksum(String filepath) throws IOException {
         try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(filepath))) {
             byte[] buffer = new byte[8192];
             int count;
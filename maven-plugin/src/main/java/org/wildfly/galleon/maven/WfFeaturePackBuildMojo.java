@@ -17,7 +17,6 @@
 package org.wildfly.galleon.maven;
 
 import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
@@ -27,12 +26,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.xml.stream.XMLStreamException;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -52,6 +48,7 @@ import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.CollectionUtils;
 import org.jboss.galleon.util.PathFilter;
 import org.jboss.galleon.xml.PackageXmlParser;
+import org.wildfly.galleon.plugin.LineEndingsConverter;
 import org.wildfly.galleon.plugin.WfConstants;
 
 /**
@@ -66,8 +63,6 @@ import org.wildfly.galleon.plugin.WfConstants;
 @Mojo(name = "build-feature-pack", requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME, defaultPhase = LifecyclePhase.COMPILE)
 public class WfFeaturePackBuildMojo extends AbstractFeaturePackBuildMojo {
 
-    private static Pattern windowsLineEndingPattern = Pattern.compile("(?<!\\r)\\n", Pattern.MULTILINE);
-    private static Pattern linuxLineEndingPattern = Pattern.compile("\\r\\n", Pattern.MULTILINE);
     private static PathFilter windowsLineEndingsPathFilter = new PathFilter() {
         @Override
         public boolean accept(Path path) {
@@ -473,9 +468,9 @@ public class WfFeaturePackBuildMojo extends AbstractFeaturePackBuildMojo {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                     if(linuxLineEndingsPathFilter.accept(file)) {
-                        ensureLineEndings(file, linuxLineEndingPattern, "\n");
+                        LineEndingsConverter.replaceLineEndings(file, false);
                     } else if(windowsLineEndingsPathFilter.accept(file)) {
-                        ensureLineEndings(file, windowsLineEndingPattern, "\r\n");
+                        LineEndingsConverter.replaceLineEndings(file, true);
                     }
                     return FileVisitResult.CONTINUE;
                 }
@@ -484,16 +479,4 @@ public class WfFeaturePackBuildMojo extends AbstractFeaturePackBuildMojo {
             throw new MojoExecutionException("Failed to adjust line endings for " + file, e);
         }
     }
-
-    private static void ensureLineEndings(Path file, Pattern pattern, String lineEnding) throws IOException {
-        final String content = IoUtils.readFile(file);
-        final Matcher matcher = pattern.matcher(content);
-        final String fixedContent = matcher.replaceAll(lineEnding);
-        if(content.equals(fixedContent)) {
-            return;
-        }
-        try(ByteArrayInputStream in = new ByteArrayInputStream(fixedContent.getBytes(WfConstants.UTF8))) {
-            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
-        }
-    }
 }
@@ -79,7 +79,6 @@ public class ShadedJARModelGeneratorTestCase {
         mergedArtifacts.put("org.wildfly.core:wildfly-controller-client", "org.wildfly.core:wildfly-controller-client:25.0.0.Final::jar");
         ShadedModel shadedModel = new ShadedModel(false,
                 model,
-                target,
                 (MavenArtifact artifact) -> {
                 },
                 new MessageWriter() {